@@ -0,0 +1,197 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import net.digitaltsunami.word.trie.ExpectedValueWeightTable;
+
+/**
+ * Generates reproducible dictionaries of random terms for the benchmarks.
+ * Letters are chosen using their approximate frequency within English text and
+ * term lengths are clustered around seven characters, giving a trie with a
+ * shape similar to one holding a natural language dictionary. The same seed
+ * and size will always produce the same terms.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class DictionaryGenerator {
+    /** Seed used by the benchmarks unless one is provided. */
+    public static final long DEFAULT_SEED = 20111L;
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+    /** Approximate frequency of each letter within English text, per 1000. */
+    private static final int[] LETTER_FREQ = { 82, 15, 28, 43, 127, 22, 20, 61, 70, 2, 8, 40,
+            24, 67, 75, 19, 1, 60, 63, 91, 28, 10, 24, 2, 20, 1 };
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 16;
+
+    private final Random random;
+    private final int[] cumulativeFreq;
+
+    /**
+     * Create a generator using the provided seed.
+     * 
+     * @param seed
+     *            seed for the random sequence of terms.
+     */
+    public DictionaryGenerator(long seed) {
+        this.random = new Random(seed);
+        this.cumulativeFreq = new int[LETTER_FREQ.length];
+        int total = 0;
+        for (int i = 0; i < LETTER_FREQ.length; i++) {
+            total += LETTER_FREQ[i];
+            cumulativeFreq[i] = total;
+        }
+    }
+
+    /**
+     * Create a generator using the {@link #DEFAULT_SEED}.
+     */
+    public DictionaryGenerator() {
+        this(DEFAULT_SEED);
+    }
+
+    /**
+     * Generate the provided number of unique terms in the order generated.
+     * 
+     * @param size
+     *            number of unique terms to generate.
+     * @return list of unique terms.
+     */
+    public List<String> generateTerms(int size) {
+        Set<String> terms = new LinkedHashSet<String>(size * 2);
+        while (terms.size() < size) {
+            terms.add(nextTerm());
+        }
+        return new ArrayList<String>(terms);
+    }
+
+    /**
+     * Generate a single random term. The term may duplicate a prior term.
+     * 
+     * @return a random term.
+     */
+    public String nextTerm() {
+        int length = (int) Math.round(7 + random.nextGaussian() * 2.5);
+        length = Math.max(MIN_LENGTH, Math.min(MAX_LENGTH, length));
+        StringBuilder term = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            term.append(nextLetter());
+        }
+        return term.toString();
+    }
+
+    /**
+     * Return a copy of the provided term with the provided number of random
+     * edits applied. Each edit is an insertion, deletion or substitution.
+     * 
+     * @param term
+     *            term to alter.
+     * @param edits
+     *            number of edits to apply.
+     * @return the altered term.
+     */
+    public String mutate(String term, int edits) {
+        StringBuilder mutated = new StringBuilder(term);
+        for (int i = 0; i < edits; i++) {
+            int op = mutated.length() < 2 ? 0 : random.nextInt(3);
+            int pos = random.nextInt(mutated.length() + (op == 0 ? 1 : 0));
+            if (op == 0) {
+                mutated.insert(pos, nextLetter());
+            } else if (op == 1) {
+                mutated.deleteCharAt(pos);
+            } else {
+                mutated.setCharAt(pos, nextLetter());
+            }
+        }
+        return mutated.toString();
+    }
+
+    /**
+     * Return a pattern for the provided term with each character replaced by
+     * the wildcard with the provided probability.
+     * 
+     * @param term
+     *            term on which the pattern is based.
+     * @param wildcardChar
+     *            character used as the wildcard.
+     * @param density
+     *            probability, from 0 to 1, of each character being replaced.
+     * @return pattern matching at least the provided term.
+     */
+    public String toPattern(String term, char wildcardChar, double density) {
+        char[] pattern = term.toCharArray();
+        for (int i = 0; i < pattern.length; i++) {
+            if (random.nextDouble() < density) {
+                pattern[i] = wildcardChar;
+            }
+        }
+        return new String(pattern);
+    }
+
+    /**
+     * Create a weight table from the character pairs within the provided terms
+     * for use with the {@link net.digitaltsunami.word.trie.WeightedCharTrieNodeFactory}.
+     * 
+     * @param terms
+     *            terms from which the pairs will be counted.
+     * @return expected values of each character following another.
+     */
+    public static ExpectedValueWeightTable createWeightTable(List<String> terms) {
+        int letters = ALPHABET.length();
+        // Row 0 is the start of a term, followed by a row for each letter.
+        // Column letters is the end of a term.
+        int[][] counts = new int[letters + 1][letters + 1];
+        for (String term : terms) {
+            int prior = 0;
+            for (int i = 0; i < term.length(); i++) {
+                int current = ALPHABET.indexOf(term.charAt(i));
+                counts[prior][current]++;
+                prior = current + 1;
+            }
+            counts[prior][letters]++;
+        }
+
+        StringBuilder csv = new StringBuilder(",FIRST");
+        for (int i = 0; i < letters; i++) {
+            csv.append(',').append(ALPHABET.charAt(i));
+        }
+        csv.append(",terminal,total\n");
+        for (int row = 0; row <= letters; row++) {
+            csv.append(row == 0 ? "FIRST" : String.valueOf(ALPHABET.charAt(row - 1)));
+            csv.append(",0");
+            int total = 0;
+            for (int col = 0; col <= letters; col++) {
+                csv.append(',').append(counts[row][col]);
+                total += counts[row][col];
+            }
+            csv.append(',').append(total).append('\n');
+        }
+        try {
+            return new ExpectedValueWeightTable(new BufferedReader(new StringReader(
+                    csv.toString())));
+        } catch (IOException e) {
+            // Not possible when reading from a string.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private char nextLetter() {
+        int value = random.nextInt(cumulativeFreq[cumulativeFreq.length - 1]);
+        int i = 0;
+        while (cumulativeFreq[i] <= value) {
+            i++;
+        }
+        return ALPHABET.charAt(i);
+    }
+}
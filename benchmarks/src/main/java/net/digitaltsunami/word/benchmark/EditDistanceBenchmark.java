@@ -0,0 +1,128 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.benchmark;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.digitaltsunami.word.sequence.BitParallelLevenshteinStrategy;
+import net.digitaltsunami.word.sequence.DamerauLevenshteinDistanceStrategy;
+import net.digitaltsunami.word.sequence.EditDistance;
+import net.digitaltsunami.word.sequence.EditDistanceCalculator;
+import net.digitaltsunami.word.sequence.EditDistancePrefilter;
+import net.digitaltsunami.word.sequence.EditDistanceStrategy;
+import net.digitaltsunami.word.sequence.LevenshteinDistanceStrategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the edit distance strategies, both for a single pair of terms and
+ * when filtering a generated list of candidates using
+ * {@link EditDistance#getAllWithinDistance(Collection, String, int, EditDistanceCalculator)}
+ * , with and without an {@link EditDistancePrefilter}.
+ * 
+ * @author dhagberg
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class EditDistanceBenchmark {
+    private static final int PAIR_COUNT = 1024;
+
+    /** Edit distance strategy to use: levenshtein, bitparallel or damerau. */
+    @Param({ "levenshtein", "bitparallel", "damerau" })
+    public String strategy;
+
+    /** Number of candidates to filter. */
+    @Param({ "10000" })
+    public int candidateCount;
+
+    /** Maximum distance when filtering candidates. */
+    @Param({ "2" })
+    public int maxDistance;
+
+    private EditDistanceStrategy distanceStrategy;
+    private EditDistanceCalculator calculator;
+    private EditDistancePrefilter prefilter;
+    private List<String> candidates;
+    private String[] fromTerms;
+    private String[] toTerms;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        distanceStrategy = createStrategy(strategy);
+        calculator = new EditDistanceCalculator(distanceStrategy);
+        prefilter = new EditDistancePrefilter(EditDistancePrefilter.DEFAULT_Q,
+                "damerau".equals(strategy));
+        DictionaryGenerator generator = new DictionaryGenerator();
+        candidates = generator.generateTerms(candidateCount);
+        fromTerms = new String[PAIR_COUNT];
+        toTerms = new String[PAIR_COUNT];
+        for (int i = 0; i < PAIR_COUNT; i++) {
+            fromTerms[i] = candidates.get((i * 7919) % candidates.size());
+            // Mix of near and distant pairs.
+            toTerms[i] = i % 2 == 0 ? generator.mutate(fromTerms[i], 1 + i % 3) : candidates
+                    .get((i * 104729) % candidates.size());
+        }
+    }
+
+    /**
+     * Create the strategy for the provided name.
+     * 
+     * @param name
+     *            name of the strategy as provided to the strategy parameter.
+     * @return the edit distance strategy.
+     */
+    static EditDistanceStrategy createStrategy(String name) {
+        if ("damerau".equals(name)) {
+            return new DamerauLevenshteinDistanceStrategy();
+        }
+        if ("bitparallel".equals(name)) {
+            return new BitParallelLevenshteinStrategy();
+        }
+        return new LevenshteinDistanceStrategy();
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (PAIR_COUNT - 1);
+        return next;
+    }
+
+    @Benchmark
+    public int getEditCount() {
+        int i = nextIndex();
+        return distanceStrategy.getEditCount(fromTerms[i], toTerms[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Collection<String> getAllWithinDistance() {
+        return EditDistance.getAllWithinDistance(candidates, fromTerms[nextIndex()], maxDistance,
+                calculator);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Collection<String> getAllWithinDistancePrefiltered() {
+        return prefilter.getAllWithinDistance(candidates, fromTerms[nextIndex()], maxDistance,
+                calculator);
+    }
+}
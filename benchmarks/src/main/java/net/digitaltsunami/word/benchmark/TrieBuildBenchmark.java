@@ -0,0 +1,108 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.digitaltsunami.word.trie.CharTrie;
+import net.digitaltsunami.word.trie.CharTrieNodeFactory;
+import net.digitaltsunami.word.trie.ExpectedValueWeightTable;
+import net.digitaltsunami.word.trie.IndexedLexCharTrieNodeFactory;
+import net.digitaltsunami.word.trie.LexCharTrieNodeFactory;
+import net.digitaltsunami.word.trie.WeightedCharTrieNodeFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to load a generated dictionary into a {@link CharTrie}
+ * using each of the node factories, either term by term, as a sorted list of
+ * terms or from the stream written by
+ * {@link CharTrie#writeTo(java.io.OutputStream)}.
+ * 
+ * @author dhagberg
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class TrieBuildBenchmark {
+    /** Number of unique terms to load. */
+    @Param({ "10000", "100000" })
+    public int dictionarySize;
+
+    /** Node factory to use: lex, indexed or weighted. */
+    @Param({ "lex", "indexed", "weighted" })
+    public String nodeFactory;
+
+    private List<String> terms;
+    private List<String> sortedTerms;
+    private ExpectedValueWeightTable weightTable;
+    private byte[] image;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        terms = new DictionaryGenerator().generateTerms(dictionarySize);
+        weightTable = DictionaryGenerator.createWeightTable(terms);
+        sortedTerms = new ArrayList<String>(terms);
+        Collections.sort(sortedTerms);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        addTerms().writeTo(out);
+        image = out.toByteArray();
+    }
+
+    @Benchmark
+    public CharTrie addTerms() {
+        CharTrie dict = createTrie();
+        for (String term : terms) {
+            dict.addTerm(term);
+        }
+        return dict;
+    }
+
+    @Benchmark
+    public CharTrie addSortedTerms() {
+        CharTrie dict = createTrie();
+        dict.addSortedTerms(sortedTerms.iterator());
+        return dict;
+    }
+
+    @Benchmark
+    public CharTrie readFrom() throws IOException {
+        CharTrie dict = createTrie();
+        dict.readFrom(new ByteArrayInputStream(image));
+        return dict;
+    }
+
+    private CharTrie createTrie() {
+        CharTrieNodeFactory factory;
+        if ("weighted".equals(nodeFactory)) {
+            factory = new WeightedCharTrieNodeFactory(weightTable);
+        } else if ("indexed".equals(nodeFactory)) {
+            factory = new IndexedLexCharTrieNodeFactory();
+        } else {
+            factory = new LexCharTrieNodeFactory();
+        }
+        return new CharTrie(null, null, factory);
+    }
+}
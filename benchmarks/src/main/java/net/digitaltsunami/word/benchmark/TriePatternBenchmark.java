@@ -0,0 +1,103 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.benchmark;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import net.digitaltsunami.word.trie.CharTrie;
+import net.digitaltsunami.word.trie.PatternSearchParallelStrategy;
+import net.digitaltsunami.word.trie.PatternSearchQueueStrategy;
+import net.digitaltsunami.word.trie.PatternSearchRecursiveStrategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the pattern search strategies using patterns derived from terms
+ * within a generated dictionary, with each character replaced by a wildcard
+ * with the provided probability.
+ * 
+ * @author dhagberg
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class TriePatternBenchmark {
+    private static final int QUERY_COUNT = 256;
+
+    /** Number of unique terms within the dictionary. */
+    @Param({ "10000", "100000" })
+    public int dictionarySize;
+
+    /** Pattern search strategy to use: recursive, queue or parallel. */
+    @Param({ "recursive", "queue", "parallel" })
+    public String strategy;
+
+    /** Probability of each character within a pattern being a wildcard. */
+    @Param({ "0.25", "0.5", "0.75" })
+    public double wildcardDensity;
+
+    private CharTrie dict;
+    private ExecutorService executor;
+    private String[] patterns;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        DictionaryGenerator generator = new DictionaryGenerator();
+        List<String> terms = generator.generateTerms(dictionarySize);
+        dict = new CharTrie();
+        for (String term : terms) {
+            dict.addTerm(term);
+        }
+        if ("queue".equals(strategy)) {
+            dict.setPatternSearchStrategy(new PatternSearchQueueStrategy());
+        } else if ("parallel".equals(strategy)) {
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            executor = Executors.newFixedThreadPool(parallelism);
+            dict.setPatternSearchStrategy(new PatternSearchParallelStrategy(executor,
+                    parallelism));
+        } else {
+            dict.setPatternSearchStrategy(new PatternSearchRecursiveStrategy());
+        }
+        patterns = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            String term = terms.get((i * 7919) % terms.size());
+            patterns[i] = generator.toPattern(term, dict.getWildcardChar(), wildcardDensity);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    @Benchmark
+    public Collection<String> findPattern() {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        return dict.findPattern(patterns[next]);
+    }
+}
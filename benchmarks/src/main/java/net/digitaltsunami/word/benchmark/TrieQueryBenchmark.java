@@ -0,0 +1,97 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.benchmark;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.digitaltsunami.word.trie.CharTrie;
+import net.digitaltsunami.word.trie.IndexedLexCharTrieNodeFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures term lookup, prefix and length queries against a generated
+ * dictionary. Each invocation queries the next of a fixed set of terms, half
+ * of which are within the dictionary.
+ * 
+ * @author dhagberg
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class TrieQueryBenchmark {
+    private static final int QUERY_COUNT = 1024;
+
+    /** Number of unique terms within the dictionary. */
+    @Param({ "10000", "100000" })
+    public int dictionarySize;
+
+    /** Number of characters in the prefix for prefix queries. */
+    @Param({ "1", "2", "3" })
+    public int prefixLength;
+
+    /** Node factory to use: lex or indexed. */
+    @Param({ "lex", "indexed" })
+    public String nodeFactory;
+
+    private CharTrie dict;
+    private String[] queries;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        DictionaryGenerator generator = new DictionaryGenerator();
+        List<String> terms = generator.generateTerms(dictionarySize);
+        dict = "indexed".equals(nodeFactory) ? new CharTrie(null, null,
+                new IndexedLexCharTrieNodeFactory()) : new CharTrie();
+        for (String term : terms) {
+            dict.addTerm(term);
+        }
+        queries = new String[QUERY_COUNT];
+        prefixes = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            String term = terms.get((i * 7919) % terms.size());
+            queries[i] = i % 2 == 0 ? term : generator.mutate(term, 1);
+            prefixes[i] = term.substring(0, Math.min(prefixLength, term.length()));
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        return next;
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return dict.contains(queries[nextIndex()]);
+    }
+
+    @Benchmark
+    public Collection<String> findTerms() {
+        return dict.findTerms(prefixes[nextIndex()]);
+    }
+
+    @Benchmark
+    public Collection<String> findAllTermsOfLength() {
+        return dict.findAllTermsOfLength(queries[nextIndex()].length());
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import net.digitaltsunami.word.sequence.EditDistanceStrategy;
+import net.digitaltsunami.word.sequence.LevenshteinDistanceStrategy;
+import net.digitaltsunami.word.trie.CharTrie;
+
+/**
+ * Index of terms arranged as a Burkhard-Keller tree, answering queries for
+ * the terms within an edit distance of a term, or nearest to a term, without
+ * comparing the term to every term within the index.
+ * <p>
+ * Each child of a node is keyed by its edit distance from the node. As edit
+ * distance satisfies the triangle inequality, a term within distance n of the
+ * query can only be found below the children of a node whose key is within n
+ * of the distance between the query and the node, and all other children are
+ * skipped.
+ * <p>
+ * Distances are calculated using
+ * {@link EditDistanceStrategy#getEditCount(String, String)}. The
+ * {@link net.digitaltsunami.word.sequence.DamerauLevenshteinDistanceStrategy}
+ * calculates the restricted form of the distance, which does not strictly
+ * satisfy the triangle inequality; in rare cases a query using it may omit a
+ * term that a scan would return.
+ * <p>
+ * This class is not thread safe.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class BKTree implements TermIndex {
+    private final EditDistanceStrategy distanceStrategy;
+    private Node root;
+    private int size;
+
+    /**
+     * Create an empty index using the {@link LevenshteinDistanceStrategy}.
+     */
+    public BKTree() {
+        this(new LevenshteinDistanceStrategy());
+    }
+
+    /**
+     * Create an empty index using the provided strategy.
+     * 
+     * @param distanceStrategy
+     *            strategy used to calculate the distance between terms.
+     */
+    public BKTree(EditDistanceStrategy distanceStrategy) {
+        this.distanceStrategy = distanceStrategy;
+    }
+
+    /**
+     * Create an index of the provided terms using the provided strategy.
+     * 
+     * @param distanceStrategy
+     *            strategy used to calculate the distance between terms.
+     * @param terms
+     *            terms to add to the index.
+     */
+    public BKTree(EditDistanceStrategy distanceStrategy, Collection<String> terms) {
+        this(distanceStrategy);
+        for (String term : terms) {
+            add(term);
+        }
+    }
+
+    /**
+     * Create an index of all terms within the provided dictionary using the
+     * provided strategy. Terms later added to the dictionary may be added to
+     * the index by registering a {@link TermIndexListener} with the
+     * dictionary.
+     * 
+     * @param distanceStrategy
+     *            strategy used to calculate the distance between terms.
+     * @param dictionary
+     *            dictionary containing the terms to add to the index.
+     */
+    public BKTree(EditDistanceStrategy distanceStrategy, CharTrie dictionary) {
+        this(distanceStrategy);
+        for (Iterator<String> terms = dictionary.iterateTerms(""); terms.hasNext();) {
+            add(terms.next());
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.index.TermIndex#add(java.lang.String)
+     */
+    @Override
+    public boolean add(String term) {
+        if (root == null) {
+            root = new Node(term);
+            size++;
+            return true;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distanceStrategy.getEditCount(term, node.term);
+            if (distance == 0) {
+                return false;
+            }
+            Node child = node.getChild(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(term));
+                size++;
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.index.TermIndex#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return all terms within the provided edit distance of the provided term,
+     * ordered by distance and then by term.
+     * 
+     * @param term
+     *            term from which the distance will be calculated.
+     * @param maxDistance
+     *            maximum distance of the terms to return.
+     * @return terms within the provided distance or an empty list if none.
+     */
+    public List<String> getAllWithinDistance(String term, int maxDistance) {
+        if (root == null || maxDistance < 0) {
+            return Collections.emptyList();
+        }
+        List<Match> matches = new ArrayList<Match>();
+        List<Node> pending = new ArrayList<Node>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            int distance = distanceStrategy.getEditCount(term, node.term);
+            if (distance <= maxDistance) {
+                matches.add(new Match(node.term, distance));
+            }
+            node.addChildrenWithin(distance - maxDistance, distance + maxDistance, pending);
+        }
+        Collections.sort(matches);
+        return toTerms(matches);
+    }
+
+    /**
+     * Return the provided number of terms nearest to the provided term,
+     * ordered by distance and then by term. Of terms at the same distance as
+     * the furthest term returned, those first in order are returned.
+     * 
+     * @param term
+     *            term from which the distance will be calculated.
+     * @param k
+     *            number of terms to return.
+     * @return up to k terms nearest to the provided term.
+     */
+    public List<String> getNearest(String term, int k) {
+        if (root == null || k < 1) {
+            return Collections.emptyList();
+        }
+        // Head of the queue is the furthest of the nearest terms found.
+        PriorityQueue<Match> nearest = new PriorityQueue<Match>(k + 1,
+                Collections.reverseOrder());
+        List<Node> pending = new ArrayList<Node>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            int distance = distanceStrategy.getEditCount(term, node.term);
+            Match match = new Match(node.term, distance);
+            if (nearest.size() < k) {
+                nearest.add(match);
+            } else if (match.compareTo(nearest.peek()) < 0) {
+                nearest.poll();
+                nearest.add(match);
+            }
+            // Only terms no further than the furthest found can be included.
+            int radius = nearest.size() < k ? Integer.MAX_VALUE : nearest.peek().distance;
+            int lo = radius == Integer.MAX_VALUE ? 0 : distance - radius;
+            int hi = radius == Integer.MAX_VALUE ? Integer.MAX_VALUE : distance + radius;
+            node.addChildrenWithin(lo, hi, pending);
+        }
+        List<Match> matches = new ArrayList<Match>(nearest);
+        Collections.sort(matches);
+        return toTerms(matches);
+    }
+
+    private List<String> toTerms(List<Match> matches) {
+        List<String> terms = new ArrayList<String>(matches.size());
+        for (Match match : matches) {
+            terms.add(match.term);
+        }
+        return terms;
+    }
+
+    /**
+     * Term within the tree along with its children, ordered by their distance
+     * from this term.
+     * 
+     * @author dhagberg
+     * 
+     */
+    private static class Node {
+        private static final int[] NO_DISTANCES = new int[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private final String term;
+        private int[] distances = NO_DISTANCES;
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+
+        private Node(String term) {
+            this.term = term;
+        }
+
+        private Node getChild(int distance) {
+            int pos = Arrays.binarySearch(distances, 0, childCount, distance);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        private void addChild(int distance, Node child) {
+            if (childCount == distances.length) {
+                int capacity = Math.max(2, childCount * 2);
+                distances = Arrays.copyOf(distances, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            int pos = -Arrays.binarySearch(distances, 0, childCount, distance) - 1;
+            System.arraycopy(distances, pos, distances, pos + 1, childCount - pos);
+            System.arraycopy(children, pos, children, pos + 1, childCount - pos);
+            distances[pos] = distance;
+            children[pos] = child;
+            childCount++;
+        }
+
+        /**
+         * Add the children with a distance in the closed range [lo, hi] to the
+         * provided list.
+         */
+        private void addChildrenWithin(int lo, int hi, List<Node> list) {
+            for (int i = 0; i < childCount && distances[i] <= hi; i++) {
+                if (distances[i] >= lo) {
+                    list.add(children[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Term found by a query and its distance from the query term. Ordered by
+     * distance and then by term.
+     * 
+     * @author dhagberg
+     * 
+     */
+    private static class Match implements Comparable<Match> {
+        private final String term;
+        private final int distance;
+
+        private Match(String term, int distance) {
+            this.term = term;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            if (distance != other.distance) {
+                return distance < other.distance ? -1 : 1;
+            }
+            return term.compareTo(other.term);
+        }
+    }
+}
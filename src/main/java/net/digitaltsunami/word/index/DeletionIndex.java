@@ -0,0 +1,279 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.digitaltsunami.word.sequence.DamerauLevenshteinDistanceStrategy;
+import net.digitaltsunami.word.sequence.EditDistanceStrategy;
+import net.digitaltsunami.word.trie.CharTrie;
+
+/**
+ * Index of terms by the strings formed by deleting characters from each term,
+ * providing spelling suggestions within a small number of edits without
+ * calculating the edit distance to most terms.
+ * <p>
+ * If a term is within n edits of a query, deleting at most n characters from
+ * each produces a common string. The index maps every string formed by
+ * deleting up to the maximum number of edits from each term to the terms that
+ * produced it. A query generates the deletions of the query term, which are
+ * few for small edit counts, and only the terms sharing a deletion are
+ * verified by calculating their edit distance.
+ * <p>
+ * The number of deletions grows quickly with term length. To limit the size of
+ * the index, deletions are generated only for the first prefixLength
+ * characters of each term. A shorter prefix produces a smaller index at the
+ * cost of more terms to verify for each query.
+ * <p>
+ * This class is not thread safe.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class DeletionIndex implements TermIndex {
+    /** Default number of leading characters of each term used for deletions. */
+    public static final int DEFAULT_PREFIX_LENGTH = 7;
+
+    private final int maxEdits;
+    private final int prefixLength;
+    private final EditDistanceStrategy distanceStrategy;
+    private final List<String> terms = new ArrayList<String>();
+    private final Map<String, Integer> termIds = new HashMap<String, Integer>();
+    private final Map<String, IntList> deletions = new HashMap<String, IntList>();
+
+    /**
+     * Create an empty index supporting queries of up to the provided number of
+     * edits, using the {@link #DEFAULT_PREFIX_LENGTH} and verifying suggestions
+     * with the {@link DamerauLevenshteinDistanceStrategy}.
+     * 
+     * @param maxEdits
+     *            maximum number of edits supported by queries.
+     */
+    public DeletionIndex(int maxEdits) {
+        this(maxEdits, DEFAULT_PREFIX_LENGTH);
+    }
+
+    /**
+     * Create an empty index supporting queries of up to the provided number of
+     * edits, verifying suggestions with the
+     * {@link DamerauLevenshteinDistanceStrategy}.
+     * 
+     * @param maxEdits
+     *            maximum number of edits supported by queries.
+     * @param prefixLength
+     *            number of leading characters of each term from which
+     *            deletions are generated. Must be greater than maxEdits.
+     */
+    public DeletionIndex(int maxEdits, int prefixLength) {
+        this(maxEdits, prefixLength, new DamerauLevenshteinDistanceStrategy());
+    }
+
+    /**
+     * Create an empty index supporting queries of up to the provided number of
+     * edits, verifying suggestions with the provided strategy.
+     * 
+     * @param maxEdits
+     *            maximum number of edits supported by queries.
+     * @param prefixLength
+     *            number of leading characters of each term from which
+     *            deletions are generated. Must be greater than maxEdits.
+     * @param distanceStrategy
+     *            strategy used to verify suggestions. Must not count any edit
+     *            that can not be made by deleting one character from each
+     *            term as less than one edit.
+     */
+    public DeletionIndex(int maxEdits, int prefixLength, EditDistanceStrategy distanceStrategy) {
+        if (maxEdits < 0) {
+            throw new IllegalArgumentException("Max edits must not be negative: " + maxEdits);
+        }
+        if (prefixLength <= maxEdits) {
+            throw new IllegalArgumentException("Prefix length must be greater than max edits: "
+                    + prefixLength);
+        }
+        this.maxEdits = maxEdits;
+        this.prefixLength = prefixLength;
+        this.distanceStrategy = distanceStrategy;
+    }
+
+    /**
+     * Create an index of all terms within the provided dictionary. Terms later
+     * added to the dictionary may be added to the index by registering a
+     * {@link TermIndexListener} with the dictionary.
+     * 
+     * @param maxEdits
+     *            maximum number of edits supported by queries.
+     * @param prefixLength
+     *            number of leading characters of each term from which
+     *            deletions are generated. Must be greater than maxEdits.
+     * @param dictionary
+     *            dictionary containing the terms to add to the index.
+     */
+    public DeletionIndex(int maxEdits, int prefixLength, CharTrie dictionary) {
+        this(maxEdits, prefixLength);
+        for (Iterator<String> iter = dictionary.iterateTerms(""); iter.hasNext();) {
+            add(iter.next());
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.index.TermIndex#add(java.lang.String)
+     */
+    @Override
+    public boolean add(String term) {
+        if (termIds.containsKey(term)) {
+            return false;
+        }
+        int id = terms.size();
+        terms.add(term);
+        termIds.put(term, id);
+        for (String deletion : getDeletions(term, maxEdits)) {
+            IntList ids = deletions.get(deletion);
+            if (ids == null) {
+                ids = new IntList(1);
+                deletions.put(deletion, ids);
+            }
+            ids.add(id);
+        }
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.index.TermIndex#size()
+     */
+    @Override
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * Return the number of unique deletions within the index, which may be used
+     * to estimate its memory use.
+     * 
+     * @return the number of unique deletions within the index.
+     */
+    public int getDeletionCount() {
+        return deletions.size();
+    }
+
+    /**
+     * Reduce the memory used by the lists of terms for each deletion. Useful
+     * once all terms have been added.
+     */
+    public void trimToSize() {
+        for (IntList ids : deletions.values()) {
+            ids.trimToSize();
+        }
+    }
+
+    /**
+     * Return all terms within the provided number of edits of the provided
+     * term, ordered by edit count and then by term.
+     * 
+     * @param term
+     *            term for which suggestions are requested.
+     * @param maxEdits
+     *            maximum number of edits; may not exceed the maximum provided
+     *            when the index was created.
+     * @return terms within the provided number of edits or an empty list if
+     *         none.
+     */
+    public List<String> suggest(String term, int maxEdits) {
+        if (maxEdits > this.maxEdits) {
+            throw new IllegalArgumentException("Max edits of " + maxEdits
+                    + " exceeds the maximum supported by the index: " + this.maxEdits);
+        }
+        if (maxEdits < 0) {
+            return Collections.emptyList();
+        }
+        Set<Integer> candidates = new HashSet<Integer>();
+        List<Suggestion> suggestions = new ArrayList<Suggestion>();
+        for (String deletion : getDeletions(term, maxEdits)) {
+            IntList ids = deletions.get(deletion);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                int id = ids.get(i);
+                if (!candidates.add(id)) {
+                    continue;
+                }
+                String candidate = terms.get(id);
+                if (Math.abs(candidate.length() - term.length()) > maxEdits) {
+                    continue;
+                }
+                int edits = distanceStrategy.getEditCount(term, candidate);
+                if (edits <= maxEdits) {
+                    suggestions.add(new Suggestion(candidate, edits));
+                }
+            }
+        }
+        Collections.sort(suggestions);
+        List<String> results = new ArrayList<String>(suggestions.size());
+        for (Suggestion suggestion : suggestions) {
+            results.add(suggestion.term);
+        }
+        return results;
+    }
+
+    /**
+     * Return the strings formed by deleting up to the provided number of
+     * characters from the prefix of the provided term, including the prefix.
+     */
+    private Set<String> getDeletions(String term, int edits) {
+        String prefix = term.length() > prefixLength ? term.substring(0, prefixLength) : term;
+        Set<String> results = new HashSet<String>();
+        results.add(prefix);
+        List<String> current = new ArrayList<String>();
+        current.add(prefix);
+        for (int e = 0; e < edits && !current.isEmpty(); e++) {
+            List<String> next = new ArrayList<String>();
+            for (String value : current) {
+                for (int i = 0; i < value.length(); i++) {
+                    String deletion = value.substring(0, i) + value.substring(i + 1);
+                    if (results.add(deletion)) {
+                        next.add(deletion);
+                    }
+                }
+            }
+            current = next;
+        }
+        return results;
+    }
+
+    /**
+     * Suggested term and the number of edits from the query term. Ordered by
+     * edits and then by term.
+     * 
+     * @author dhagberg
+     * 
+     */
+    private static class Suggestion implements Comparable<Suggestion> {
+        private final String term;
+        private final int edits;
+
+        private Suggestion(String term, int edits) {
+            this.term = term;
+            this.edits = edits;
+        }
+
+        @Override
+        public int compareTo(Suggestion other) {
+            if (edits != other.edits) {
+                return edits < other.edits ? -1 : 1;
+            }
+            return term.compareTo(other.term);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.index;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of int values, avoiding the boxing of a
+ * {@link java.util.List} of {@link Integer}.
+ * 
+ * @author dhagberg
+ * 
+ */
+class IntList {
+    private int[] values;
+    private int size;
+
+    /**
+     * Create an empty list with the provided initial capacity.
+     * 
+     * @param capacity
+     *            initial capacity.
+     */
+    IntList(int capacity) {
+        this.values = new int[capacity];
+    }
+
+    /**
+     * Append the provided value to the list.
+     * 
+     * @param value
+     *            value to add.
+     */
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Return the value at the provided index.
+     * 
+     * @param index
+     *            position within the list.
+     * @return the value at the provided index.
+     */
+    int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Return the number of values within the list.
+     * 
+     * @return the number of values within the list.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Reduce the capacity of the list to its size.
+     */
+    void trimToSize() {
+        if (values.length > size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+}
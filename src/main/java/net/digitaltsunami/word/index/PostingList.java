@@ -0,0 +1,111 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.index;
+
+import java.util.Arrays;
+
+/**
+ * Ascending list of term ids stored as the difference from the prior id,
+ * encoded in 7 bit groups with the high bit of each byte set if another group
+ * follows. Ids of terms added in order are usually close together, so most
+ * ids take a single byte rather than the four of an int.
+ * 
+ * @author dhagberg
+ * 
+ */
+class PostingList {
+    private byte[] data;
+    private int length;
+    private int count;
+    private int lastId = -1;
+
+    /**
+     * Create an empty list with the provided initial capacity in bytes.
+     * 
+     * @param capacity
+     *            initial capacity in bytes.
+     */
+    PostingList(int capacity) {
+        this.data = new byte[capacity];
+    }
+
+    /**
+     * Append the provided id, which must be greater than the last id added.
+     * 
+     * @param id
+     *            id to add.
+     */
+    void add(int id) {
+        if (id <= lastId) {
+            throw new IllegalArgumentException("Id " + id + " not greater than last id: "
+                    + lastId);
+        }
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(8, length + (length >> 1) + 5));
+        }
+        int delta = id - lastId;
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        lastId = id;
+        count++;
+    }
+
+    /**
+     * Increment the count of each id within the list, adding ids counted for
+     * the first time to the provided list.
+     * 
+     * @param counts
+     *            count for each id.
+     * @param counted
+     *            ids counted at least once.
+     */
+    void addTo(int[] counts, IntList counted) {
+        int id = -1;
+        int pos = 0;
+        while (pos < length) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += delta;
+            if (counts[id]++ == 0) {
+                counted.add(id);
+            }
+        }
+    }
+
+    /**
+     * Return the number of ids within the list.
+     * 
+     * @return the number of ids within the list.
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Return the number of bytes used to store the ids.
+     * 
+     * @return the number of bytes used to store the ids.
+     */
+    int getEncodedLength() {
+        return length;
+    }
+
+    /**
+     * Reduce the capacity of the list to its encoded length.
+     */
+    void trimToSize() {
+        if (data.length > length) {
+            data = Arrays.copyOf(data, length);
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.digitaltsunami.word.sequence.EditDistanceCalculator;
+import net.digitaltsunami.word.trie.CharTrie;
+
+/**
+ * Index of terms by their q-grams, the substrings of length q, providing
+ * approximate lookup over dictionaries too large to scan and for queries too
+ * broad for a traversal of the dictionary, such as long terms or large
+ * numbers of edits.
+ * <p>
+ * Each term is padded with q - 1 boundary characters at either end, so that
+ * every character, including those at the ends, falls within q q-grams. The
+ * index maps each q-gram to the ids of the terms containing it, stored in
+ * ascending order as the difference from the prior id (see
+ * {@link PostingList}). A query counts, for each term, the number of distinct
+ * q-grams it shares with the query term by merging the lists for the q-grams
+ * of the query, and only the terms sharing enough q-grams are verified.
+ * <p>
+ * Each edit changes at most q of the q-grams of a term, so a term within k
+ * edits of the query shares at least max(g(query), g(term)) - k * q distinct
+ * q-grams, where g is the number of distinct q-grams of a term. A
+ * transposition counted as a single edit changes up to q + 1 q-grams, so an
+ * index verifying with such a strategy must be created with transpositions
+ * enabled to use k * (q + 1) instead.
+ * <p>
+ * Terms later added to a dictionary may be added to the index by registering
+ * a {@link TermIndexListener} with the dictionary.
+ * <p>
+ * This class is not thread safe. Queries may be made from multiple threads
+ * while no terms are being added.
+ *
+ * @author dhagberg
+ *
+ */
+public class QGramIndex implements TermIndex {
+    /** Default length of the indexed substrings. */
+    public static final int DEFAULT_Q = 3;
+    /** Character used to pad the ends of each term. */
+    private static final char PAD = '\u0000';
+
+    private final int q;
+    /** Maximum number of distinct q-grams changed by a single edit. */
+    private final int gramsPerEdit;
+    private final EditDistanceCalculator distanceCalculator;
+    private final List<String> terms = new ArrayList<String>();
+    /** Number of distinct q-grams of each term, by id. */
+    private final IntList gramCounts = new IntList(16);
+    /** Ids of the terms of each length, indexed by length. */
+    private final List<IntList> idsByLength = new ArrayList<IntList>();
+    private final Map<String, Integer> termIds = new HashMap<String, Integer>();
+    private final Map<String, PostingList> postings = new HashMap<String, PostingList>();
+
+    /**
+     * Count of the q-grams shared with the query for each term, kept by each
+     * thread and cleared after each query.
+     */
+    private final ThreadLocal<int[]> sharedCounts = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[0];
+        }
+    };
+
+    /**
+     * Create an empty index of q-grams of length {@link #DEFAULT_Q}, verifying
+     * candidates with the default {@link EditDistanceCalculator}.
+     */
+    public QGramIndex() {
+        this(DEFAULT_Q);
+    }
+
+    /**
+     * Create an empty index of q-grams of the provided length, verifying
+     * candidates with the default {@link EditDistanceCalculator}.
+     *
+     * @param q
+     *            length of the indexed substrings.
+     */
+    public QGramIndex(int q) {
+        this(q, new EditDistanceCalculator());
+    }
+
+    /**
+     * Create an empty index of q-grams of the provided length, verifying
+     * candidates with the provided calculator.
+     *
+     * @param q
+     *            length of the indexed substrings.
+     * @param distanceCalculator
+     *            used to verify the candidates sharing enough q-grams.
+     */
+    public QGramIndex(int q, EditDistanceCalculator distanceCalculator) {
+        this(q, distanceCalculator, false);
+    }
+
+    /**
+     * Create an empty index of q-grams of the provided length, verifying
+     * candidates with the provided calculator.
+     *
+     * @param q
+     *            length of the indexed substrings.
+     * @param distanceCalculator
+     *            used to verify the candidates sharing enough q-grams.
+     * @param transpositions
+     *            true if the edit distance strategy of the calculator counts
+     *            the transposition of two adjacent characters as a single
+     *            edit.
+     */
+    public QGramIndex(int q, EditDistanceCalculator distanceCalculator, boolean transpositions) {
+        if (q < 1) {
+            throw new IllegalArgumentException("q must be at least 1: " + q);
+        }
+        this.q = q;
+        this.gramsPerEdit = transpositions ? q + 1 : q;
+        this.distanceCalculator = distanceCalculator;
+    }
+
+    /**
+     * Create an index of q-grams of the provided length of all terms within
+     * the provided dictionary. Terms later added to the dictionary may be
+     * added to the index by registering a {@link TermIndexListener} with the
+     * dictionary.
+     *
+     * @param q
+     *            length of the indexed substrings.
+     * @param dictionary
+     *            dictionary containing the terms to add to the index.
+     */
+    public QGramIndex(int q, CharTrie dictionary) {
+        this(q);
+        for (Iterator<String> iter = dictionary.iterateTerms(""); iter.hasNext();) {
+            add(iter.next());
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.index.TermIndex#add(java.lang.String)
+     */
+    @Override
+    public boolean add(String term) {
+        if (termIds.containsKey(term)) {
+            return false;
+        }
+        int id = terms.size();
+        terms.add(term);
+        termIds.put(term, id);
+        Set<String> grams = getGrams(term);
+        gramCounts.add(grams.size());
+        while (idsByLength.size() <= term.length()) {
+            idsByLength.add(new IntList(4));
+        }
+        idsByLength.get(term.length()).add(id);
+        for (String gram : grams) {
+            PostingList ids = postings.get(gram);
+            if (ids == null) {
+                ids = new PostingList(4);
+                postings.put(gram, ids);
+            }
+            ids.add(id);
+        }
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.index.TermIndex#size()
+     */
+    @Override
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * Return the number of unique q-grams within the index.
+     *
+     * @return the number of unique q-grams within the index.
+     */
+    public int getGramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Return the number of bytes used to store the term ids of all q-grams,
+     * which may be used to estimate the memory use of the index.
+     *
+     * @return the number of bytes used to store the term ids.
+     */
+    public long getPostingBytes() {
+        long bytes = 0;
+        for (PostingList ids : postings.values()) {
+            bytes += ids.getEncodedLength();
+        }
+        return bytes;
+    }
+
+    /**
+     * Reduce the memory used by the lists of terms for each q-gram. Useful
+     * once all terms have been added.
+     */
+    public void trimToSize() {
+        for (PostingList ids : postings.values()) {
+            ids.trimToSize();
+        }
+        gramCounts.trimToSize();
+        for (IntList ids : idsByLength) {
+            ids.trimToSize();
+        }
+    }
+
+    /**
+     * Return the minimum number of distinct q-grams shared with the provided
+     * term by any term within the provided number of edits of it. May be zero
+     * or less if the term is too short for the q-grams to exclude any term.
+     *
+     * @param term
+     *            query term.
+     * @param maxEdits
+     *            maximum number of edits.
+     * @return minimum number of q-grams shared by terms within maxEdits.
+     */
+    public int getMinSharedGrams(String term, int maxEdits) {
+        return getGrams(term).size() - maxEdits * gramsPerEdit;
+    }
+
+    /**
+     * Return the terms sharing at least the provided number of distinct
+     * q-grams with the provided term, in the order they were added to the
+     * index. No terms are verified.
+     *
+     * @param term
+     *            query term.
+     * @param minSharedGrams
+     *            minimum number of q-grams shared; must be at least 1.
+     * @return terms sharing at least minSharedGrams q-grams with the term.
+     */
+    public List<String> getCandidates(String term, int minSharedGrams) {
+        checkMinSharedGrams(minSharedGrams);
+        int[] counts = getSharedCounts();
+        IntList counted = countSharedGrams(term, counts);
+        List<Integer> ids = new ArrayList<Integer>();
+        for (int i = 0; i < counted.size(); i++) {
+            int id = counted.get(i);
+            if (counts[id] >= minSharedGrams) {
+                ids.add(id);
+            }
+            counts[id] = 0;
+        }
+        Collections.sort(ids);
+        List<String> results = new ArrayList<String>(ids.size());
+        for (Integer id : ids) {
+            results.add(terms.get(id));
+        }
+        return results;
+    }
+
+    /**
+     * Return the terms sharing at least the provided number of distinct
+     * q-grams with the provided term and having a normalized edit distance,
+     * calculated by
+     * {@link EditDistanceCalculator#getNormalizedEditDistance(String, String)}
+     * , of at least the provided similarity. Terms are ordered by similarity,
+     * most similar first, and then by term.
+     *
+     * @param term
+     *            query term.
+     * @param minSharedGrams
+     *            minimum number of q-grams shared; must be at least 1.
+     * @param minSimilarity
+     *            minimum normalized edit distance in the range [0, 1], where 1
+     *            is an exact match.
+     * @return matching terms, most similar first.
+     */
+    public List<String> findSimilar(String term, int minSharedGrams, double minSimilarity) {
+        checkMinSharedGrams(minSharedGrams);
+        int[] counts = getSharedCounts();
+        IntList counted = countSharedGrams(term, counts);
+        List<Match> matches = new ArrayList<Match>();
+        for (int i = 0; i < counted.size(); i++) {
+            int id = counted.get(i);
+            if (counts[id] >= minSharedGrams) {
+                String candidate = terms.get(id);
+                double similarity = distanceCalculator.getNormalizedEditDistance(term, candidate);
+                if (similarity >= minSimilarity) {
+                    matches.add(new Match(candidate, -similarity));
+                }
+            }
+            counts[id] = 0;
+        }
+        return toTerms(matches);
+    }
+
+    /**
+     * Return all terms within the provided number of edits of the provided
+     * term, ordered by edit distance and then by term. Only terms sharing
+     * enough q-grams to be within the number of edits are verified, using
+     * {@link EditDistanceCalculator#getEditDistance(String, String, double)}.
+     * <p>
+     * If the query term is too short for the q-grams to exclude terms, terms
+     * sharing no q-gram with it may still be within the number of edits. In
+     * that case every term whose length is within maxEdits of the query term
+     * and whose q-grams cannot exclude it is also verified, which approaches
+     * the cost of a scan of those terms.
+     *
+     * @param term
+     *            query term.
+     * @param maxEdits
+     *            maximum number of edits.
+     * @return terms within maxEdits ordered by edit distance.
+     */
+    public List<String> suggest(String term, int maxEdits) {
+        if (maxEdits < 0) {
+            return Collections.emptyList();
+        }
+        int queryGrams = getGrams(term).size();
+        long editedGrams = (long) maxEdits * gramsPerEdit;
+        int[] counts = getSharedCounts();
+        IntList counted = countSharedGrams(term, counts);
+        List<Match> matches = new ArrayList<Match>();
+        for (int i = 0; i < counted.size(); i++) {
+            int id = counted.get(i);
+            if (counts[id] >= Math.max(queryGrams, gramCounts.get(id)) - editedGrams) {
+                addIfWithinDistance(matches, term, terms.get(id), maxEdits);
+            }
+        }
+        if (queryGrams <= editedGrams) {
+            // Terms sharing no q-gram are not excluded; verify those of a
+            // length within maxEdits of the query term.
+            int minLength = (int) Math.max(0L, (long) term.length() - maxEdits);
+            int maxLength = (int) Math.min(idsByLength.size() - 1L, (long) term.length()
+                    + maxEdits);
+            for (int length = minLength; length <= maxLength; length++) {
+                IntList ids = idsByLength.get(length);
+                for (int i = 0; i < ids.size(); i++) {
+                    int id = ids.get(i);
+                    if (counts[id] == 0
+                            && Math.max(queryGrams, gramCounts.get(id)) <= editedGrams) {
+                        addIfWithinDistance(matches, term, terms.get(id), maxEdits);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < counted.size(); i++) {
+            counts[counted.get(i)] = 0;
+        }
+        return toTerms(matches);
+    }
+
+    /**
+     * Add the candidate to the matches if within the provided number of edits
+     * of the term.
+     */
+    private void addIfWithinDistance(List<Match> matches, String term, String candidate,
+            int maxEdits) {
+        if (Math.abs(candidate.length() - term.length()) <= maxEdits) {
+            double distance = distanceCalculator.getEditDistance(term, candidate, maxEdits);
+            if (distance <= maxEdits) {
+                matches.add(new Match(candidate, distance));
+            }
+        }
+    }
+
+    /**
+     * Add the number of distinct q-grams each term shares with the provided
+     * term to the counts and return the ids of the terms sharing at least one.
+     * The caller must clear the counts of the returned ids.
+     */
+    private IntList countSharedGrams(String term, int[] counts) {
+        IntList counted = new IntList(64);
+        for (String gram : getGrams(term)) {
+            PostingList ids = postings.get(gram);
+            if (ids != null) {
+                ids.addTo(counts, counted);
+            }
+        }
+        return counted;
+    }
+
+    /**
+     * Return the counts for the current thread, large enough for every term.
+     */
+    private int[] getSharedCounts() {
+        int[] counts = sharedCounts.get();
+        if (counts.length < terms.size()) {
+            counts = new int[Math.max(terms.size(), counts.length * 2)];
+            sharedCounts.set(counts);
+        }
+        return counts;
+    }
+
+    /**
+     * Return the distinct q-grams of the provided term after padding.
+     */
+    private Set<String> getGrams(String term) {
+        StringBuilder padded = new StringBuilder(term.length() + 2 * (q - 1));
+        for (int i = 1; i < q; i++) {
+            padded.append(PAD);
+        }
+        padded.append(term);
+        for (int i = 1; i < q; i++) {
+            padded.append(PAD);
+        }
+        Set<String> grams = new HashSet<String>();
+        for (int i = 0; i + q <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + q));
+        }
+        return grams;
+    }
+
+    private static void checkMinSharedGrams(int minSharedGrams) {
+        if (minSharedGrams < 1) {
+            throw new IllegalArgumentException("Minimum shared q-grams must be at least 1: "
+                    + minSharedGrams);
+        }
+    }
+
+    private static List<String> toTerms(List<Match> matches) {
+        Collections.sort(matches);
+        List<String> results = new ArrayList<String>(matches.size());
+        for (Match match : matches) {
+            results.add(match.term);
+        }
+        return results;
+    }
+
+    /**
+     * Verified term and its score, where lower scores are better matches.
+     * Ordered by score and then by term.
+     *
+     * @author dhagberg
+     *
+     */
+    private static class Match implements Comparable<Match> {
+        private final String term;
+        private final double score;
+
+        private Match(String term, double score) {
+            this.term = term;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            if (score != other.score) {
+                return score < other.score ? -1 : 1;
+            }
+            return term.compareTo(other.term);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.index;
+
+/**
+ * An index of terms built to answer a specific type of query more quickly
+ * than a scan of all terms. Terms may be added to an index at any time.
+ * 
+ * @see TermIndexListener
+ * @author dhagberg
+ * 
+ */
+public interface TermIndex {
+
+    /**
+     * Add a term to the index.
+     * 
+     * @param term
+     *            term to add.
+     * @return true if the term was added, false if it was already within the
+     *         index.
+     */
+    public boolean add(String term);
+
+    /**
+     * Return the number of unique terms within the index.
+     * 
+     * @return the number of unique terms within the index.
+     */
+    public int size();
+}
@@ -0,0 +1,47 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.index;
+
+import net.digitaltsunami.word.trie.CharTrie;
+import net.digitaltsunami.word.trie.event.NodeAddedAdapter;
+import net.digitaltsunami.word.trie.event.TerminusNodeAddedEvent;
+
+/**
+ * Listener adding each new term within a {@link CharTrie} to a
+ * {@link TermIndex}, keeping the index current as terms are added to the
+ * dictionary. Register using
+ * {@link CharTrie#addTerminusNodeAddedListener(net.digitaltsunami.word.trie.event.NodeAddedListener)}.
+ * <p>
+ * Terms are added to the index on the thread adding the term to the
+ * dictionary. If terms are added from multiple threads, the index must be
+ * thread safe.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class TermIndexListener extends NodeAddedAdapter {
+    private final TermIndex index;
+
+    /**
+     * Create a listener adding new terms to the provided index.
+     * 
+     * @param index
+     *            index to which new terms will be added.
+     */
+    public TermIndexListener(TermIndex index) {
+        this.index = index;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.event.NodeAddedAdapter#terminusNodeAdded(
+     * net.digitaltsunami.word.trie.event.TerminusNodeAddedEvent)
+     */
+    @Override
+    public void terminusNodeAdded(TerminusNodeAddedEvent event) {
+        index.add(event.getTerminusNode().getTerm());
+    }
+}
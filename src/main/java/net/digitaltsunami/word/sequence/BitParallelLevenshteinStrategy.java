@@ -0,0 +1,217 @@
+package net.digitaltsunami.word.sequence;
+
+import java.util.Arrays;
+
+/**
+ * Computes the Levenshtein edit distance using the bit-parallel algorithm of
+ * Myers, as formulated by Hyyr&ouml;. Each column of the edit matrix is encoded
+ * as bit vectors of the vertical differences between adjacent cells, allowing
+ * the column for each character of toTerm to be calculated using a fixed
+ * number of operations on a single long when fromTerm has at most 64
+ * characters.
+ * <p>
+ * The bit mask of the positions of each character within fromTerm is
+ * calculated once and kept by the current thread, so comparing a single
+ * fromTerm against many toTerms calculates the masks only once. If fromTerm
+ * is longer than 64 characters the terms are swapped, as the distance is
+ * symmetric. If both are longer, the calculation is done by
+ * {@link LevenshteinDistanceStrategy}.
+ * <p>
+ * Results are identical to those of {@link LevenshteinDistanceStrategy}.
+ * 
+ * @author dhagberg
+ */
+public class BitParallelLevenshteinStrategy implements BoundedEditDistanceStrategy {
+    /** Maximum length of a term for which the bit vectors fit within a long. */
+    public static final int MAX_PATTERN_LENGTH = 64;
+
+    /** Masks for the last term compared by each thread. */
+    private static final ThreadLocal<PatternMasks> PATTERN_MASKS = new ThreadLocal<PatternMasks>() {
+        @Override
+        protected PatternMasks initialValue() {
+            return new PatternMasks();
+        }
+    };
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.sequence.EditDistanceStrategy#getEditCount(
+     * java.lang.String, java.lang.String)
+     */
+    @Override
+    public int getEditCount(String fromTerm, String toTerm) {
+        return calculateEditCount(fromTerm, toTerm, Integer.MAX_VALUE);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.sequence.EditDistanceStrategy#getEditDistance
+     * (java.lang.String, java.lang.String)
+     */
+    @Override
+    public double getEditDistance(String fromTerm, String toTerm) {
+        return calculateEditCount(fromTerm, toTerm, Integer.MAX_VALUE);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.sequence.BoundedEditDistanceStrategy#getEditCount
+     * (java.lang.String, java.lang.String, int)
+     */
+    @Override
+    public int getEditCount(String fromTerm, String toTerm, int maxEdits) {
+        return calculateEditCount(fromTerm, toTerm, maxEdits);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.sequence.BoundedEditDistanceStrategy#getEditDistance
+     * (java.lang.String, java.lang.String, double)
+     */
+    @Override
+    public double getEditDistance(String fromTerm, String toTerm, double maxDistance) {
+        // Edit counts are whole numbers, so only the integer part is relevant.
+        int maxEdits = maxDistance >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math
+                .floor(maxDistance);
+        return calculateEditCount(fromTerm, toTerm, maxEdits);
+    }
+
+    /**
+     * Compute and return the Levenshtein edit distance between the two provided
+     * sequences if no more than the provided maximum.
+     * 
+     * @param fromTerm
+     * @param toTerm
+     * @param maxEdits
+     *            maximum number of edits of interest.
+     * @return total number of edits required to convert string 1 to string 2 if
+     *         less than or equal to maxEdits, otherwise maxEdits + 1.
+     */
+    public static int calculateEditCount(String fromTerm, String toTerm, int maxEdits) {
+        if (fromTerm.length() > MAX_PATTERN_LENGTH) {
+            if (toTerm.length() > MAX_PATTERN_LENGTH) {
+                return LevenshteinDistanceStrategy.calculateEditCount(fromTerm, toTerm, maxEdits);
+            }
+            String swap = fromTerm;
+            fromTerm = toTerm;
+            toTerm = swap;
+        }
+        int patternLen = fromTerm.length();
+        int textLen = toTerm.length();
+        if (maxEdits < 0 || Math.abs(patternLen - textLen) > maxEdits) {
+            return maxEdits + 1;
+        }
+        if (patternLen == 0) {
+            return textLen;
+        }
+
+        PatternMasks masks = PATTERN_MASKS.get();
+        masks.setPattern(fromTerm);
+
+        long lastBit = 1L << (patternLen - 1);
+        // Vertical differences of +1 and -1 between cells in the column.
+        long positive = -1L;
+        long negative = 0L;
+        int score = patternLen;
+        for (int j = 0; j < textLen; j++) {
+            long eq = masks.getMask(toTerm.charAt(j));
+            long xv = eq | negative;
+            long xh = (((eq & positive) + positive) ^ positive) | eq;
+            // Horizontal differences of +1 and -1 between this column and the
+            // prior column.
+            long ph = negative | ~(xh | positive);
+            long mh = positive & xh;
+            if ((ph & lastBit) != 0) {
+                score++;
+            } else if ((mh & lastBit) != 0) {
+                score--;
+            }
+            // Each remaining character can reduce the score by at most one.
+            if (score - (textLen - j - 1) > maxEdits) {
+                return maxEdits + 1;
+            }
+            ph = (ph << 1) | 1L;
+            mh = mh << 1;
+            positive = mh | ~(xv | ph);
+            negative = ph & xv;
+        }
+        return score;
+    }
+
+    /**
+     * Bit mask for each character of a term with a bit set for each position
+     * at which the character occurs. Masks for characters below 128 are held
+     * in a table and those for other characters in a sorted array.
+     * 
+     * @author dhagberg
+     */
+    private static class PatternMasks {
+        private final long[] asciiMasks = new long[128];
+        private char[] otherChars = new char[0];
+        private long[] otherMasks = new long[0];
+        private int otherCount;
+        private String pattern;
+
+        /**
+         * Calculate the masks for the provided term unless they have already
+         * been calculated for an equal term.
+         */
+        private void setPattern(String term) {
+            if (term == pattern || term.equals(pattern)) {
+                return;
+            }
+            if (pattern != null) {
+                for (int i = 0; i < pattern.length(); i++) {
+                    char c = pattern.charAt(i);
+                    if (c < 128) {
+                        asciiMasks[c] = 0L;
+                    }
+                }
+            }
+            otherCount = 0;
+            for (int i = 0; i < term.length(); i++) {
+                char c = term.charAt(i);
+                if (c < 128) {
+                    asciiMasks[c] |= 1L << i;
+                } else {
+                    addOther(c, 1L << i);
+                }
+            }
+            pattern = term;
+        }
+
+        private void addOther(char c, long bit) {
+            int pos = Arrays.binarySearch(otherChars, 0, otherCount, c);
+            if (pos >= 0) {
+                otherMasks[pos] |= bit;
+                return;
+            }
+            if (otherCount == otherChars.length) {
+                otherChars = Arrays.copyOf(otherChars, Math.max(4, otherCount * 2));
+                otherMasks = Arrays.copyOf(otherMasks, otherChars.length);
+            }
+            pos = -pos - 1;
+            System.arraycopy(otherChars, pos, otherChars, pos + 1, otherCount - pos);
+            System.arraycopy(otherMasks, pos, otherMasks, pos + 1, otherCount - pos);
+            otherChars[pos] = c;
+            otherMasks[pos] = bit;
+            otherCount++;
+        }
+
+        private long getMask(char c) {
+            if (c < 128) {
+                return asciiMasks[c];
+            }
+            int pos = Arrays.binarySearch(otherChars, 0, otherCount, c);
+            return pos >= 0 ? otherMasks[pos] : 0L;
+        }
+    }
+}
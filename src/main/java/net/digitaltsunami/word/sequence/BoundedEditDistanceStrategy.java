@@ -0,0 +1,46 @@
+package net.digitaltsunami.word.sequence;
+
+/**
+ * An {@link EditDistanceStrategy} able to stop calculating once the distance
+ * between two terms is known to exceed a maximum. When filtering candidates
+ * against a cutoff, most candidates exceed the cutoff and the exact distance
+ * of those candidates is not needed.
+ * 
+ * @author dhagberg
+ * 
+ */
+public interface BoundedEditDistanceStrategy extends EditDistanceStrategy {
+
+    /**
+     * Calculate and return the number of edits required to convert fromTerm
+     * into toTerm if no more than the provided maximum. See
+     * {@link EditDistanceStrategy#getEditCount(String, String)}.
+     * 
+     * @param fromTerm
+     *            initial term used as baseline
+     * @param toTerm
+     *            target term from which the edit count will be calculated.
+     * @param maxEdits
+     *            maximum number of edits of interest.
+     * @return the count of edits required to convert the fromTerm to toTerm if
+     *         less than or equal to maxEdits, otherwise maxEdits + 1.
+     */
+    public int getEditCount(String fromTerm, String toTerm, int maxEdits);
+
+    /**
+     * Calculate and return the edit distance between fromTerm and toTerm if no
+     * more than the provided maximum. See
+     * {@link EditDistanceStrategy#getEditDistance(String, String)}.
+     * 
+     * @param fromTerm
+     *            initial term used as baseline
+     * @param toTerm
+     *            target term from which the edit count will be calculated.
+     * @param maxDistance
+     *            maximum distance of interest.
+     * @return the edit distance between the terms if less than or equal to
+     *         maxDistance, otherwise any value greater than maxDistance.
+     */
+    public double getEditDistance(String fromTerm, String toTerm, double maxDistance);
+
+}
@@ -1,10 +1,16 @@
 package net.digitaltsunami.word.sequence;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -14,6 +20,11 @@ import java.util.concurrent.atomic.AtomicReference;
  * 
  */
 public class EditDistance {
+    /** Minimum number of candidates compared by each task. */
+    private static final int MIN_CANDIDATES_PER_TASK = 1024;
+    /** Number of tasks created for each thread to balance uneven terms. */
+    private static final int TASKS_PER_THREAD = 4;
+
     /**
      * Used to calculate edit distance using strategy. Distance will be
      * calculated by invoking
@@ -55,21 +66,156 @@ public class EditDistance {
      * @param distanceCalculator
      *            used to calculate edit distance using strategy. Distance will
      *            be calculated by invoking
-     *            {@link EditDistanceCalculator#getEditDistance(String, String)}
+     *            {@link EditDistanceCalculator#getEditDistance(String, String, double)}
      * @return
      */
     public static Collection<String> getAllWithinDistance(Collection<String> candidates,
             String fromTerm, int maxDistance, EditDistanceCalculator distanceCalculator) {
+        return toTerms(findWithinDistance(candidates, fromTerm, maxDistance, distanceCalculator),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reduce the provided collection of strings to list of strings within an
+     * edit distance provided by the maxDistance parameter as described by
+     * {@link #getAllWithinDistance(Collection, String, int, EditDistanceCalculator)}
+     * , dividing the candidates among tasks run by the provided executor. The
+     * results are the same as those of the sequential method. Small
+     * collections are compared on the calling thread.
+     * <p>
+     * The edit distance strategy of the calculator must be thread safe, as
+     * are the strategies within this package.
+     * 
+     * @param candidates
+     *            Collection of terms to compare against fromTerm
+     * @param fromTerm
+     *            Term from which the edit distance will be calculated.
+     * @param maxDistance
+     *            Maximum edit distance cutoff for matching candidates.
+     * @param distanceCalculator
+     *            used to calculate edit distance using strategy.
+     * @param executor
+     *            executor used to run the comparisons. The executor is not
+     *            shut down by this method.
+     * @param parallelism
+     *            number of threads available within the executor.
+     * @return terms within the maximum distance ordered by edit distance.
+     */
+    public static Collection<String> getAllWithinDistance(Collection<String> candidates,
+            final String fromTerm, final int maxDistance,
+            final EditDistanceCalculator distanceCalculator, ExecutorService executor,
+            int parallelism) {
+        List<List<String>> partitions = partition(candidates, parallelism);
+        if (partitions == null) {
+            return getAllWithinDistance(candidates, fromTerm, maxDistance, distanceCalculator);
+        }
+        List<Future<List<WeightedString>>> results = new ArrayList<Future<List<WeightedString>>>(
+                partitions.size());
+        for (final List<String> partition : partitions) {
+            results.add(executor.submit(new Callable<List<WeightedString>>() {
+                @Override
+                public List<WeightedString> call() throws Exception {
+                    return findWithinDistance(partition, fromTerm, maxDistance,
+                            distanceCalculator);
+                }
+            }));
+        }
+        return toTerms(collectResults(results), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Return the k terms from the provided collection nearest to fromTerm,
+     * ordered by edit distance and then by term. Only the k nearest terms
+     * found so far are retained, and once k terms have been found, the
+     * distance of each remaining candidate is only calculated up to that of
+     * the k-th nearest term.
+     * 
+     * @param candidates
+     *            Collection of terms to compare against fromTerm
+     * @param fromTerm
+     *            Term from which the edit distance will be calculated.
+     * @param k
+     *            maximum number of terms to return.
+     * @return up to k terms nearest to fromTerm ordered by edit distance.
+     */
+    public static List<String> getNearest(Collection<String> candidates, String fromTerm, int k) {
+        return getNearest(candidates, fromTerm, k, defaultDistanceCalculator.get());
+    }
 
-        List<WeightedString> withinDistance = new ArrayList<EditDistance.WeightedString>(
-                candidates.size());
+    /**
+     * Return the k terms from the provided collection nearest to fromTerm as
+     * described by {@link #getNearest(Collection, String, int)}.
+     * 
+     * @param candidates
+     *            Collection of terms to compare against fromTerm
+     * @param fromTerm
+     *            Term from which the edit distance will be calculated.
+     * @param k
+     *            maximum number of terms to return.
+     * @param distanceCalculator
+     *            used to calculate edit distance using strategy.
+     * @return up to k terms nearest to fromTerm ordered by edit distance.
+     */
+    public static List<String> getNearest(Collection<String> candidates, String fromTerm,
+            int k, EditDistanceCalculator distanceCalculator) {
+        return toTerms(findNearest(candidates, fromTerm, k, distanceCalculator), k);
+    }
+
+    /**
+     * Return the k terms from the provided collection nearest to fromTerm as
+     * described by {@link #getNearest(Collection, String, int)}, dividing the
+     * candidates among tasks run by the provided executor. Each task retains
+     * its own k nearest terms, which are combined once all tasks complete.
+     * 
+     * @param candidates
+     *            Collection of terms to compare against fromTerm
+     * @param fromTerm
+     *            Term from which the edit distance will be calculated.
+     * @param k
+     *            maximum number of terms to return.
+     * @param distanceCalculator
+     *            used to calculate edit distance using strategy.
+     * @param executor
+     *            executor used to run the comparisons. The executor is not
+     *            shut down by this method.
+     * @param parallelism
+     *            number of threads available within the executor.
+     * @return up to k terms nearest to fromTerm ordered by edit distance.
+     */
+    public static List<String> getNearest(Collection<String> candidates, final String fromTerm,
+            final int k, final EditDistanceCalculator distanceCalculator,
+            ExecutorService executor, int parallelism) {
+        List<List<String>> partitions = partition(candidates, parallelism);
+        if (partitions == null) {
+            return getNearest(candidates, fromTerm, k, distanceCalculator);
+        }
+        List<Future<List<WeightedString>>> results = new ArrayList<Future<List<WeightedString>>>(
+                partitions.size());
+        for (final List<String> partition : partitions) {
+            results.add(executor.submit(new Callable<List<WeightedString>>() {
+                @Override
+                public List<WeightedString> call() throws Exception {
+                    return findNearest(partition, fromTerm, k, distanceCalculator);
+                }
+            }));
+        }
+        return toTerms(collectResults(results), k);
+    }
+
+    /**
+     * Return the candidates within the maximum distance, sorted by distance.
+     */
+    private static List<WeightedString> findWithinDistance(Collection<String> candidates,
+            String fromTerm, int maxDistance, EditDistanceCalculator distanceCalculator) {
+        List<WeightedString> withinDistance = new ArrayList<EditDistance.WeightedString>();
         /*
          * Add all terms within edit distance, storing the distance and term to
          * order the list after completion.
          */
         for (Iterator<String> iterator = candidates.iterator(); iterator.hasNext();) {
             String candidate = iterator.next();
-            double editDistance = distanceCalculator.getEditDistance(fromTerm, candidate);
+            double editDistance = distanceCalculator.getEditDistance(fromTerm, candidate,
+                    maxDistance);
             if (editDistance <= maxDistance) {
                 withinDistance.add(new WeightedString(editDistance, candidate));
             }
@@ -77,15 +223,103 @@ public class EditDistance {
 
         // Sort the qualified terms by edit distance.
         Collections.sort(withinDistance);
-        /*
-         * Copy the contents (term) of each WeightedString to a collection for
-         * return. hold all returned terms to prevent unnecessary expansions.
-         */
-        ArrayList<String> allTerms = new ArrayList<String>(withinDistance.size());
-        for (WeightedString ws : withinDistance) {
-            allTerms.add(ws.string);
+        return withinDistance;
+    }
+
+    /**
+     * Return the k nearest candidates, sorted by distance.
+     */
+    private static List<WeightedString> findNearest(Collection<String> candidates,
+            String fromTerm, int k, EditDistanceCalculator distanceCalculator) {
+        if (k < 1) {
+            return Collections.emptyList();
+        }
+        // Heap ordered with the farthest of the nearest terms at its head.
+        PriorityQueue<WeightedString> nearest = new PriorityQueue<WeightedString>(Math.min(k,
+                candidates.size()) + 1, Collections.reverseOrder());
+        for (String candidate : candidates) {
+            double editDistance;
+            if (nearest.size() < k) {
+                editDistance = distanceCalculator.getEditDistance(fromTerm, candidate);
+            } else {
+                double cutoff = nearest.peek().weight;
+                editDistance = distanceCalculator.getEditDistance(fromTerm, candidate, cutoff);
+                if (editDistance > cutoff) {
+                    continue;
+                }
+            }
+            nearest.add(new WeightedString(editDistance, candidate));
+            if (nearest.size() > k) {
+                nearest.poll();
+            }
         }
+        List<WeightedString> sorted = new ArrayList<WeightedString>(nearest);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Divide the candidates into contiguous partitions, one for each task, or
+     * return null if there are too few candidates to benefit from more than
+     * one task.
+     */
+    private static List<List<String>> partition(Collection<String> candidates, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        int taskCount = Math.min(parallelism * TASKS_PER_THREAD, candidates.size()
+                / MIN_CANDIDATES_PER_TASK);
+        if (taskCount < 2) {
+            return null;
+        }
+        List<String> terms = Arrays.asList(candidates.toArray(new String[candidates.size()]));
+        List<List<String>> partitions = new ArrayList<List<String>>(taskCount);
+        for (int task = 0; task < taskCount; task++) {
+            partitions.add(terms.subList(task * terms.size() / taskCount, (task + 1)
+                    * terms.size() / taskCount));
+        }
+        return partitions;
+    }
+
+    /**
+     * Combine the sorted results of each task into a single sorted list,
+     * cancelling the remaining tasks if any fail.
+     */
+    private static List<WeightedString> collectResults(
+            List<Future<List<WeightedString>>> results) {
+        List<WeightedString> combined = new ArrayList<WeightedString>();
+        try {
+            for (Future<List<WeightedString>> result : results) {
+                combined.addAll(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while comparing candidates", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Edit distance comparison failed", e.getCause());
+        } finally {
+            for (Future<List<WeightedString>> result : results) {
+                result.cancel(true);
+            }
+        }
+        // The list consists of sorted runs, which the sort merges.
+        Collections.sort(combined);
+        return combined;
+    }
 
+    /**
+     * Copy the term of up to the provided number of weighted strings to a
+     * list for return.
+     */
+    private static List<String> toTerms(List<WeightedString> weightedStrings, int limit) {
+        int size = Math.min(limit, weightedStrings.size());
+        ArrayList<String> allTerms = new ArrayList<String>(size);
+        for (WeightedString ws : weightedStrings) {
+            if (allTerms.size() == size) {
+                break;
+            }
+            allTerms.add(ws.string);
+        }
         return allTerms;
     }
 
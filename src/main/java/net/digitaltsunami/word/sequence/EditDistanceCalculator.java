@@ -96,6 +96,53 @@ public class EditDistanceCalculator {
         return distanceStrategy.getEditDistance(fromTerm, toTerm);
     }
 
+    /**
+     * Calculate and return the number of edits required to convert fromTerm
+     * into toTerm if no more than the provided maximum. If the current edit
+     * distance strategy is a {@link BoundedEditDistanceStrategy}, the
+     * calculation will stop once the maximum has been exceeded.
+     * 
+     * @param fromTerm
+     *            initial term used as baseline
+     * @param toTerm
+     *            target term from which the edit count will be calculated.
+     * @param maxEdits
+     *            maximum number of edits of interest.
+     * @return the count of edits required to convert the fromTerm to toTerm if
+     *         less than or equal to maxEdits, otherwise a value greater than
+     *         maxEdits.
+     */
+    public int getEditCount(String fromTerm, String toTerm, int maxEdits) {
+        if (distanceStrategy instanceof BoundedEditDistanceStrategy) {
+            return ((BoundedEditDistanceStrategy) distanceStrategy).getEditCount(fromTerm, toTerm,
+                    maxEdits);
+        }
+        return distanceStrategy.getEditCount(fromTerm, toTerm);
+    }
+
+    /**
+     * Calculate and return the edit distance between fromTerm and toTerm if no
+     * more than the provided maximum. If the current edit distance strategy is
+     * a {@link BoundedEditDistanceStrategy}, the calculation will stop once
+     * the maximum has been exceeded.
+     * 
+     * @param fromTerm
+     *            initial term used as baseline
+     * @param toTerm
+     *            target term from which the edit count will be calculated.
+     * @param maxDistance
+     *            maximum distance of interest.
+     * @return the edit distance between the terms if less than or equal to
+     *         maxDistance, otherwise a value greater than maxDistance.
+     */
+    public double getEditDistance(String fromTerm, String toTerm, double maxDistance) {
+        if (distanceStrategy instanceof BoundedEditDistanceStrategy) {
+            return ((BoundedEditDistanceStrategy) distanceStrategy).getEditDistance(fromTerm,
+                    toTerm, maxDistance);
+        }
+        return distanceStrategy.getEditDistance(fromTerm, toTerm);
+    }
+
     /**
      * Calculate and return the <strong>normalized</strong> edit distance
      * between fromTerm and toTerm. The distance is calculated based on features
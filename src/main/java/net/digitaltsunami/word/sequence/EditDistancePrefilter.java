@@ -0,0 +1,356 @@
+package net.digitaltsunami.word.sequence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Eliminates candidates that cannot be within a maximum number of edits of a
+ * term using bounds that are far cheaper to calculate than the edit distance
+ * itself. The bounds are applied in order of cost:
+ * <ol>
+ * <li><em>Length</em> - the lengths of the terms may not differ by more than
+ * the maximum number of edits.</li>
+ * <li><em>Character histogram</em> - each edit removes at most one surplus
+ * and one missing occurrence of a character, so the number of edits is at
+ * least the larger of the number of characters in excess in either term.</li>
+ * <li><em>Q-gram count</em> - each edit destroys at most q of the substrings
+ * of length q (q-grams) of the longer term, or q + 1 if transpositions count
+ * as a single edit, so terms within k edits share at least
+ * max(|a|, |b|) - q + 1 - k * q q-grams.</li>
+ * </ol>
+ * The bounds hold for edit distance strategies in which each insertion,
+ * deletion, substitution and, if enabled, transposition costs one edit, such
+ * as {@link LevenshteinDistanceStrategy}, {@link BitParallelLevenshteinStrategy}
+ * and {@link DamerauLevenshteinDistanceStrategy}. A candidate that passes the
+ * filters is not necessarily within the distance.
+ * <p>
+ * The number of candidates eliminated by each filter is counted so the
+ * effectiveness of the filters can be monitored.
+ * <p>
+ * The counts of the characters and q-grams of the last term filtered against
+ * are kept by each thread, so filtering many candidates against a single
+ * term calculates them once, and each candidate is compared in time
+ * proportional to its length. Characters are counted by their low 8 bits and
+ * q-grams by a hash, so distinct characters or q-grams may share a count. This
+ * can only overstate what the terms have in common, so no candidate within
+ * the distance is eliminated. Instances may be shared between threads.
+ *
+ * @author dhagberg
+ *
+ */
+public class EditDistancePrefilter {
+    /** Default length of the substrings compared by the q-gram filter. */
+    public static final int DEFAULT_Q = 2;
+
+    /** Index of the count of candidates passing all filters. */
+    private static final int PASSED = 0;
+    /** Index of the count of candidates eliminated by length. */
+    private static final int LENGTH = 1;
+    /** Index of the count of candidates eliminated by character histogram. */
+    private static final int HISTOGRAM = 2;
+    /** Index of the count of candidates eliminated by q-gram count. */
+    private static final int QGRAM = 3;
+
+    /** Number of character counts; characters are counted by their low bits. */
+    private static final int CHAR_BUCKETS = 256;
+
+    private final int q;
+    private final boolean transpositions;
+
+    /** Number of candidates passing or eliminated by each filter. */
+    private final AtomicLongArray counts = new AtomicLongArray(4);
+
+    /** Profile of the last term filtered against by each thread. */
+    private final ThreadLocal<TermProfile> profiles = new ThreadLocal<TermProfile>() {
+        @Override
+        protected TermProfile initialValue() {
+            return new TermProfile();
+        }
+    };
+
+    /**
+     * Create a filter comparing substrings of length {@link #DEFAULT_Q} for
+     * use with strategies that do not count transpositions as a single edit.
+     */
+    public EditDistancePrefilter() {
+        this(DEFAULT_Q, false);
+    }
+
+    /**
+     * Create a filter comparing substrings of the provided length.
+     *
+     * @param q
+     *            length of the substrings compared by the q-gram filter.
+     * @param transpositions
+     *            true if the edit distance strategy counts the transposition
+     *            of two adjacent characters as a single edit.
+     */
+    public EditDistancePrefilter(int q, boolean transpositions) {
+        if (q < 1) {
+            throw new IllegalArgumentException("q must be at least 1: " + q);
+        }
+        this.q = q;
+        this.transpositions = transpositions;
+    }
+
+    /**
+     * Return false if the candidate is certain to require more than the
+     * provided number of edits to convert fromTerm into the candidate. A
+     * return of true does not guarantee that the candidate is within the
+     * maximum.
+     *
+     * @param fromTerm
+     *            Term from which the edit distance would be calculated.
+     * @param candidate
+     *            Term to compare against fromTerm.
+     * @param maxEdits
+     *            Maximum number of edits of interest.
+     * @return false if the candidate cannot be within maxEdits of fromTerm.
+     */
+    public boolean mayBeWithinDistance(String fromTerm, String candidate, int maxEdits) {
+        int result = check(getProfile(fromTerm), candidate, maxEdits);
+        counts.incrementAndGet(result);
+        return result == PASSED;
+    }
+
+    /**
+     * Return the candidates that may be within the provided number of edits
+     * of fromTerm, in the order provided.
+     *
+     * @param candidates
+     *            Collection of terms to compare against fromTerm.
+     * @param fromTerm
+     *            Term from which the edit distance would be calculated.
+     * @param maxEdits
+     *            Maximum number of edits of interest.
+     * @return candidates not eliminated by the filters.
+     */
+    public List<String> filter(Collection<String> candidates, String fromTerm, int maxEdits) {
+        TermProfile profile = getProfile(fromTerm);
+        long[] localCounts = new long[counts.length()];
+        List<String> remaining = new ArrayList<String>();
+        for (String candidate : candidates) {
+            int result = check(profile, candidate, maxEdits);
+            localCounts[result]++;
+            if (result == PASSED) {
+                remaining.add(candidate);
+            }
+        }
+        for (int i = 0; i < localCounts.length; i++) {
+            counts.addAndGet(i, localCounts[i]);
+        }
+        return remaining;
+    }
+
+    /**
+     * Reduce the provided collection of strings to list of strings within an
+     * edit distance provided by the maxDistance parameter as described by
+     * {@link EditDistance#getAllWithinDistance(Collection, String, int, EditDistanceCalculator)}
+     * , calculating the edit distance only for the candidates not eliminated
+     * by the filters.
+     *
+     * @param candidates
+     *            Collection of terms to compare against fromTerm
+     * @param fromTerm
+     *            Term from which the edit distance will be calculated.
+     * @param maxDistance
+     *            Maximum edit distance cutoff for matching candidates.
+     * @param distanceCalculator
+     *            used to calculate edit distance using strategy.
+     * @return terms within the maximum distance ordered by edit distance.
+     */
+    public Collection<String> getAllWithinDistance(Collection<String> candidates,
+            String fromTerm, int maxDistance, EditDistanceCalculator distanceCalculator) {
+        return EditDistance.getAllWithinDistance(filter(candidates, fromTerm, maxDistance),
+                fromTerm, maxDistance, distanceCalculator);
+    }
+
+    /**
+     * Return the number of candidates compared since creation or the last
+     * reset.
+     *
+     * @return number of candidates compared.
+     */
+    public long getCandidateCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Return the number of candidates eliminated by the length filter.
+     *
+     * @return number of candidates eliminated by length.
+     */
+    public long getLengthFilteredCount() {
+        return counts.get(LENGTH);
+    }
+
+    /**
+     * Return the number of candidates eliminated by the character histogram
+     * filter.
+     *
+     * @return number of candidates eliminated by character histogram.
+     */
+    public long getHistogramFilteredCount() {
+        return counts.get(HISTOGRAM);
+    }
+
+    /**
+     * Return the number of candidates eliminated by the q-gram filter.
+     *
+     * @return number of candidates eliminated by q-gram count.
+     */
+    public long getQGramFilteredCount() {
+        return counts.get(QGRAM);
+    }
+
+    /**
+     * Return the number of candidates that passed all of the filters.
+     *
+     * @return number of candidates not eliminated.
+     */
+    public long getPassedCount() {
+        return counts.get(PASSED);
+    }
+
+    /**
+     * Set all counts to zero.
+     */
+    public void resetCounts() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Return the profile of the provided term for the current thread.
+     */
+    private TermProfile getProfile(String fromTerm) {
+        TermProfile profile = profiles.get();
+        profile.setTerm(fromTerm, q);
+        return profile;
+    }
+
+    /**
+     * Apply each filter in turn and return the index of the count for the
+     * filter eliminating the candidate or {@link #PASSED}.
+     */
+    private int check(TermProfile profile, String candidate, int maxEdits) {
+        int termLen = profile.term.length();
+        int candidateLen = candidate.length();
+        if (Math.abs(termLen - candidateLen) > maxEdits) {
+            return LENGTH;
+        }
+        if (profile.getHistogramBound(candidate) > maxEdits) {
+            return HISTOGRAM;
+        }
+        int editsPerGram = transpositions ? q + 1 : q;
+        long required = Math.max(termLen, candidateLen) - q + 1 - (long) maxEdits
+                * editsPerGram;
+        if (required > 0 && !profile.hasCommonGrams(candidate, q, (int) required)) {
+            return QGRAM;
+        }
+        return PASSED;
+    }
+
+    /**
+     * Counts of the characters and q-grams of the term being filtered
+     * against. Each candidate is compared by removing its characters or
+     * q-grams from the counts and then restoring them.
+     */
+    private static class TermProfile {
+        private String term;
+        private int termQ;
+        private final int[] charCounts = new int[CHAR_BUCKETS];
+        private int[] gramCounts = new int[0];
+        private int gramMask;
+        /** Positions within gramCounts taken by the current candidate. */
+        private int[] taken = new int[32];
+
+        private void setTerm(String newTerm, int q) {
+            if (newTerm.equals(term) && q == termQ) {
+                return;
+            }
+            for (int i = 0; i < charCounts.length; i++) {
+                charCounts[i] = 0;
+            }
+            for (int i = 0; i < newTerm.length(); i++) {
+                charCounts[newTerm.charAt(i) & (CHAR_BUCKETS - 1)]++;
+            }
+            int gramCount = Math.max(0, newTerm.length() - q + 1);
+            // At least four counts per q-gram to keep collisions uncommon.
+            int size = Integer.highestOneBit(Math.max(16, gramCount * 4) - 1) << 1;
+            gramCounts = new int[size];
+            gramMask = size - 1;
+            for (int i = 0; i < gramCount; i++) {
+                gramCounts[hashGram(newTerm, i, q) & gramMask]++;
+            }
+            term = newTerm;
+            termQ = q;
+        }
+
+        /**
+         * Return the larger of the number of characters in excess in either
+         * term.
+         */
+        private int getHistogramBound(String candidate) {
+            int candidateLen = candidate.length();
+            int missing = 0;
+            for (int i = 0; i < candidateLen; i++) {
+                if (--charCounts[candidate.charAt(i) & (CHAR_BUCKETS - 1)] < 0) {
+                    missing++;
+                }
+            }
+            for (int i = 0; i < candidateLen; i++) {
+                charCounts[candidate.charAt(i) & (CHAR_BUCKETS - 1)]++;
+            }
+            int surplus = term.length() - (candidateLen - missing);
+            return Math.max(surplus, missing);
+        }
+
+        /**
+         * Return true if the terms share at least the required number of
+         * q-grams.
+         */
+        private boolean hasCommonGrams(String candidate, int q, int required) {
+            int gramCount = candidate.length() - q + 1;
+            if (gramCount < required) {
+                return false;
+            }
+            if (taken.length < gramCount) {
+                taken = new int[gramCount * 2];
+            }
+            int common = 0;
+            int i = 0;
+            for (; i < gramCount && common < required; i++) {
+                // Stop once the remaining q-grams cannot reach the requirement.
+                if (common + gramCount - i < required) {
+                    break;
+                }
+                int pos = hashGram(candidate, i, q) & gramMask;
+                if (gramCounts[pos] > 0) {
+                    gramCounts[pos]--;
+                    taken[common++] = pos;
+                }
+            }
+            for (int t = 0; t < common; t++) {
+                gramCounts[taken[t]]++;
+            }
+            return common >= required;
+        }
+
+        private static int hashGram(String value, int start, int q) {
+            int hash = 0;
+            for (int c = start; c < start + q; c++) {
+                hash = hash * 31 + value.charAt(c);
+            }
+            // Spread the bits so that the low bits used as the position vary.
+            return hash ^ (hash >>> 16) ^ (hash >>> 7);
+        }
+    }
+}
@@ -8,7 +8,17 @@ package net.digitaltsunami.word.sequence;
  * 
  * @author dhagberg
  */
-public class LevenshteinDistanceStrategy implements EditDistanceStrategy {
+public class LevenshteinDistanceStrategy implements BoundedEditDistanceStrategy {
+    /**
+     * Pair of rows reused by each thread to calculate edit counts, grown as
+     * needed to fit the longest toTerm seen by the thread.
+     */
+    private static final ThreadLocal<int[][]> SCRATCH_ROWS = new ThreadLocal<int[][]>() {
+        @Override
+        protected int[][] initialValue() {
+            return new int[2][32];
+        }
+    };
 
     /*
      * (non-Javadoc)
@@ -34,6 +44,32 @@ public class LevenshteinDistanceStrategy implements EditDistanceStrategy {
         return calculateEditCount(fromTerm, toTerm);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.sequence.BoundedEditDistanceStrategy#getEditCount
+     * (java.lang.String, java.lang.String, int)
+     */
+    @Override
+    public int getEditCount(String fromTerm, String toTerm, int maxEdits) {
+        return calculateEditCount(fromTerm, toTerm, maxEdits);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.sequence.BoundedEditDistanceStrategy#getEditDistance
+     * (java.lang.String, java.lang.String, double)
+     */
+    @Override
+    public double getEditDistance(String fromTerm, String toTerm, double maxDistance) {
+        // Edit counts are whole numbers, so only the integer part is relevant.
+        int maxEdits = maxDistance >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math
+                .floor(maxDistance);
+        return calculateEditCount(fromTerm, toTerm, maxEdits);
+    }
 
     /**
      * Compute and return the Levenshtein edit distance between the two provided
@@ -46,42 +82,83 @@ public class LevenshteinDistanceStrategy implements EditDistanceStrategy {
      * @return total number of edits required to convert string 1 to string 2.
      */
     public static int calculateEditCount(String fromTerm, String toTerm) {
-        int nRows = fromTerm.length() + 1;
-        int nCols = toTerm.length() + 1;
-        /*
-         * Create matrix to store edit operations. Each dimension is length + 1
-         * to allow for full edit distance values.
-         */
-        int editMatrix[][] = new int[nRows][nCols];
-        /*
-         * Initialize first row and column to contain edit distances as if the
-         * other string were empty.
-         */
-        for (int r = 0; r < nRows; r++) {
-            editMatrix[r][0] = r;
+        return calculateEditCount(fromTerm, toTerm,
+                Math.max(fromTerm.length(), toTerm.length()));
+    }
+
+    /**
+     * Compute and return the Levenshtein edit distance between the two provided
+     * sequences if no more than the provided maximum.
+     * <p>
+     * Only two rows of the edit matrix are kept, reusing arrays held by the
+     * current thread, and only the cells within maxEdits of the diagonal are
+     * calculated as any path through a cell further from the diagonal requires
+     * more than maxEdits edits. The calculation stops as soon as every cell in
+     * a row exceeds maxEdits.
+     * 
+     * @param fromTerm
+     * @param toTerm
+     * @param maxEdits
+     *            maximum number of edits of interest.
+     * @return total number of edits required to convert string 1 to string 2 if
+     *         less than or equal to maxEdits, otherwise maxEdits + 1.
+     */
+    public static int calculateEditCount(String fromTerm, String toTerm, int maxEdits) {
+        int fromLen = fromTerm.length();
+        int toLen = toTerm.length();
+        // The distance can never exceed the length of the longer term.
+        int max = Math.min(maxEdits, Math.max(fromLen, toLen));
+        int exceeded = max + 1;
+        if (max < 0 || Math.abs(fromLen - toLen) > max) {
+            return maxEdits + 1;
         }
-        for (int c = 0; c < nCols; c++) {
-            editMatrix[0][c] = c;
+
+        int[][] rows = SCRATCH_ROWS.get();
+        if (rows[0].length < toLen + 2) {
+            rows = new int[2][toLen + 2];
+            SCRATCH_ROWS.set(rows);
         }
+        int[] prev = rows[0];
+        int[] curr = rows[1];
         /*
-         * Compare each character of the string against one another and
-         * calculate the number of edits needed at each stage. The total number
-         * of edits will be in editMatrix[fromTerm.len][toTerm.len]
+         * First row contains the edit distances as if fromTerm were empty.
+         * Cells just beyond the band are set to exceeded so that they may be
+         * read by the next row without being calculated.
          */
-        for (int r = 1; r < nRows; r++) {
-            for (int c = 1; c < nCols; c++) {
-                if (fromTerm.charAt(r - 1) == toTerm.charAt(c - 1)) {
-                    editMatrix[r][c] = editMatrix[r - 1][c - 1];
-                } else {
-                    editMatrix[r][c] = Math.min(
-                            Math.min(editMatrix[r][c - 1] +1 , editMatrix[r - 1][c] + 1),
-                            editMatrix[r - 1][c - 1] + 1);
+        int hi = Math.min(toLen, max);
+        for (int c = 0; c <= hi; c++) {
+            prev[c] = c;
+        }
+        prev[hi + 1] = exceeded;
+
+        for (int r = 1; r <= fromLen; r++) {
+            int lo = Math.max(1, r - max);
+            hi = Math.min(toLen, r + max);
+            curr[lo - 1] = lo == 1 ? Math.min(r, exceeded) : exceeded;
+            int rowMin = curr[lo - 1];
+            char fromChar = fromTerm.charAt(r - 1);
+            for (int c = lo; c <= hi; c++) {
+                int edits = prev[c - 1];
+                if (fromChar != toTerm.charAt(c - 1)) {
+                    edits = Math.min(Math.min(edits, prev[c]), curr[c - 1]) + 1;
+                    if (edits > exceeded) {
+                        edits = exceeded;
+                    }
+                }
+                curr[c] = edits;
+                if (edits < rowMin) {
+                    rowMin = edits;
                 }
             }
+            curr[hi + 1] = exceeded;
+            if (rowMin > max) {
+                // Every path from this row on will exceed the maximum.
+                return maxEdits + 1;
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
         }
-
-        // printEditMatrix(fromTerm.toCharArray(), toTerm.toCharArray(),
-        // editMatrix);
-        return editMatrix[nRows - 1][nCols - 1];
+        return prev[toLen] > max ? maxEdits + 1 : prev[toLen];
     }
 }
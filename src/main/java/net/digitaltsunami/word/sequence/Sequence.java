@@ -1,5 +1,8 @@
 package net.digitaltsunami.word.sequence;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Utility methods for processing of sequences.  
  * 
@@ -7,10 +10,21 @@ package net.digitaltsunami.word.sequence;
  *
  */
 public class Sequence {
+    /**
+     * Maximum number of cells in the matrix used by
+     * {@link #getALongestCommonSubsequence(String, String)}. Longer strings
+     * are compared in linear space.
+     */
+    public static final int MAX_MATRIX_CELLS = 1 << 16;
+
     /**
      * Returns one of possibly many longest subsequences of characters common to
      * both input strings. As a subsequence, characters are not required to be
      * contiguous.
+     * <p>
+     * If the matrix of results for the strings would have more than
+     * {@link #MAX_MATRIX_CELLS} cells, the subsequence is found using
+     * {@link #getALongestCommonSubsequenceInLinearSpace(String, String)}.
      * 
      * @param string1
      * @param string2
@@ -18,6 +32,9 @@ public class Sequence {
      *         being the longest subsequence found.
      */
     public static String getALongestCommonSubsequence(String string1, String string2) {
+        if ((long) (string1.length() + 1) * (string2.length() + 1) > MAX_MATRIX_CELLS) {
+            return getALongestCommonSubsequenceInLinearSpace(string1, string2);
+        }
         /*
          * Matrix containing results of iterations looking for common
          * characters. Arrays for results are 1 greater than length of input
@@ -129,6 +146,216 @@ public class Sequence {
         return sb.toString();
     }
 
+    /**
+     * Returns one of possibly many longest subsequences of characters common to
+     * both input strings using the divide and conquer algorithm of Hirschberg,
+     * which requires space proportional to the length of the shorter string
+     * rather than to the product of the lengths.
+     * <p>
+     * The longer string is split in half and the lengths of the common
+     * subsequences of each half with every prefix and suffix of the shorter
+     * string are calculated one row at a time. The shorter string is split at
+     * the position maximizing the sum of the two, and each pair of halves is
+     * solved in turn. This takes about twice the time of
+     * {@link #getALongestCommonSubsequence(String, String)} for strings small
+     * enough to use a matrix.
+     * 
+     * @param string1
+     * @param string2
+     * @return a string from the set of 0 to many strings, the length of each
+     *         being the longest subsequence found.
+     */
+    public static String getALongestCommonSubsequenceInLinearSpace(String string1,
+            String string2) {
+        String longer = string1.length() >= string2.length() ? string1 : string2;
+        String shorter = longer == string1 ? string2 : string1;
+        // Common prefixes and suffixes are always part of a longest subsequence.
+        int start = 0;
+        int end = shorter.length();
+        while (start < end && longer.charAt(start) == shorter.charAt(start)) {
+            start++;
+        }
+        int offset = longer.length() - shorter.length();
+        while (end > start && longer.charAt(end + offset - 1) == shorter.charAt(end - 1)) {
+            end--;
+        }
+        StringBuilder sb = new StringBuilder(shorter.length());
+        sb.append(shorter, 0, start);
+        int cols = end - start + 1;
+        appendLongestSequence(longer, start, end + offset, shorter, start, end, new int[cols],
+                new int[cols], sb);
+        sb.append(shorter, end, shorter.length());
+        return sb.toString();
+    }
+
+    /**
+     * Returns the length of the longest subsequence of characters common to
+     * both input strings, without determining the subsequence itself.
+     * <p>
+     * Uses the bit-parallel algorithm of Allison and Dix, as formulated by
+     * Hyyr&ouml;, in which each row of the results matrix is encoded as a bit
+     * vector of the positions within the shorter string at which the length
+     * increases. A row is calculated for each character of the longer string
+     * by a few operations on each 64 characters of the shorter string, and
+     * the space required is proportional to the length of the shorter string.
+     * 
+     * @param string1
+     * @param string2
+     * @return the length of the longest common subsequence of the strings.
+     */
+    public static int getLongestCommonSubsequenceLength(String string1, String string2) {
+        String pattern = string1.length() <= string2.length() ? string1 : string2;
+        String text = pattern == string1 ? string2 : string1;
+        int patternLen = pattern.length();
+        if (patternLen == 0) {
+            return 0;
+        }
+        int words = (patternLen + 63) >>> 6;
+
+        /*
+         * Bit masks of the positions of each distinct character of the
+         * pattern. Characters below 128 are mapped to their masks by a table,
+         * others by a map.
+         */
+        long[][] asciiMasks = new long[128][];
+        Map<Character, long[]> otherMasks = new HashMap<Character, long[]>();
+        for (int i = 0; i < patternLen; i++) {
+            char c = pattern.charAt(i);
+            long[] mask = c < 128 ? asciiMasks[c] : otherMasks.get(c);
+            if (mask == null) {
+                mask = new long[words];
+                if (c < 128) {
+                    asciiMasks[c] = mask;
+                } else {
+                    otherMasks.put(c, mask);
+                }
+            }
+            mask[i >>> 6] |= 1L << i;
+        }
+
+        // A zero bit marks each position at which the length increases.
+        long[] row = new long[words];
+        for (int k = 0; k < words; k++) {
+            row[k] = -1L;
+        }
+        for (int j = 0; j < text.length(); j++) {
+            char c = text.charAt(j);
+            long[] mask = c < 128 ? asciiMasks[c] : otherMasks.get(c);
+            if (mask == null) {
+                continue;
+            }
+            long carry = 0L;
+            for (int k = 0; k < words; k++) {
+                long v = row[k];
+                long u = v & mask[k];
+                long sum = v + u + carry;
+                // Unsigned overflow of v + u + carry.
+                carry = ((v & u) | ((v | u) & ~sum)) >>> 63;
+                row[k] = sum | (v & ~mask[k]);
+            }
+        }
+
+        int length = 0;
+        for (int k = 0; k < words; k++) {
+            long zeros = ~row[k];
+            if (k == words - 1 && (patternLen & 63) != 0) {
+                zeros &= (1L << patternLen) - 1;
+            }
+            length += Long.bitCount(zeros);
+        }
+        return length;
+    }
+
+    /**
+     * Append one of possibly many longest subsequences common to
+     * s1[s1Start, s1End) and s2[s2Start, s2End) to the provided builder. The
+     * forward and reverse rows are scratch space of at least
+     * s2End - s2Start + 1 elements.
+     */
+    private static void appendLongestSequence(String s1, int s1Start, int s1End, String s2,
+            int s2Start, int s2End, int[] forward, int[] reverse, StringBuilder sb) {
+        if (s1Start == s1End || s2Start == s2End) {
+            return;
+        }
+        if (s1End - s1Start == 1) {
+            char c = s1.charAt(s1Start);
+            for (int j = s2Start; j < s2End; j++) {
+                if (s2.charAt(j) == c) {
+                    sb.append(c);
+                    return;
+                }
+            }
+            return;
+        }
+        int mid = (s1Start + s1End) >>> 1;
+        int cols = s2End - s2Start;
+        getForwardPrefixLens(s1, s1Start, mid, s2, s2Start, s2End, forward);
+        getReversePrefixLens(s1, mid, s1End, s2, s2Start, s2End, reverse);
+        // Split s2 where the subsequences of the two halves of s1 sum highest.
+        int split = 0;
+        int best = -1;
+        for (int k = 0; k <= cols; k++) {
+            int len = forward[k] + reverse[cols - k];
+            if (len > best) {
+                best = len;
+                split = k;
+            }
+        }
+        appendLongestSequence(s1, s1Start, mid, s2, s2Start, s2Start + split, forward,
+                reverse, sb);
+        appendLongestSequence(s1, mid, s1End, s2, s2Start + split, s2End, forward, reverse, sb);
+    }
+
+    /**
+     * Populate lens[j] with the length of the longest subsequence common to
+     * s1[s1Start, s1End) and the first j characters of s2[s2Start, s2End).
+     */
+    private static void getForwardPrefixLens(String s1, int s1Start, int s1End, String s2,
+            int s2Start, int s2End, int[] lens) {
+        int cols = s2End - s2Start;
+        for (int j = 0; j <= cols; j++) {
+            lens[j] = 0;
+        }
+        for (int i = s1Start; i < s1End; i++) {
+            char c = s1.charAt(i);
+            int diagonal = 0;
+            for (int j = 1; j <= cols; j++) {
+                int above = lens[j];
+                if (s2.charAt(s2Start + j - 1) == c) {
+                    lens[j] = diagonal + 1;
+                } else if (lens[j - 1] > above) {
+                    lens[j] = lens[j - 1];
+                }
+                diagonal = above;
+            }
+        }
+    }
+
+    /**
+     * Populate lens[j] with the length of the longest subsequence common to
+     * s1[s1Start, s1End) and the last j characters of s2[s2Start, s2End).
+     */
+    private static void getReversePrefixLens(String s1, int s1Start, int s1End, String s2,
+            int s2Start, int s2End, int[] lens) {
+        int cols = s2End - s2Start;
+        for (int j = 0; j <= cols; j++) {
+            lens[j] = 0;
+        }
+        for (int i = s1End - 1; i >= s1Start; i--) {
+            char c = s1.charAt(i);
+            int diagonal = 0;
+            for (int j = 1; j <= cols; j++) {
+                int above = lens[j];
+                if (s2.charAt(s2End - j) == c) {
+                    lens[j] = diagonal + 1;
+                } else if (lens[j - 1] > above) {
+                    lens[j] = lens[j - 1];
+                }
+                diagonal = above;
+            }
+        }
+    }
+
     private static void printLCSMatrix(String s1, String s2, int[][] prefixLengths) {
         System.out.printf("\n%3s", ""); // Print first Row
         System.out.printf("%2s", "0"); // Print 0 col hdr
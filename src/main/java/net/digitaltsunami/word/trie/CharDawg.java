@@ -0,0 +1,416 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only dictionary of terms stored as a minimal directed acyclic word
+ * graph (DAWG). In addition to sharing common prefixes as a trie does, nodes
+ * are shared between all terms ending with the same suffixes, so endings such
+ * as "-ation" or "-ing" are stored once rather than once per term.
+ * <p>
+ * The graph is built incrementally from terms in lexicographic order as
+ * described by Daciuk et al. in "Incremental Construction of Minimal Acyclic
+ * Finite-State Automata". As each term is added, the nodes of the prior term
+ * that are no longer shared with the new term are replaced by an equivalent
+ * node already within the graph or are registered for later terms to share.
+ * <p>
+ * As a node may be reached from many parents, terms are rebuilt from the path
+ * followed from the root rather than from the node. As with {@link CharTrie},
+ * all queries are case insensitive.
+ *
+ * @author dhagberg
+ *
+ */
+public class CharDawg {
+    /** Node from which all terms start. */
+    private final Node root;
+    /** Number of unique terms within this dictionary. */
+    private final int wordCount;
+    /** Number of nodes within the graph, excluding the root. */
+    private final int nodeCount;
+    /** Wildcard character used in pattern searches. */
+    private char wildcardChar = CharTrie.WILDCARD_CHAR;
+
+    /**
+     * Create a dictionary from the provided graph. Used by the builder.
+     */
+    private CharDawg(Node root, int wordCount, int nodeCount) {
+        this.root = root;
+        this.wordCount = wordCount;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Create a read-only graph containing the terms of the provided dictionary.
+     * The source dictionary is not modified and may continue to be used, but
+     * subsequent changes to it will not be reflected in the returned graph.
+     *
+     * @param trie
+     *            populated dictionary to convert.
+     * @return a graph containing the terms of the provided dictionary.
+     */
+    public static CharDawg from(CharTrie trie) {
+        // Terms are only in lexicographic order if the node factory keeps the
+        // children in order.
+        List<String> terms = new ArrayList<String>(trie.getWordCount());
+        for (Iterator<String> it = trie.iterateTerms(""); it.hasNext();) {
+            terms.add(it.next());
+        }
+        Collections.sort(terms);
+        return fromSortedTerms(terms.iterator());
+    }
+
+    /**
+     * Create a read-only graph containing the provided terms. Terms are
+     * converted to lower case and must be in lexicographic order once
+     * converted. Duplicate and empty terms are ignored.
+     *
+     * @param terms
+     *            terms to add in lexicographic order.
+     * @return a graph containing the provided terms.
+     * @throws IllegalArgumentException
+     *             if a term precedes the term before it.
+     */
+    public static CharDawg fromSortedTerms(Iterator<String> terms) {
+        Builder builder = new Builder();
+        while (terms.hasNext()) {
+            builder.addTerm(terms.next().toLowerCase());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns true if the dictionary contains the provided term.
+     *
+     * @param term
+     *            Term to query for.
+     * @return true if the term was found, false otherwise.
+     */
+    public boolean contains(String term) {
+        if (term.length() == 0) {
+            return false;
+        }
+        Node node = findNode(term.toLowerCase());
+        return node != null && node.terminus;
+    }
+
+    /**
+     * Find and return all terms within the dictionary beginning with the
+     * provided prefix. Terms are returned in lexicographic order.
+     *
+     * @param prefix
+     *            Common prefix to all terms to be returned.
+     * @return A list of all terms beginning with the provided prefix. If no
+     *         terms found, an empty list will be returned.
+     */
+    public Collection<String> findTerms(String prefix) {
+        if (prefix.length() == 0) {
+            return Collections.emptyList();
+        }
+        String lcPrefix = prefix.toLowerCase();
+        Node node = findNode(lcPrefix);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<String>();
+        if (node.terminus) {
+            terms.add(lcPrefix);
+        }
+        char[] termBuff = Arrays.copyOf(lcPrefix.toCharArray(), lcPrefix.length() + 16);
+        findTerms(terms, node, termBuff, lcPrefix.length());
+        return terms;
+    }
+
+    /**
+     * Find and return all terms within the dictionary matching the provided
+     * pattern. See {@link CharTrie#findPattern(String)} for a description of
+     * the pattern.
+     *
+     * @param pattern
+     *            Mix of fixed and/or {@link #getWildcardChar()} characters to
+     *            match.
+     * @return A list of all terms matching the provided pattern. If no terms
+     *         found, an empty list will be returned.
+     */
+    public Collection<String> findPattern(String pattern) {
+        if (pattern.length() == 0) {
+            return Collections.emptyList();
+        }
+        char[] lcPattern = pattern.toLowerCase().toCharArray();
+        List<String> matchingTerms = new ArrayList<String>();
+        findPattern(matchingTerms, lcPattern, new char[lcPattern.length], 0, root);
+        return matchingTerms;
+    }
+
+    /**
+     * Return the number of unique entry terms.
+     *
+     * @return the number of unique terms within this dictionary.
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Return the number of nodes within the graph, not including the root.
+     * This is the number of nodes a trie would require less the nodes saved by
+     * sharing suffixes.
+     *
+     * @return the number of nodes within the graph.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Current wildcard in use for pattern queries.
+     *
+     * @return the wildcardChar
+     */
+    public char getWildcardChar() {
+        return wildcardChar;
+    }
+
+    /**
+     * Set the wildcard to use for pattern queries.
+     *
+     * @param wildcardChar
+     *            the wildcardChar to set
+     */
+    public void setWildcardChar(char wildcardChar) {
+        this.wildcardChar = wildcardChar;
+    }
+
+    /**
+     * Return the node reached by following the provided sequence of characters
+     * from the root or null if the sequence does not exist.
+     */
+    private Node findNode(String sequence) {
+        Node node = root;
+        for (int i = 0; i < sequence.length() && node != null; i++) {
+            node = node.getChild(sequence.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Recursive method to walk the graph searching for complete words. Each
+     * word will be added to the provided {@link Collection}.
+     *
+     * @param terms
+     *            Location to store all matching results.
+     * @param node
+     *            current node.
+     * @param termBuff
+     *            characters of the path from the root to the current node.
+     * @param length
+     *            number of characters in termBuff for the current node.
+     */
+    private void findTerms(Collection<String> terms, Node node, char[] termBuff, int length) {
+        if (length == termBuff.length) {
+            termBuff = Arrays.copyOf(termBuff, length * 2);
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            Node child = node.children[i];
+            termBuff[length] = node.values[i];
+            if (child.terminus) {
+                terms.add(new String(termBuff, 0, length + 1));
+            }
+            findTerms(terms, child, termBuff, length + 1);
+        }
+    }
+
+    /**
+     * Recursive method to find all terms matching the pattern provided starting
+     * at the pattern position and node provided.
+     *
+     * @param list
+     *            Location to store all matching results.
+     * @param pattern
+     *            Mix of fixed and/or wildcard characters to match.
+     * @param termBuff
+     *            characters of the path from the root to the current node.
+     * @param pos
+     *            current character position with pattern.
+     * @param node
+     *            current node from which the children will be compared against
+     *            the current character in the pattern.
+     */
+    private void findPattern(Collection<String> list, char[] pattern, char[] termBuff, int pos,
+            Node node) {
+        if (pos == pattern.length) {
+            if (node.terminus) {
+                list.add(new String(termBuff));
+            }
+            return;
+        }
+        if (pattern[pos] == wildcardChar) {
+            for (int i = 0; i < node.childCount; i++) {
+                termBuff[pos] = node.values[i];
+                findPattern(list, pattern, termBuff, pos + 1, node.children[i]);
+            }
+        } else {
+            Node child = node.getChild(pattern[pos]);
+            if (child != null) {
+                termBuff[pos] = pattern[pos];
+                findPattern(list, pattern, termBuff, pos + 1, child);
+            }
+        }
+    }
+
+    /**
+     * Node within the graph. Children are held in parallel arrays ordered by
+     * value. Once registered, a node is never modified and its equality is
+     * defined by its terminus flag and transitions, with children compared by
+     * identity.
+     */
+    private static final class Node {
+        private char[] values = new char[2];
+        private Node[] children = new Node[2];
+        private int childCount;
+        private boolean terminus;
+        private int hash;
+
+        private Node getChild(char value) {
+            int index = Arrays.binarySearch(values, 0, childCount, value);
+            return index < 0 ? null : children[index];
+        }
+
+        /**
+         * Add a child following all existing children.
+         */
+        private void appendChild(char value, Node child) {
+            if (childCount == values.length) {
+                values = Arrays.copyOf(values, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            values[childCount] = value;
+            children[childCount] = child;
+            childCount++;
+        }
+
+        /**
+         * Release unused array capacity and compute the hash once the node
+         * will no longer change.
+         */
+        private void freeze() {
+            if (values.length != childCount) {
+                values = Arrays.copyOf(values, childCount);
+                children = Arrays.copyOf(children, childCount);
+            }
+            int h = terminus ? 1 : 0;
+            for (int i = 0; i < childCount; i++) {
+                h = 31 * h + values[i];
+                h = 31 * h + System.identityHashCode(children[i]);
+            }
+            hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) obj;
+            if (terminus != other.terminus || childCount != other.childCount
+                    || hash != other.hash) {
+                return false;
+            }
+            for (int i = 0; i < childCount; i++) {
+                if (values[i] != other.values[i] || children[i] != other.children[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Builds the minimal graph from terms in lexicographic order.
+     */
+    private static final class Builder {
+        private final Node root = new Node();
+        /** Nodes that may be shared, keyed by themselves. */
+        private final Map<Node, Node> register = new HashMap<Node, Node>();
+        /** Nodes for each character of the prior term, preceded by the root. */
+        private final List<Node> path = new ArrayList<Node>();
+        private String priorTerm = "";
+        private int wordCount;
+
+        private Builder() {
+            path.add(root);
+        }
+
+        private void addTerm(String term) {
+            int cmp = term.compareTo(priorTerm);
+            if (cmp == 0 || term.length() == 0) {
+                return;
+            }
+            if (cmp < 0) {
+                throw new IllegalArgumentException("Terms must be in lexicographic order: \""
+                        + term + "\" follows \"" + priorTerm + "\"");
+            }
+            int common = 0;
+            int maxCommon = Math.min(term.length(), priorTerm.length());
+            while (common < maxCommon && term.charAt(common) == priorTerm.charAt(common)) {
+                common++;
+            }
+            // Nodes beyond the common prefix will not change, so may now be
+            // shared.
+            minimize(common);
+            Node node = path.get(common);
+            for (int i = common; i < term.length(); i++) {
+                Node child = new Node();
+                node.appendChild(term.charAt(i), child);
+                path.add(child);
+                node = child;
+            }
+            node.terminus = true;
+            priorTerm = term;
+            wordCount++;
+        }
+
+        /**
+         * Replace or register each node of the prior term beyond the provided
+         * depth, deepest first, so that each node is checked after all of its
+         * children.
+         */
+        private void minimize(int depth) {
+            for (int i = path.size() - 1; i > depth; i--) {
+                Node child = path.remove(i);
+                child.freeze();
+                Node existing = register.get(child);
+                if (existing != null) {
+                    Node parent = path.get(i - 1);
+                    parent.children[parent.childCount - 1] = existing;
+                } else {
+                    register.put(child, child);
+                }
+            }
+        }
+
+        private CharDawg build() {
+            minimize(0);
+            root.freeze();
+            return new CharDawg(root, wordCount, register.size());
+        }
+    }
+}
@@ -3,16 +3,31 @@
  */
 package net.digitaltsunami.word.trie;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
+import net.digitaltsunami.word.trie.event.AsyncNodeEventListenerList;
+import net.digitaltsunami.word.trie.event.AsyncNodeEventListenerList.OverflowPolicy;
 import net.digitaltsunami.word.trie.event.NodeAddedEvent;
 import net.digitaltsunami.word.trie.event.NodeAddedListener;
 import net.digitaltsunami.word.trie.event.NodeEventListenerList;
+import net.digitaltsunami.word.trie.event.TermAddedEvent;
+import net.digitaltsunami.word.trie.event.TermAddedListener;
 import net.digitaltsunami.word.trie.event.TerminusNodeAddedEvent;
 import net.digitaltsunami.word.trie.filter.CharFilter;
 import net.digitaltsunami.word.trie.filter.TermFilter;
@@ -66,6 +81,26 @@ public class CharTrie {
      * pattern.
      */
     public static final char WILDCARD_CHAR = '~';
+    /** Identifies a stream written by {@link #writeTo}: the characters WSTR. */
+    protected static final int STREAM_MAGIC = 0x57535452;
+    /** Version of the stream layout written by {@link #writeTo}. */
+    protected static final int STREAM_VERSION = 1;
+    /** Flag set within a node record if the node is a terminus. */
+    private static final int TERMINUS_FLAG = 0x01;
+    /**
+     * Flag set within a terminus record if the record is followed by the term
+     * data written by {@link #writeTermData(DataOutput, CharTrieTerminusNode)}.
+     */
+    private static final int TERM_DATA_FLAG = 0x02;
+    /** Returned by {@link #addReadNode(CharTrieNode, char, boolean)} if a node was created. */
+    protected static final int NODE_CREATED = 0x01;
+    /**
+     * Returned by {@link #addReadNode(CharTrieNode, char, boolean)} if a node
+     * was made a terminus.
+     */
+    protected static final int TERM_CREATED = 0x02;
+    /** Maximum number of term added events delivered in a single batch. */
+    private static final int TERM_BATCH_SIZE = 1024;
     /**
      * Wildcard character used in pattern searches. Defaults to
      * {@link #WILDCARD_CHAR}.
@@ -93,7 +128,7 @@ public class CharTrie {
     /**
      * Handles event firing as new characters/nodes are added.
      */
-    private final NodeEventListenerList listenerList = new NodeEventListenerList();
+    private NodeEventListenerList listenerList = new NodeEventListenerList();
     /**
      * Strategy to use when querying for patterns. Defaults to recursive query
      * if not set.
@@ -188,30 +223,188 @@ public class CharTrie {
      *            A string of characters to add.
      */
     public void addTerm(String term) {
-        String originalTerm = term;
-        CharTrieNode currentNode = root;
-        if (termFilter != null) {
-            term = termFilter.apply(term);
-            if (term == TermFilter.SKIP_TERM) {
-                // Term Filter decided to skip this entry, just return.
-                return;
-            }
+        insertTerm(term);
+    }
+
+    /**
+     * Add each of the provided terms to the dictionary as described by
+     * {@link #addTerm(String)}. Listeners registered through
+     * {@link #addTermAddedListener(TermAddedListener)} are notified of the
+     * terms in batches through {@link TermAddedListener#termsAdded(List)}
+     * rather than once for each term.
+     * 
+     * @param terms
+     *            terms to add.
+     */
+    public void addTerms(Iterable<String> terms) {
+        insertTerms(terms.iterator());
+    }
+
+    /**
+     * Add each of the provided terms using {@link #insertTerm(String, List)},
+     * collecting the term added events into batches.
+     * 
+     * @param terms
+     *            terms to add.
+     */
+    protected void insertTerms(Iterator<String> terms) {
+        List<TermAddedEvent> batch = createTermBatch();
+        while (terms.hasNext()) {
+            insertTerm(terms.next(), batch);
+            batch = dispatchTermBatch(batch, TERM_BATCH_SIZE);
         }
-        char[] termArray = term.toCharArray();
-        termArray = applyCharFilter(termArray);
+        dispatchTermBatch(batch, 1);
+    }
 
-        // Don't count length until after filter applied as it may have changed.
-        int termLen = termArray.length;
-        if (termLen == 0) {
-            // Char Filter removed all characters, just return.
-            return;
+    /**
+     * Add each of the provided terms to the dictionary as described by
+     * {@link #addTerm(String)}. The terms are expected to be in lexicographic
+     * order after the filters have been applied. Rather than locating each
+     * term from the root, the nodes for the prior term are retained and only
+     * the characters following the prefix shared with the prior term are
+     * added. With the {@link LexCharTrieNodeFactory}, new children are
+     * appended to the end of the children without searching them, so loading
+     * an ordered list of terms into an empty dictionary takes time
+     * proportional to the total number of characters.
+     * <p>
+     * Terms out of order are added correctly, but without the benefit of the
+     * ordering. Events are dispatched as they would be for
+     * {@link #addTerm(String)}, except that term added events are delivered
+     * in batches as described by {@link #addTerms(Iterable)}.
+     * 
+     * @param terms
+     *            terms to add in lexicographic order.
+     */
+    public void addSortedTerms(Iterator<String> terms) {
+        LexCharTrieNodeFactory lexFactory = null;
+        if (nodeFactory instanceof LexCharTrieNodeFactory) {
+            lexFactory = (LexCharTrieNodeFactory) nodeFactory;
         }
+        // Nodes for each character of the prior term, preceded by the root.
+        List<CharTrieNode> path = new ArrayList<CharTrieNode>();
+        path.add(root);
+        char[] priorTerm = new char[0];
+        List<TermAddedEvent> batch = createTermBatch();
 
-        // Convert all remaining characters to lower case.
-        for (int i = 0; i < termLen; i++) {
-            termArray[i] = Character.toLowerCase(termArray[i]);
+        while (terms.hasNext()) {
+            String originalTerm = terms.next();
+            char[] termArray = prepareTerm(originalTerm);
+            if (termArray == null) {
+                // Filters decided to skip this entry.
+                continue;
+            }
+            int termLen = termArray.length;
+            int lenUpToTerminus = termLen - 1;
+            int common = 0;
+            int maxCommon = Math.min(termLen, priorTerm.length);
+            while (common < maxCommon && termArray[common] == priorTerm[common]) {
+                common++;
+            }
+            // Node for the first character of the prior term that differs,
+            // which will be the last child of its parent if the terms are in
+            // order.
+            CharTrieNode lastChild = common < priorTerm.length ? path.get(common + 1) : null;
+            for (int i = path.size() - 1; i > common; i--) {
+                path.remove(i);
+            }
+            for (int termPos = 0; termPos < common && termPos < lenUpToTerminus; termPos++) {
+                listenerList.dispatchCharacterAddedEvent(path.get(termPos + 1));
+            }
+
+            CharTrieNode currentNode = path.get(common);
+            boolean created = false;
+            int newNodeCount = 0;
+            for (int termPos = common; termPos < termLen; termPos++) {
+                char value = termArray[termPos];
+                boolean terminus = termPos == lenUpToTerminus;
+                CharTrieNode node = null;
+                if (lastChild != null && lexFactory != null) {
+                    node = lexFactory.appendChild(currentNode, lastChild, value);
+                    if (node != null && terminus) {
+                        node = nodeFactory.convertToTerminus(node, originalTerm);
+                    }
+                }
+                lastChild = null;
+                created = node != null;
+                if (node == null) {
+                    node = currentNode.getChild(value);
+                    if (node == null) {
+                        created = true;
+                        node = terminus ? nodeFactory.addChildTerminus(currentNode, value,
+                                originalTerm) : nodeFactory.addChild(currentNode, value);
+                    }
+                }
+                if (created) {
+                    newNodeCount++;
+                }
+                if (!terminus) {
+                    if (created) {
+                        listenerList.dispatchNodeAddedEvent(node);
+                    } else {
+                        listenerList.dispatchCharacterAddedEvent(node);
+                    }
+                }
+                path.add(node);
+                currentNode = node;
+            }
 
+            // The last node was either created above as a terminus or already
+            // existed, in which case it may or may not be a terminus.
+            if (!created && currentNode.isTerminus()) {
+                listenerList.dispatchTerminusCharacterAddedEvent((CharTrieTerminusNode) currentNode);
+                dispatchTermAddedEvent((CharTrieTerminusNode) currentNode, 0, false, batch);
+            } else {
+                if (!created) {
+                    currentNode = nodeFactory.convertToTerminus(currentNode, originalTerm);
+                    path.set(termLen, currentNode);
+                }
+                listenerList.dispatchTerminusNodeAddedEvent((CharTrieTerminusNode) currentNode);
+                incrementWordCount();
+                dispatchTermAddedEvent((CharTrieTerminusNode) currentNode, newNodeCount, true,
+                        batch);
+            }
+            batch = dispatchTermBatch(batch, TERM_BATCH_SIZE);
+            priorTerm = termArray;
+        }
+        dispatchTermBatch(batch, 1);
+    }
+
+    /**
+     * Add a term to the dictionary as described by {@link #addTerm(String)}
+     * and return the node marking the end of the term.
+     * 
+     * @param term
+     *            A string of characters to add.
+     * @return the terminus node for the term or null if the filters excluded
+     *         the term.
+     */
+    protected CharTrieTerminusNode insertTerm(String term) {
+        return insertTerm(term, null);
+    }
+
+    /**
+     * Add a term to the dictionary as described by {@link #addTerm(String)}
+     * and return the node marking the end of the term. The term added event
+     * is appended to the provided batch if not null, otherwise it is
+     * dispatched to the listeners.
+     * 
+     * @param term
+     *            A string of characters to add.
+     * @param batch
+     *            term added events awaiting dispatch or null to dispatch the
+     *            event for this term immediately.
+     * @return the terminus node for the term or null if the filters excluded
+     *         the term.
+     */
+    protected CharTrieTerminusNode insertTerm(String term, List<TermAddedEvent> batch) {
+        String originalTerm = term;
+        CharTrieNode currentNode = root;
+        char[] termArray = prepareTerm(term);
+        if (termArray == null) {
+            // Filters decided to skip this entry, just return.
+            return null;
         }
+        int termLen = termArray.length;
 
         int lenUpToTerminus = termLen - 1;
         int termPos = 0;
@@ -237,24 +430,113 @@ public class CharTrie {
             if (currentNode.isTerminus()) {
                 listenerList
                         .dispatchTerminusCharacterAddedEvent((CharTrieTerminusNode) currentNode);
-                return;
+                dispatchTermAddedEvent((CharTrieTerminusNode) currentNode, 0, false, batch);
+                return (CharTrieTerminusNode) currentNode;
             } else {
-                currentNode = nodeFactory.convertToTerminus(currentNode, originalTerm);
-                listenerList.dispatchTerminusNodeAddedEvent((CharTrieTerminusNode) currentNode);
-                wordCount++;
-                return;
+                CharTrieTerminusNode terminus = nodeFactory.convertToTerminus(currentNode,
+                        originalTerm);
+                listenerList.dispatchTerminusNodeAddedEvent(terminus);
+                incrementWordCount();
+                dispatchTermAddedEvent(terminus, 0, true, batch);
+                return terminus;
             }
 
         }
+        int newNodeCount = termLen - termPos;
         for (; termPos < lenUpToTerminus; termPos++) {
             currentNode = nodeFactory.addChild(currentNode, termArray[termPos]);
             listenerList.dispatchNodeAddedEvent(currentNode);
         }
         // Mark the last node as the end of a sequence if the sequence has not
         // previously been added.
-        currentNode = nodeFactory.addChildTerminus(currentNode, termArray[termPos], originalTerm);
-        listenerList.dispatchTerminusNodeAddedEvent((CharTrieTerminusNode) currentNode);
-        wordCount++;
+        CharTrieTerminusNode terminus = nodeFactory.addChildTerminus(currentNode,
+                termArray[termPos], originalTerm);
+        listenerList.dispatchTerminusNodeAddedEvent(terminus);
+        incrementWordCount();
+        dispatchTermAddedEvent(terminus, newNodeCount, true, batch);
+        return terminus;
+    }
+
+    /**
+     * Notify the term added listeners that a term has been added or, if a
+     * batch is provided, append the event to the batch.
+     * 
+     * @param terminus
+     *            terminus node for the term.
+     * @param newNodeCount
+     *            number of nodes created for the term.
+     * @param newTerm
+     *            true if the term was not previously within the dictionary.
+     * @param batch
+     *            term added events awaiting dispatch or null.
+     */
+    protected void dispatchTermAddedEvent(CharTrieTerminusNode terminus, int newNodeCount,
+            boolean newTerm, List<TermAddedEvent> batch) {
+        if (batch == null) {
+            listenerList.dispatchTermAddedEvent(terminus, newNodeCount, newTerm);
+        } else {
+            batch.add(new TermAddedEvent(terminus, newNodeCount, newTerm));
+        }
+    }
+
+    /**
+     * Return a list for collecting term added events or null if there are no
+     * listeners for them.
+     */
+    private List<TermAddedEvent> createTermBatch() {
+        if (!listenerList.hasTermAddedListeners()) {
+            return null;
+        }
+        return new ArrayList<TermAddedEvent>();
+    }
+
+    /**
+     * Dispatch the batch if it holds at least the provided number of events
+     * and return the list in which to collect the following events.
+     */
+    private List<TermAddedEvent> dispatchTermBatch(List<TermAddedEvent> batch, int minSize) {
+        if (batch == null || batch.size() < minSize) {
+            return batch;
+        }
+        // Listeners may retain the batch, and asynchronous dispatch will
+        // deliver it later, so a new list is started.
+        listenerList.dispatchTermsAddedEvent(Collections.unmodifiableList(batch));
+        return new ArrayList<TermAddedEvent>();
+    }
+
+    /**
+     * Apply the term and character filters to the provided term and convert the
+     * remaining characters to lower case. The term filter will be applied
+     * first, followed by the character filter.
+     * 
+     * @param term
+     *            term as provided to the dictionary.
+     * @return the characters of the term to be added or null if the filters
+     *         excluded the term or removed all of its characters.
+     */
+    protected char[] prepareTerm(String term) {
+        if (termFilter != null) {
+            term = termFilter.apply(term);
+            if (term == TermFilter.SKIP_TERM) {
+                // Term Filter decided to skip this entry.
+                return null;
+            }
+        }
+        char[] termArray = term.toCharArray();
+        termArray = applyCharFilter(termArray);
+
+        // Don't count length until after filter applied as it may have changed.
+        int termLen = termArray.length;
+        if (termLen == 0) {
+            // Char Filter removed all characters.
+            return null;
+        }
+
+        // Convert all remaining characters to lower case.
+        for (int i = 0; i < termLen; i++) {
+            termArray[i] = Character.toLowerCase(termArray[i]);
+        }
+        return termArray;
     }
 
     /**
@@ -302,6 +584,33 @@ public class CharTrie {
         return findTerms(root, prefix);
     }
 
+    /**
+     * Find and return up to the provided number of terms within the dictionary
+     * beginning with the provided prefix. Terms are returned in the same order
+     * as {@link #findTerms(String)} and the traversal of the trie stops as soon
+     * as the limit has been reached, so the cost of the query is proportional
+     * to the number of terms returned rather than to the size of the subtree
+     * below the prefix.
+     * 
+     * @param prefix
+     *            Common prefix to all terms to be returned.
+     * @param limit
+     *            Maximum number of terms to return.
+     * @return A list of at most limit terms beginning with the provided prefix.
+     *         If no terms found, an empty list will be returned.
+     */
+    public Collection<String> findTerms(String prefix, int limit) {
+        if (limit < 1 || prefix.length() == 0) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<String>(Math.min(limit, 16));
+        Iterator<String> iter = iterateTerms(prefix);
+        while (terms.size() < limit && iter.hasNext()) {
+            terms.add(iter.next());
+        }
+        return terms;
+    }
+
     /**
      * Find and return all terms within the dictionary beginning with the
      * provided prefix. The query will start with the children of the provided
@@ -334,12 +643,44 @@ public class CharTrie {
         if (current.isTerminus()) {
             terms.add(termBuff.toString());
         }
-        // findTerms(terms, current, termBuff, prefixLen);
-        findTerms(terms, (LinkedCharTrieNode) current, termBuff, prefixLen);
+        if (current instanceof LinkedCharTrieNode) {
+            findTerms(terms, (LinkedCharTrieNode) current, termBuff, prefixLen);
+        } else {
+            findTerms(terms, current, termBuff, prefixLen);
+        }
 
         return terms;
     }
 
+    /**
+     * Return an iterator over all terms within the dictionary beginning with
+     * the provided prefix. Terms are produced on demand as the iterator is
+     * advanced, descending the trie using an explicit stack, so the memory
+     * used is proportional to the depth of the trie rather than the number of
+     * matching terms. Terms are returned in the same order as
+     * {@link #findTerms(String)}.
+     * <p>
+     * Unlike {@link #findTerms(String)}, an empty prefix will iterate over all
+     * terms within the dictionary.
+     * <p>
+     * The iterator does not support removal. The results are undefined if
+     * terms are added to the dictionary while iterating, unless the
+     * dictionary supports concurrent modification.
+     * 
+     * @param prefix
+     *            Common prefix to all terms to be returned.
+     * @return an iterator over all terms beginning with the provided prefix.
+     */
+    public Iterator<String> iterateTerms(String prefix) {
+        String lcPrefix = prefix.toLowerCase();
+        CharTrieNode start = root;
+        if (lcPrefix.length() > 0) {
+            List<CharTrieNode> prefixNodes = findChildSequence(root, lcPrefix);
+            start = prefixNodes.isEmpty() ? null : prefixNodes.get(prefixNodes.size() - 1);
+        }
+        return new TermIterator(start, lcPrefix);
+    }
+
     /**
      * Find and return all terms within the dictionary matching the provided
      * pattern. The pattern provided is currently limited to fixed and wildcard
@@ -361,6 +702,44 @@ public class CharTrie {
         return patternSearchStrategy.findPattern(pattern, root, wildcardChar);
     }
 
+    /**
+     * Find and return up to the provided number of terms within the dictionary
+     * matching the provided pattern. See {@link #findPattern(String)} for the
+     * pattern syntax. Terms are returned in the same order as
+     * {@link #findPattern(String)}.
+     * <p>
+     * If the pattern search strategy is a {@link LimitedPatternSearchStrategy}
+     * the search stops as soon as the limit has been reached. Otherwise, all
+     * matching terms are found and the first limit terms are returned.
+     * 
+     * @param pattern
+     *            Mix of fixed and/or wildcard characters to match.
+     * @param limit
+     *            Maximum number of terms to return.
+     * @return A collection of at most limit terms matching the provided
+     *         pattern. If no terms found, an empty collection will be
+     *         returned.
+     */
+    public Collection<String> findPattern(String pattern, int limit) {
+        if (limit < 1) {
+            return Collections.emptyList();
+        }
+        if (patternSearchStrategy instanceof LimitedPatternSearchStrategy) {
+            return ((LimitedPatternSearchStrategy) patternSearchStrategy).findPattern(pattern,
+                    root, wildcardChar, limit);
+        }
+        Collection<String> matches = patternSearchStrategy.findPattern(pattern, root,
+                wildcardChar);
+        if (matches.size() <= limit) {
+            return matches;
+        }
+        List<String> limited = new ArrayList<String>(limit);
+        for (Iterator<String> iter = matches.iterator(); limited.size() < limit;) {
+            limited.add(iter.next());
+        }
+        return limited;
+    }
+
     /**
      * Returns true if the dictionary contains the provided term.
      * 
@@ -381,6 +760,262 @@ public class CharTrie {
         }
     }
 
+    /**
+     * Find and return all terms within the dictionary whose Levenshtein edit
+     * distance from the provided term is no greater than maxEdits. The results
+     * will be ordered by edit distance ascending, with terms of equal distance
+     * in dictionary order.
+     * <p>
+     * The trie is traversed once, carrying one row of the edit distance matrix
+     * per depth. As the row for a node is shared by all terms beginning with
+     * the characters from the root to that node, it is computed only once for
+     * all of them. Any subtree for which the minimum value of the row exceeds
+     * maxEdits cannot contain a match and is not visited.
+     * 
+     * @param term
+     *            Term from which the edit distance will be calculated.
+     * @param maxEdits
+     *            Maximum number of edits (insertion, deletion, substitution)
+     *            for matching terms.
+     * @return A list of all terms within the edit distance. If no terms found,
+     *         an empty list will be returned.
+     */
+    public Collection<String> findWithinDistance(String term, int maxEdits) {
+        if (maxEdits < 0) {
+            return Collections.emptyList();
+        }
+        char[] lcTerm = term.toLowerCase().toCharArray();
+        int nCols = lcTerm.length + 1;
+
+        /*
+         * Matches are collected by distance, allowing them to be returned in
+         * order of distance without a sort.
+         */
+        List<List<String>> matchesByDistance = new ArrayList<List<String>>(maxEdits + 1);
+        for (int i = 0; i <= maxEdits; i++) {
+            matchesByDistance.add(new ArrayList<String>());
+        }
+        // First row represents the edits from an empty prefix.
+        int[] firstRow = new int[nCols];
+        for (int c = 0; c < nCols; c++) {
+            firstRow[c] = c;
+        }
+        List<int[]> rows = new ArrayList<int[]>();
+        rows.add(firstRow);
+        findWithinDistance(matchesByDistance, lcTerm, maxEdits, root, rows, 1,
+                new StringBuilder());
+
+        List<String> matches = new ArrayList<String>();
+        for (List<String> terms : matchesByDistance) {
+            matches.addAll(terms);
+        }
+        return matches;
+    }
+
+    /**
+     * Recursive method to compute the edit distance row for each child of the
+     * provided node and descend into those children that may still lead to a
+     * term within the edit distance.
+     * 
+     * @param matchesByDistance
+     *            Location to store all matching results, indexed by distance.
+     * @param term
+     *            Term from which the edit distance will be calculated.
+     * @param maxEdits
+     *            Maximum number of edits for matching terms.
+     * @param node
+     *            current node whose children will be examined.
+     * @param rows
+     *            edit distance rows for each depth, reused across subtrees.
+     *            The row for the current node is at depth - 1.
+     * @param depth
+     *            depth of the children of the current node.
+     * @param termBuff
+     *            characters from the root to the current node.
+     */
+    private void findWithinDistance(List<List<String>> matchesByDistance, char[] term,
+            int maxEdits, CharTrieNode node, List<int[]> rows, int depth, StringBuilder termBuff) {
+        int nCols = term.length + 1;
+        if (rows.size() == depth) {
+            rows.add(new int[nCols]);
+        }
+        int[] prevRow = rows.get(depth - 1);
+        int[] row = rows.get(depth);
+        for (CharTrieNode child : node) {
+            char value = child.getValue();
+            row[0] = depth;
+            int rowMin = row[0];
+            for (int c = 1; c < nCols; c++) {
+                if (term[c - 1] == value) {
+                    row[c] = prevRow[c - 1];
+                } else {
+                    row[c] = Math.min(Math.min(row[c - 1], prevRow[c]), prevRow[c - 1]) + 1;
+                }
+                rowMin = Math.min(rowMin, row[c]);
+            }
+            if (rowMin > maxEdits) {
+                // No term within this subtree can be within the distance.
+                continue;
+            }
+            termBuff.setLength(depth - 1);
+            termBuff.append(value);
+            int distance = row[nCols - 1];
+            if (child.isTerminus() && distance <= maxEdits) {
+                matchesByDistance.get(distance).add(termBuff.toString());
+            }
+            findWithinDistance(matchesByDistance, term, maxEdits, child, rows, depth + 1,
+                    termBuff);
+        }
+    }
+
+    /**
+     * Find and return all terms within the dictionary having a common
+     * subsequence of at least minLength characters with the provided term.
+     * The results will be ordered by the length of the longest common
+     * subsequence descending, with terms of equal length in dictionary order.
+     * <p>
+     * Equivalent to {@link #findByCommonSubsequence(String, int, int)} with no
+     * limit on the length of matching terms. Without a maximum length no
+     * subtree can be excluded, so every node of the dictionary is visited; only
+     * the computation of the subsequence rows is shared between terms. Where
+     * the length of matching terms can be bounded, such as by the length of the
+     * term plus the number of characters that may be added to it, use
+     * {@link #findByCommonSubsequence(String, int, int)} to skip subtrees.
+     * 
+     * @param term
+     *            Term with which the subsequences are compared.
+     * @param minLength
+     *            Minimum length of the longest common subsequence of matching
+     *            terms.
+     * @return A list of all matching terms. If no terms found, an empty list
+     *         will be returned.
+     */
+    public Collection<String> findByCommonSubsequence(String term, int minLength) {
+        return findByCommonSubsequence(term, minLength, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Find and return all terms within the dictionary of no more than
+     * maxLength characters having a common subsequence of at least minLength
+     * characters with the provided term, as calculated by
+     * {@link net.digitaltsunami.word.sequence.Sequence#getLongestCommonSubsequenceLength(String, String)}
+     * . The results will be ordered by the length of the longest common
+     * subsequence descending, with terms of equal length in dictionary order.
+     * <p>
+     * The trie is traversed once, carrying one row of the longest common
+     * subsequence matrix per depth. As the row for a node is shared by all
+     * terms beginning with the characters from the root to that node, it is
+     * computed only once for all of them. A subtree is not visited if no term
+     * within it can reach minLength: the longest subsequence of a term
+     * beginning with the node's prefix is at most, for some position j within
+     * the query term, the length for the prefix and the first j characters
+     * plus the lesser of the characters after j and the characters the term
+     * may have after the prefix. With a maximum length of
+     * {@link Integer#MAX_VALUE} the bound is never below the length of the
+     * term, so no subtree is skipped.
+     * 
+     * @param term
+     *            Term with which the subsequences are compared.
+     * @param minLength
+     *            Minimum length of the longest common subsequence of matching
+     *            terms.
+     * @param maxLength
+     *            Maximum length of matching terms.
+     * @return A list of all matching terms. If no terms found, an empty list
+     *         will be returned.
+     */
+    public Collection<String> findByCommonSubsequence(String term, int minLength, int maxLength) {
+        char[] lcTerm = term.toLowerCase().toCharArray();
+        minLength = Math.max(minLength, 0);
+        if (minLength > lcTerm.length || minLength > maxLength) {
+            return Collections.emptyList();
+        }
+        /*
+         * Matches are collected by subsequence length, allowing them to be
+         * returned in order of length without a sort.
+         */
+        List<List<String>> matchesByLength = new ArrayList<List<String>>();
+        for (int i = minLength; i <= lcTerm.length; i++) {
+            matchesByLength.add(new ArrayList<String>());
+        }
+        // First row represents the subsequences of an empty prefix.
+        List<int[]> rows = new ArrayList<int[]>();
+        rows.add(new int[lcTerm.length + 1]);
+        findByCommonSubsequence(matchesByLength, lcTerm, minLength, maxLength, root, rows, 1,
+                new StringBuilder());
+
+        List<String> matches = new ArrayList<String>();
+        for (int i = matchesByLength.size() - 1; i >= 0; i--) {
+            matches.addAll(matchesByLength.get(i));
+        }
+        return matches;
+    }
+
+    /**
+     * Recursive method to compute the longest common subsequence row for each
+     * child of the provided node and descend into those children that may
+     * still lead to a term with a subsequence of at least minLength.
+     * 
+     * @param matchesByLength
+     *            Location to store all matching results, indexed by
+     *            subsequence length less minLength.
+     * @param term
+     *            Term with which the subsequences are compared.
+     * @param minLength
+     *            Minimum subsequence length for matching terms.
+     * @param maxLength
+     *            Maximum length of matching terms.
+     * @param node
+     *            current node whose children will be examined.
+     * @param rows
+     *            subsequence rows for each depth, reused across subtrees. The
+     *            row for the current node is at depth - 1.
+     * @param depth
+     *            depth of the children of the current node.
+     * @param termBuff
+     *            characters from the root to the current node.
+     */
+    private void findByCommonSubsequence(List<List<String>> matchesByLength, char[] term,
+            int minLength, int maxLength, CharTrieNode node, List<int[]> rows, int depth,
+            StringBuilder termBuff) {
+        if (depth > maxLength) {
+            return;
+        }
+        int nCols = term.length + 1;
+        if (rows.size() == depth) {
+            rows.add(new int[nCols]);
+        }
+        int[] prevRow = rows.get(depth - 1);
+        int[] row = rows.get(depth);
+        // Characters a term may have after those of the child.
+        int remaining = maxLength - depth;
+        for (CharTrieNode child : node) {
+            char value = child.getValue();
+            row[0] = 0;
+            int bound = Math.min(term.length, remaining);
+            for (int c = 1; c < nCols; c++) {
+                if (term[c - 1] == value) {
+                    row[c] = prevRow[c - 1] + 1;
+                } else {
+                    row[c] = Math.max(prevRow[c], row[c - 1]);
+                }
+                bound = Math.max(bound, row[c] + Math.min(term.length - c, remaining));
+            }
+            if (bound < minLength) {
+                // No term within this subtree can reach the length.
+                continue;
+            }
+            termBuff.setLength(depth - 1);
+            termBuff.append(value);
+            int length = row[nCols - 1];
+            if (child.isTerminus() && length >= minLength) {
+                matchesByLength.get(length - minLength).add(termBuff.toString());
+            }
+            findByCommonSubsequence(matchesByLength, term, minLength, maxLength, child, rows,
+                    depth + 1, termBuff);
+        }
+    }
+
     /**
      * Return all terms within this dictionary.
      * 
@@ -508,6 +1143,311 @@ public class CharTrie {
         return findChildSequence(root, sequence);
     }
 
+    /**
+     * Create a compact, read-only copy of this dictionary. The copy supports
+     * the same queries as this dictionary, but stores all nodes within a
+     * double-array trie rather than as linked node objects. Subsequent changes
+     * to this dictionary will not be reflected in the copy.
+     * 
+     * @return a compact, read-only copy of this dictionary.
+     * @see CompactCharTrie
+     */
+    public CompactCharTrie freeze() {
+        return CompactCharTrie.from(this);
+    }
+
+    /**
+     * Write the nodes of this dictionary to the provided stream. The nodes are
+     * written in preorder, each as a record containing the character value, a
+     * flags byte marking terminus nodes and the number of children. Child
+     * counts are written as variable length integers, so most records take
+     * four bytes. The records are preceded by a header identifying the stream
+     * and followed by the number of terms written.
+     * <p>
+     * Subclasses holding data for each term, such as the scores of a
+     * {@link ScoredCharTrie}, write it following each terminus record using
+     * {@link #writeTermData(DataOutput, CharTrieTerminusNode)}. A stream
+     * containing term data can only be read by a dictionary of the same type.
+     * <p>
+     * Terms should not be added while the dictionary is being written. The
+     * stream will be flushed, but not closed.
+     * 
+     * @param out
+     *            stream to which the nodes will be written.
+     * @throws IOException
+     *             if the nodes could not be written.
+     * @see #readFrom(InputStream)
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(STREAM_MAGIC);
+        data.writeInt(STREAM_VERSION);
+        writeChildCount(data, root);
+
+        // Explicit stack of child iterators as terms may be deeper than the
+        // call stack allows.
+        boolean termData = hasTermData();
+        int termCount = 0;
+        List<Iterator<CharTrieNode>> stack = new ArrayList<Iterator<CharTrieNode>>();
+        stack.add(root.iterator());
+        while (!stack.isEmpty()) {
+            Iterator<CharTrieNode> children = stack.get(stack.size() - 1);
+            if (children.hasNext()) {
+                CharTrieNode child = children.next();
+                data.writeChar(child.getValue());
+                if (child.isTerminus()) {
+                    data.writeByte(termData ? TERMINUS_FLAG | TERM_DATA_FLAG : TERMINUS_FLAG);
+                    termCount++;
+                } else {
+                    data.writeByte(0);
+                }
+                writeChildCount(data, child);
+                if (termData && child.isTerminus()) {
+                    writeTermData(data, (CharTrieTerminusNode) child);
+                }
+                stack.add(child.iterator());
+            } else {
+                stack.remove(stack.size() - 1);
+            }
+        }
+        data.writeInt(termCount);
+        data.flush();
+    }
+
+    /**
+     * Add the nodes within the provided stream, as written by
+     * {@link #writeTo(OutputStream)}, to this dictionary. Nodes are created
+     * directly through the {@link CharTrieNodeFactory} for this dictionary,
+     * each beneath the node read before it, so terms are neither filtered nor
+     * located from the root. Nodes that already exist within this dictionary
+     * are reused, so the stream may be read into a dictionary that contains
+     * other terms.
+     * <p>
+     * Node added events are dispatched for each node created and terminus node
+     * added events for each term that was not previously within this
+     * dictionary. Term added events are dispatched for each term read, in
+     * batches as described by {@link #addTerms(Iterable)}. Term data, such as the scores of a {@link ScoredCharTrie},
+     * replaces that of terms already within this dictionary.
+     * <p>
+     * The stream is buffered and may be read beyond the end of the nodes. It
+     * will not be closed.
+     * 
+     * @param in
+     *            stream from which the nodes will be read.
+     * @throws IOException
+     *             if the stream could not be read, does not contain nodes
+     *             written by {@link #writeTo(OutputStream)} or contains term
+     *             data this dictionary does not support. Nodes read prior
+     *             to the error will remain within this dictionary.
+     */
+    public void readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != STREAM_MAGIC) {
+            throw new IOException("Not a trie stream");
+        }
+        int version = data.readInt();
+        if (version != STREAM_VERSION) {
+            throw new IOException("Unsupported trie stream version " + version);
+        }
+
+        // Parallel stacks of the nodes being filled and the number of their
+        // children remaining to be read.
+        int termCount = 0;
+        // Nodes created since the prior term, which in preorder are those
+        // created for the current term.
+        int newNodeCount = 0;
+        List<TermAddedEvent> batch = createTermBatch();
+        List<CharTrieNode> nodes = new ArrayList<CharTrieNode>();
+        int[] remaining = new int[16];
+        nodes.add(root);
+        remaining[0] = readChildCount(data);
+        while (!nodes.isEmpty()) {
+            int top = nodes.size() - 1;
+            if (remaining[top] == 0) {
+                nodes.remove(top);
+                continue;
+            }
+            remaining[top]--;
+            CharTrieNode parent = nodes.get(top);
+            char value = data.readChar();
+            int flags = data.readUnsignedByte();
+            if ((flags & ~(TERMINUS_FLAG | TERM_DATA_FLAG)) != 0
+                    || flags == TERM_DATA_FLAG) {
+                throw new IOException("Trie stream is corrupt: invalid node flags " + flags);
+            }
+            if ((flags & TERM_DATA_FLAG) != 0 && !hasTermData()) {
+                throw new IOException("Trie stream contains term data not supported by "
+                        + getClass().getSimpleName());
+            }
+            int childCount = readChildCount(data);
+
+            boolean terminus = (flags & TERMINUS_FLAG) != 0;
+            CharTrieNode node = parent.getChild(value);
+            int added = 0;
+            if (node == null || (terminus && !node.isTerminus())) {
+                added = addReadNode(parent, value, terminus);
+                node = parent.getChild(value);
+                if ((added & NODE_CREATED) != 0) {
+                    newNodeCount++;
+                }
+                if ((added & TERM_CREATED) != 0) {
+                    listenerList.dispatchTerminusNodeAddedEvent((CharTrieTerminusNode) node);
+                    incrementWordCount();
+                } else if ((added & NODE_CREATED) != 0 && !terminus) {
+                    listenerList.dispatchNodeAddedEvent(node);
+                }
+            }
+            if (terminus) {
+                termCount++;
+                if ((flags & TERM_DATA_FLAG) != 0) {
+                    readTermData(data, (CharTrieTerminusNode) node);
+                }
+                dispatchTermAddedEvent((CharTrieTerminusNode) node, newNodeCount,
+                        (added & TERM_CREATED) != 0, batch);
+                newNodeCount = 0;
+                batch = dispatchTermBatch(batch, TERM_BATCH_SIZE);
+            }
+
+            if (remaining.length == nodes.size()) {
+                remaining = Arrays.copyOf(remaining, remaining.length * 2);
+            }
+            remaining[nodes.size()] = childCount;
+            nodes.add(node);
+        }
+        dispatchTermBatch(batch, 1);
+        int expectedCount = data.readInt();
+        if (expectedCount != termCount) {
+            throw new IOException("Trie stream is corrupt: expected " + expectedCount
+                    + " terms, read " + termCount);
+        }
+    }
+
+    /**
+     * Return true if this dictionary holds data for each term that must be
+     * written following each terminus record by {@link #writeTo(OutputStream)}.
+     * 
+     * @return false, as this dictionary holds no term data.
+     */
+    protected boolean hasTermData() {
+        return false;
+    }
+
+    /**
+     * Write the data held for the term ending at the provided node. Only
+     * called if {@link #hasTermData()} returns true.
+     * 
+     * @param out
+     *            stream to which the data will be written.
+     * @param node
+     *            terminus node of the term.
+     * @throws IOException
+     *             if the data could not be written.
+     */
+    protected void writeTermData(DataOutput out, CharTrieTerminusNode node) throws IOException {
+    }
+
+    /**
+     * Read the data written by
+     * {@link #writeTermData(DataOutput, CharTrieTerminusNode)} for the term
+     * ending at the provided node. Only called if {@link #hasTermData()}
+     * returns true.
+     * 
+     * @param in
+     *            stream from which the data will be read.
+     * @param node
+     *            terminus node of the term.
+     * @throws IOException
+     *             if the data could not be read.
+     */
+    protected void readTermData(DataInput in, CharTrieTerminusNode node) throws IOException {
+    }
+
+    /**
+     * Add the node of a record read by {@link #readFrom(InputStream)} beneath
+     * the provided parent, creating the child if the parent has none with the
+     * value and marking it as a terminus if required. Events are dispatched by
+     * the caller.
+     * 
+     * @param parent
+     *            node beneath which the node is added.
+     * @param value
+     *            character value of the node.
+     * @param terminus
+     *            true if the node ends a term.
+     * @return {@link #NODE_CREATED} if the node was created, combined with
+     *         {@link #TERM_CREATED} if it was made a terminus by this call.
+     */
+    protected int addReadNode(CharTrieNode parent, char value, boolean terminus) {
+        CharTrieNode node = parent.getChild(value);
+        if (node == null) {
+            if (terminus) {
+                nodeFactory.addChildTerminus(parent, value);
+                return NODE_CREATED | TERM_CREATED;
+            }
+            nodeFactory.addChild(parent, value);
+            return NODE_CREATED;
+        }
+        if (terminus && !node.isTerminus()) {
+            nodeFactory.convertToTerminus(node);
+            return TERM_CREATED;
+        }
+        return 0;
+    }
+
+    /**
+     * Write the number of children of the provided node as a variable length
+     * integer, seven bits per byte with the high bit set on all but the last.
+     */
+    private static void writeChildCount(DataOutputStream data, CharTrieNode node)
+            throws IOException {
+        int count = 0;
+        for (Iterator<CharTrieNode> it = node.iterator(); it.hasNext(); it.next()) {
+            count++;
+        }
+        while ((count & ~0x7F) != 0) {
+            data.writeByte((count & 0x7F) | 0x80);
+            count >>>= 7;
+        }
+        data.writeByte(count);
+    }
+
+    /**
+     * Read a child count written by
+     * {@link #writeChildCount(DataOutputStream, CharTrieNode)}.
+     */
+    private static int readChildCount(DataInputStream data) throws IOException {
+        int count = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = data.readUnsignedByte();
+            count |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (count < 0) {
+                    break;
+                }
+                return count;
+            }
+        }
+        throw new IOException("Trie stream is corrupt: invalid child count");
+    }
+
+    /**
+     * Return the root node of this dictionary.
+     * 
+     * @return the root node of this dictionary.
+     */
+    protected CharTrieNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Return the list of listeners notified as characters and nodes are added.
+     * 
+     * @return the list of listeners for this dictionary.
+     */
+    protected NodeEventListenerList getListenerList() {
+        return listenerList;
+    }
+
     /**
      * Return the number of unique entry terms.
      * 
@@ -517,6 +1457,68 @@ public class CharTrie {
         return wordCount;
     }
 
+    /**
+     * Increment the number of unique terms within this dictionary. Invoked
+     * each time a term not previously within the dictionary is added.
+     */
+    protected void incrementWordCount() {
+        wordCount++;
+    }
+
+    /**
+     * Deliver events to the listeners of this dictionary from a dedicated
+     * thread rather than from the thread adding the terms, so that the time
+     * to add terms does not depend on the cost of the listeners. Events are
+     * recorded in a buffer of the provided capacity and delivered in order.
+     * See {@link AsyncNodeEventListenerList} for the delivery of events.
+     * <p>
+     * Must not be invoked while terms are being added. Has no effect if events
+     * are already dispatched asynchronously.
+     * 
+     * @param capacity
+     *            maximum number of events waiting for delivery.
+     * @param policy
+     *            action taken when an event is dispatched while the buffer is
+     *            full.
+     */
+    public void enableAsyncEventDispatch(int capacity, OverflowPolicy policy) {
+        if (!(listenerList instanceof AsyncNodeEventListenerList)) {
+            listenerList = new AsyncNodeEventListenerList(listenerList, capacity, policy);
+        }
+    }
+
+    /**
+     * Deliver all events waiting for delivery and return to delivering events
+     * on the thread adding the terms. Has no effect if events are not
+     * dispatched asynchronously.
+     * <p>
+     * Must not be invoked while terms are being added.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the events to be delivered.
+     */
+    public void disableAsyncEventDispatch() throws InterruptedException {
+        if (listenerList instanceof AsyncNodeEventListenerList) {
+            AsyncNodeEventListenerList asyncList = (AsyncNodeEventListenerList) listenerList;
+            asyncList.shutdown();
+            listenerList = asyncList.getDelegate();
+        }
+    }
+
+    /**
+     * Wait until all events for the terms added prior to this call have been
+     * delivered. Returns immediately if events are not dispatched
+     * asynchronously.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the events to be delivered.
+     */
+    public void flushEvents() throws InterruptedException {
+        if (listenerList instanceof AsyncNodeEventListenerList) {
+            ((AsyncNodeEventListenerList) listenerList).flush();
+        }
+    }
+
     /**
      * Add a listener for events fired as each character is added.
      * <p>
@@ -631,6 +1633,36 @@ public class CharTrie {
         listenerList.removeTerminusNodeAddedListener(listener);
     }
 
+    /**
+     * Add a listener for events fired once for each term that is added.
+     * <p>
+     * Listeners on this event will be notified for each term that is added
+     * to the dictionary regardless of prior status, with the terminus node,
+     * the number of nodes created and whether or not the term is new. Terms
+     * added through {@link #addTerm(String)} are delivered through
+     * {@link TermAddedListener#termAdded(TermAddedEvent)} and those added
+     * through {@link #addTerms(Iterable)} or
+     * {@link #addSortedTerms(Iterator)} are delivered in batches through
+     * {@link TermAddedListener#termsAdded(List)}.
+     * <p>
+     * Unlike the character and node events, no event objects are created for
+     * the individual characters, so listeners interested only in terms
+     * should prefer this event.
+     * 
+     * @param listener
+     *            interested when a term is added.
+     */
+    public void addTermAddedListener(TermAddedListener listener) {
+        listenerList.addTermAddedListener(listener);
+    }
+
+    /**
+     * Remove the specified listener for events fired when a term is added.
+     */
+    public void removeTermAddedListener(TermAddedListener listener) {
+        listenerList.removeTermAddedListener(listener);
+    }
+
     /**
      * Sets the pattern search strategy to use for this dictionary. The strategy
      * must implement {@link PatternSearchStrategy}.
@@ -731,4 +1763,89 @@ public class CharTrie {
             findAllTermsOfLength(minLength, maxLength, list, pos + 1, child);
         }
     }
+
+    /**
+     * Iterates over the terms beneath a node, descending the trie as the
+     * iterator is advanced. The stack holds an iterator over the children of
+     * each node from the starting node to the current node.
+     * 
+     * @author dhagberg
+     * 
+     */
+    private static class TermIterator implements Iterator<String> {
+        private final List<Iterator<CharTrieNode>> stack = new ArrayList<Iterator<CharTrieNode>>();
+        private final StringBuilder termBuff;
+        private final int prefixLen;
+        private String next;
+
+        /**
+         * Create an iterator over the terms beneath the provided node.
+         * 
+         * @param start
+         *            node at which the iteration will begin or null if there
+         *            are no matching terms.
+         * @param prefix
+         *            characters from the root to the starting node.
+         */
+        private TermIterator(CharTrieNode start, String prefix) {
+            termBuff = new StringBuilder(prefix);
+            prefixLen = prefix.length();
+            if (start != null) {
+                if (start.isTerminus()) {
+                    next = prefix;
+                }
+                stack.add(start.iterator());
+                if (next == null) {
+                    advance();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            String term = next;
+            next = null;
+            advance();
+            return term;
+        }
+
+        /**
+         * Descend the trie until the next terminus node is found or all nodes
+         * have been visited.
+         */
+        private void advance() {
+            while (!stack.isEmpty()) {
+                int depth = stack.size();
+                Iterator<CharTrieNode> children = stack.get(depth - 1);
+                if (children.hasNext()) {
+                    CharTrieNode child = children.next();
+                    termBuff.setLength(prefixLen + depth - 1);
+                    termBuff.append(child.getValue());
+                    stack.add(child.iterator());
+                    if (child.isTerminus()) {
+                        next = termBuff.toString();
+                        return;
+                    }
+                } else {
+                    stack.remove(depth - 1);
+                }
+            }
+        }
+
+        /**
+         * Remove is not supported.
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove not supported");
+        }
+    }
 }
@@ -0,0 +1,269 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * Read-only dictionary of terms stored as a double-array trie held on the
+ * heap. Instances are created from a populated {@link CharTrie} using
+ * {@link #from(CharTrie)} or {@link CharTrie#freeze()} and support the same
+ * query operations as the source dictionary.
+ * <p>
+ * This provides constant time child transitions and eliminates the per-node
+ * objects of the linked representation. See {@link DoubleArrayCharTrie} for a
+ * description of the structure. As with {@link CharTrie}, all queries are case
+ * insensitive.
+ *
+ * @author dhagberg
+ *
+ */
+public class CompactCharTrie extends DoubleArrayCharTrie {
+    /** Offsets from which the children of each state are located. */
+    private final int[] base;
+    /** Parent state for each state or {@link #EMPTY} if unused. */
+    private final int[] check;
+    /** Bit set of terminus states. */
+    private final long[] terminus;
+    /** Character for each code. Code n is stored at index n - 1. */
+    private final char[] alphabet;
+    /** Code for each character indexed by character value, 0 if not present. */
+    private final int[] codes;
+
+    /**
+     * Create a compact dictionary from the provided arrays. Used by the
+     * builder.
+     */
+    private CompactCharTrie(int[] base, int[] check, long[] terminus, char[] alphabet,
+            int[] codes, int wordCount, char wildcardChar) {
+        super(wordCount, wildcardChar);
+        this.base = base;
+        this.check = check;
+        this.terminus = terminus;
+        this.alphabet = alphabet;
+        this.codes = codes;
+    }
+
+    /**
+     * Create a compact, read-only copy of the provided dictionary. The source
+     * dictionary is not modified and may continue to be used, but subsequent
+     * changes to it will not be reflected in the returned copy.
+     *
+     * @param trie
+     *            populated dictionary to convert.
+     * @return a compact copy of the provided dictionary.
+     */
+    public static CompactCharTrie from(CharTrie trie) {
+        return new Builder(trie).build();
+    }
+
+    @Override
+    protected int getBase(int state) {
+        return base[state];
+    }
+
+    @Override
+    protected int getCheck(int state) {
+        return check[state];
+    }
+
+    @Override
+    protected boolean isTerminus(int state) {
+        return (terminus[state >>> 6] & (1L << state)) != 0;
+    }
+
+    @Override
+    public int getCapacity() {
+        return base.length;
+    }
+
+    @Override
+    protected int getCode(char value) {
+        return value < codes.length ? codes[value] : 0;
+    }
+
+    @Override
+    protected int getCodesLength() {
+        return codes.length;
+    }
+
+    @Override
+    protected char getCodeValue(int code) {
+        return alphabet[code - 1];
+    }
+
+    @Override
+    protected int getAlphabetSize() {
+        return alphabet.length;
+    }
+
+    @Override
+    protected long getTerminusBits(int index) {
+        return terminus[index];
+    }
+
+    /**
+     * Converts the linked nodes of a {@link CharTrie} into the base and check
+     * arrays. Nodes are placed breadth first, with the base for each node
+     * being the first offset at which all of its children fit into unused
+     * states.
+     *
+     * @author dhagberg
+     *
+     */
+    private static class Builder {
+        private final CharTrie trie;
+        private int[] base;
+        private int[] check;
+        private long[] terminus;
+        private char[] alphabet;
+        private int[] codes;
+        /** Highest state index assigned. */
+        private int maxState;
+        /** Position from which the search for unused states begins. */
+        private int nextCheckPos = 1;
+
+        private Builder(CharTrie trie) {
+            this.trie = trie;
+        }
+
+        private CompactCharTrie build() {
+            CharTrieNode root = trie.getRoot();
+            buildAlphabet(root);
+
+            int initialSize = Math.max(64, trie.getWordCount() * 2);
+            base = new int[initialSize];
+            check = new int[initialSize];
+            terminus = new long[(initialSize >>> 6) + 1];
+            Arrays.fill(check, EMPTY);
+            check[ROOT_STATE] = ROOT_STATE;
+
+            Queue<CharTrieNode> nodes = new LinkedList<CharTrieNode>();
+            Queue<Integer> states = new LinkedList<Integer>();
+            nodes.add(root);
+            states.add(ROOT_STATE);
+            int[] childCodes = new int[alphabet.length];
+            CharTrieNode[] children = new CharTrieNode[alphabet.length];
+            while (!nodes.isEmpty()) {
+                CharTrieNode node = nodes.poll();
+                int state = states.poll();
+                int childCount = 0;
+                for (CharTrieNode child : node) {
+                    childCodes[childCount] = codes[child.getValue()];
+                    children[childCount] = child;
+                    childCount++;
+                }
+                if (childCount == 0) {
+                    base[state] = LEAF;
+                    continue;
+                }
+                int stateBase = findBase(childCodes, childCount);
+                base[state] = stateBase;
+                for (int i = 0; i < childCount; i++) {
+                    int childState = stateBase + childCodes[i];
+                    check[childState] = state;
+                    maxState = Math.max(maxState, childState);
+                    if (children[i].isTerminus()) {
+                        terminus[childState >>> 6] |= 1L << childState;
+                    }
+                    nodes.add(children[i]);
+                    states.add(childState);
+                }
+            }
+
+            int size = maxState + 1;
+            return new CompactCharTrie(Arrays.copyOf(base, size), Arrays.copyOf(check, size),
+                    Arrays.copyOf(terminus, (size >>> 6) + 1), alphabet, codes,
+                    trie.getWordCount(), trie.getWildcardChar());
+        }
+
+        /**
+         * Collect all characters within the trie and assign codes in
+         * ascending order of character value.
+         */
+        private void buildAlphabet(CharTrieNode root) {
+            boolean[] present = new boolean[Character.MAX_VALUE + 1];
+            int maxChar = 0;
+            int count = 0;
+            Queue<CharTrieNode> nodes = new LinkedList<CharTrieNode>();
+            nodes.add(root);
+            while (!nodes.isEmpty()) {
+                for (CharTrieNode child : nodes.poll()) {
+                    char value = child.getValue();
+                    if (!present[value]) {
+                        present[value] = true;
+                        maxChar = Math.max(maxChar, value);
+                        count++;
+                    }
+                    nodes.add(child);
+                }
+            }
+            alphabet = new char[count];
+            codes = new int[maxChar + 1];
+            int code = 0;
+            for (int c = 0; c <= maxChar; c++) {
+                if (present[c]) {
+                    alphabet[code] = (char) c;
+                    code++;
+                    codes[c] = code;
+                }
+            }
+        }
+
+        /**
+         * Find the first base value for which all of the provided codes map
+         * to unused states. The arrays will be expanded as needed.
+         */
+        private int findBase(int[] childCodes, int childCount) {
+            int minCode = childCodes[0];
+            for (int i = 1; i < childCount; i++) {
+                minCode = Math.min(minCode, childCodes[i]);
+            }
+            int pos = Math.max(nextCheckPos, minCode + 1);
+            // Only positions scanned from nextCheckPos are known to be in use.
+            boolean firstUnused = pos == nextCheckPos;
+            while (true) {
+                ensureCapacity(pos + alphabet.length + 1);
+                if (check[pos] != EMPTY) {
+                    pos++;
+                    continue;
+                }
+                if (firstUnused) {
+                    // Nothing before this position is available for placement.
+                    nextCheckPos = pos;
+                    firstUnused = false;
+                }
+                int candidate = pos - minCode;
+                boolean fits = true;
+                for (int i = 0; i < childCount; i++) {
+                    if (check[candidate + childCodes[i]] != EMPTY) {
+                        fits = false;
+                        break;
+                    }
+                }
+                if (fits) {
+                    return candidate;
+                }
+                pos++;
+            }
+        }
+
+        /**
+         * Grow the arrays so that the provided index is valid.
+         */
+        private void ensureCapacity(int index) {
+            if (index < check.length) {
+                return;
+            }
+            int oldSize = check.length;
+            int newSize = Math.max(index + 1, oldSize * 2);
+            base = Arrays.copyOf(base, newSize);
+            check = Arrays.copyOf(check, newSize);
+            Arrays.fill(check, oldSize, newSize, EMPTY);
+            terminus = Arrays.copyOf(terminus, (newSize >>> 6) + 1);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.digitaltsunami.word.trie.event.NodeEventListenerList;
+import net.digitaltsunami.word.trie.event.TermAddedEvent;
+import net.digitaltsunami.word.trie.filter.CharFilter;
+import net.digitaltsunami.word.trie.filter.TermFilter;
+
+/**
+ * A dictionary of terms stored using a Trie structure that allows terms to be
+ * added from multiple threads while other threads query the dictionary.
+ * <p>
+ * Nodes are created as {@link ConcurrentCharTrieNode} instances, which insert
+ * children without locking. Readers never block and observe each term either
+ * before or after it has been added. The count of unique terms is kept in a
+ * set of striped counters so that threads adding terms do not contend on a
+ * single value.
+ * <p>
+ * Events are dispatched on the thread adding the term; listeners must be
+ * thread safe if terms are added from multiple threads. Terms may also be read
+ * using {@link #readFrom(java.io.InputStream)} while other threads add terms.
+ *
+ * @author dhagberg
+ *
+ */
+public class ConcurrentCharTrie extends CharTrie {
+    /** Number of counters; must be a power of 2. */
+    private static final int STRIPES = 16;
+    /** Distance between counters in use, keeping each on its own cache line. */
+    private static final int STRIPE_PADDING = 8;
+
+    /** Count of unique terms added by the threads mapped to each stripe. */
+    private final AtomicLongArray wordCounts = new AtomicLongArray(STRIPES * STRIPE_PADDING);
+
+    /**
+     * Create a default dictionary. All terms will be added without any
+     * filtering applied.
+     */
+    public ConcurrentCharTrie() {
+        this(null, null);
+    }
+
+    /**
+     * Create a dictionary using the provided term and character filters. All
+     * terms added to this dictionary will be passed through these filters prior
+     * to being added. The term filter will be applied first, followed by the
+     * character filter. The filters must be thread safe.
+     *
+     * @param charFilter
+     * @param termFilter
+     */
+    public ConcurrentCharTrie(CharFilter charFilter, TermFilter termFilter) {
+        super(charFilter, termFilter, new ConcurrentCharTrieNodeFactory());
+    }
+
+    /**
+     * Add a term to the dictionary. See {@link CharTrie#addTerm(String)} for
+     * the processing applied to the term. This method may be invoked from
+     * multiple threads concurrently. If several threads add the same new term,
+     * it will be counted once and the terminus node added event will be
+     * dispatched by only one of them. Likewise, only one of them will report
+     * the term as new through the term added event.
+     *
+     * @param term
+     *            A string of characters to add.
+     * @param batch
+     *            term added events awaiting dispatch or null to dispatch the
+     *            event for this term immediately.
+     * @return the terminus node for the term or null if the filters excluded
+     *         the term.
+     */
+    @Override
+    protected CharTrieTerminusNode insertTerm(String term, List<TermAddedEvent> batch) {
+        char[] termArray = prepareTerm(term);
+        if (termArray == null) {
+            // Filters decided to skip this entry, just return.
+            return null;
+        }
+        NodeEventListenerList listenerList = getListenerList();
+        int lenUpToTerminus = termArray.length - 1;
+        ConcurrentCharTrieNode currentNode = (ConcurrentCharTrieNode) getRoot();
+        int newNodeCount = 0;
+        for (int termPos = 0; termPos < termArray.length; termPos++) {
+            ConcurrentCharTrieNode node = (ConcurrentCharTrieNode) currentNode
+                    .getChild(termArray[termPos]);
+            boolean created = false;
+            if (node == null) {
+                ConcurrentCharTrieNode candidate = new ConcurrentCharTrieNode(currentNode,
+                        termArray[termPos]);
+                node = currentNode.insertChild(candidate);
+                created = node == candidate;
+                if (created) {
+                    newNodeCount++;
+                }
+            }
+            currentNode = node;
+
+            if (termPos < lenUpToTerminus) {
+                if (created) {
+                    listenerList.dispatchNodeAddedEvent(node);
+                } else {
+                    listenerList.dispatchCharacterAddedEvent(node);
+                }
+            }
+        }
+
+        if (currentNode.markTerminus()) {
+            incrementWordCount();
+            listenerList.dispatchTerminusNodeAddedEvent(currentNode);
+            dispatchTermAddedEvent(currentNode, newNodeCount, true, batch);
+        } else {
+            listenerList.dispatchTerminusCharacterAddedEvent(currentNode);
+            dispatchTermAddedEvent(currentNode, newNodeCount, false, batch);
+        }
+        return currentNode;
+    }
+
+    /**
+     * Add each of the provided terms to the dictionary. The nodes of the prior
+     * term cannot be reused as other threads may add nodes among them, so each
+     * term is added as described by {@link #addTerm(String)}. Term added
+     * events are delivered in batches as described by
+     * {@link #addTerms(Iterable)}.
+     *
+     * @param terms
+     *            terms to add.
+     */
+    @Override
+    public void addSortedTerms(Iterator<String> terms) {
+        insertTerms(terms);
+    }
+
+    /**
+     * Add the node of a record read by {@link #readFrom(java.io.InputStream)}.
+     * As with {@link #addTerm(String)}, the node is inserted and marked as a
+     * terminus atomically, so a term read while another thread adds the same
+     * term is counted once and reported as created by only one of them.
+     *
+     * @param parent
+     *            node beneath which the node is added.
+     * @param value
+     *            character value of the node.
+     * @param terminus
+     *            true if the node ends a term.
+     * @return {@link #NODE_CREATED} if the node was created, combined with
+     *         {@link #TERM_CREATED} if it was made a terminus by this call.
+     */
+    @Override
+    protected int addReadNode(CharTrieNode parent, char value, boolean terminus) {
+        ConcurrentCharTrieNode parentNode = (ConcurrentCharTrieNode) parent;
+        ConcurrentCharTrieNode node = (ConcurrentCharTrieNode) parentNode.getChild(value);
+        int added = 0;
+        if (node == null) {
+            ConcurrentCharTrieNode candidate = new ConcurrentCharTrieNode(parentNode, value);
+            node = parentNode.insertChild(candidate);
+            if (node == candidate) {
+                added = NODE_CREATED;
+            }
+        }
+        if (terminus && node.markTerminus()) {
+            added |= TERM_CREATED;
+        }
+        return added;
+    }
+
+    /**
+     * Return the number of unique entry terms. Terms being added while the
+     * count is taken may or may not be included.
+     *
+     * @return the number of unique terms within this dictionary.
+     */
+    @Override
+    public int getWordCount() {
+        long count = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            count += wordCounts.get(i * STRIPE_PADDING);
+        }
+        return (int) count;
+    }
+
+    /**
+     * Increment the counter assigned to the current thread.
+     */
+    @Override
+    protected void incrementWordCount() {
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        wordCounts.incrementAndGet(stripe * STRIPE_PADDING);
+    }
+}
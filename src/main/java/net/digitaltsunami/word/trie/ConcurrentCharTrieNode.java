@@ -0,0 +1,264 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Thread safe container for a character providing links to the next sibling,
+ * parent, and first child. Children are kept in lexicographic order.
+ * <p>
+ * Nodes are never removed, so a child is inserted by a single compare and set
+ * on the link that should precede it: the first child link of the parent or
+ * the next sibling link of the prior sibling. If another thread changed that
+ * link first, the insertion point is searched for again. Readers follow the
+ * links without locking and will see either the list before or after any
+ * insertion.
+ * <p>
+ * Marking a node as a terminus is also done using compare and set, allowing
+ * exactly one of several threads adding the same term to determine that it
+ * added a new term.
+ *
+ * @author dhagberg
+ *
+ */
+public class ConcurrentCharTrieNode implements CharTrieTerminusNode {
+    private static final AtomicReferenceFieldUpdater<ConcurrentCharTrieNode, ConcurrentCharTrieNode> FIRST_CHILD = AtomicReferenceFieldUpdater
+            .newUpdater(ConcurrentCharTrieNode.class, ConcurrentCharTrieNode.class, "firstChild");
+    private static final AtomicReferenceFieldUpdater<ConcurrentCharTrieNode, ConcurrentCharTrieNode> NEXT_SIBLING = AtomicReferenceFieldUpdater
+            .newUpdater(ConcurrentCharTrieNode.class, ConcurrentCharTrieNode.class, "nextSibling");
+    private static final AtomicIntegerFieldUpdater<ConcurrentCharTrieNode> TERMINUS = AtomicIntegerFieldUpdater
+            .newUpdater(ConcurrentCharTrieNode.class, "terminus");
+
+    private final char value;
+    private final ConcurrentCharTrieNode parent;
+    private final boolean root;
+    private volatile ConcurrentCharTrieNode firstChild;
+    private volatile ConcurrentCharTrieNode nextSibling;
+    /** 1 if this node is a terminus, otherwise 0. */
+    private volatile int terminus;
+
+    /**
+     * Create new Node with the provided value as a child of the provided
+     * parent. The node is not linked into the children of the parent.
+     *
+     * @param parent
+     * @param value
+     */
+    protected ConcurrentCharTrieNode(ConcurrentCharTrieNode parent, char value) {
+        this.parent = parent;
+        this.value = value;
+        this.root = false;
+    }
+
+    /**
+     * Create new stand-alone Node with the provided value.
+     *
+     * @param value
+     */
+    public ConcurrentCharTrieNode(char value) {
+        this(null, value);
+    }
+
+    /**
+     * Create new root node. This node will not contain a value.
+     *
+     * @param rootNode
+     */
+    public ConcurrentCharTrieNode(boolean rootNode) {
+        this.parent = null;
+        this.value = '\0';
+        this.root = rootNode;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.CharTrieNode#getChild(char)
+     */
+    @Override
+    public CharTrieNode getChild(char value) {
+        ConcurrentCharTrieNode sibling = firstChild;
+        while (sibling != null && sibling.value < value) {
+            sibling = sibling.nextSibling;
+        }
+        return sibling != null && sibling.value == value ? sibling : null;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.CharTrieNode#addChild(char)
+     */
+    @Override
+    public CharTrieNode addChild(char value) {
+        CharTrieNode child = getChild(value);
+        if (child != null) {
+            return child;
+        }
+        return insertChild(new ConcurrentCharTrieNode(this, value));
+    }
+
+    /**
+     * Link the provided node into the children of this node unless a child
+     * with the same value already exists. The candidate must have been created
+     * with this node as its parent.
+     *
+     * @param candidate
+     *            node to insert.
+     * @return the candidate if it was inserted, otherwise the existing child
+     *         with the same value.
+     */
+    protected ConcurrentCharTrieNode insertChild(ConcurrentCharTrieNode candidate) {
+        char candidateValue = candidate.value;
+        while (true) {
+            ConcurrentCharTrieNode prior = null;
+            ConcurrentCharTrieNode current = firstChild;
+            while (current != null && current.value < candidateValue) {
+                prior = current;
+                current = current.nextSibling;
+            }
+            if (current != null && current.value == candidateValue) {
+                // Added by another thread.
+                return current;
+            }
+            candidate.nextSibling = current;
+            boolean linked = prior == null ? FIRST_CHILD.compareAndSet(this, current, candidate)
+                    : NEXT_SIBLING.compareAndSet(prior, current, candidate);
+            if (linked) {
+                return candidate;
+            }
+            // Link changed by another thread; find the insertion point again.
+        }
+    }
+
+    /**
+     * Mark this node as the terminus in a sequence indicating a complete word
+     * from root to this node.
+     *
+     * @return true if this invocation marked the node, false if it was already
+     *         a terminus.
+     */
+    protected boolean markTerminus() {
+        return TERMINUS.compareAndSet(this, 0, 1);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.CharTrieNode#isTerminus()
+     */
+    @Override
+    public boolean isTerminus() {
+        return terminus == 1;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.CharTrieNode#isRoot()
+     */
+    @Override
+    public boolean isRoot() {
+        return root;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.CharTrieNode#getValue()
+     */
+    @Override
+    public char getValue() {
+        return value;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.CharTrieNode#getParent()
+     */
+    @Override
+    public CharTrieNode getParent() {
+        return parent;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.CharTrieTerminusNode#getTerm()
+     */
+    @Override
+    public String getTerm() {
+        StringBuilder term = new StringBuilder();
+        ConcurrentCharTrieNode currNode = this;
+        while (currNode.parent != null) {
+            term.append(currNode.value);
+            currNode = currNode.parent;
+        }
+        return term.reverse().toString();
+    }
+
+    /**
+     * Return an iterator over the children of this node. The iterator reflects
+     * the children at some point at or after its creation and will not throw
+     * an exception if children are added while iterating.
+     *
+     * @return an iterator over the children of this node.
+     */
+    @Override
+    public Iterator<CharTrieNode> iterator() {
+        return new ChildIterator(firstChild);
+    }
+
+    @Override
+    public String toString() {
+        ConcurrentCharTrieNode fc = firstChild;
+        ConcurrentCharTrieNode ns = nextSibling;
+        return "ConcurrentCharTrieNode [value=" + value + ", p="
+                + (parent == null ? "null" : parent.value) + ", fc="
+                + (fc == null ? "null" : fc.value) + ", r=" + (ns == null ? "null" : ns.value)
+                + ", terminus=" + isTerminus() + "]";
+    }
+
+    /**
+     * Iterates over the children for a node.
+     *
+     * @author dhagberg
+     *
+     */
+    private static class ChildIterator implements Iterator<CharTrieNode> {
+        private ConcurrentCharTrieNode next;
+
+        private ChildIterator(ConcurrentCharTrieNode first) {
+            this.next = first;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public CharTrieNode next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            ConcurrentCharTrieNode current = next;
+            next = current.nextSibling;
+            return current;
+        }
+
+        /**
+         * Remove is not supported.
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove not supported");
+        }
+    }
+}
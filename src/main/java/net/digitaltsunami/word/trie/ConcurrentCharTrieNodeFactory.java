@@ -0,0 +1,99 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+/**
+ * Implementation of the abstract factory {@link CharTrieNodeFactory} that
+ * creates instances of {@link ConcurrentCharTrieNode} for both the
+ * {@link CharTrieNode} and {@link CharTrieTerminusNode} interfaces. Nodes may be
+ * added from multiple threads while other threads are reading.
+ *
+ * @see ConcurrentCharTrie
+ * @author dhagberg
+ *
+ */
+public class ConcurrentCharTrieNodeFactory implements CharTrieNodeFactory {
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.CharTrieNodeFactory#createNode(char)
+     */
+    @Override
+    public CharTrieNode createNode(char c) {
+        return new ConcurrentCharTrieNode(c);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.CharTrieNodeFactory#createRootNode()
+     */
+    @Override
+    public CharTrieNode createRootNode() {
+        return new ConcurrentCharTrieNode(true);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.CharTrieNodeFactory#addChild(net.digitaltsunami
+     * .word.trie.CharTrieNode, char)
+     */
+    @Override
+    public CharTrieNode addChild(CharTrieNode parentNode, char c) {
+        return parentNode.addChild(c);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.CharTrieNodeFactory#addChildTerminus(net
+     * .digitaltsunami.word.trie.CharTrieNode, char)
+     */
+    @Override
+    public CharTrieTerminusNode addChildTerminus(CharTrieNode parentNode, char c) {
+        ConcurrentCharTrieNode newNode = (ConcurrentCharTrieNode) parentNode.addChild(c);
+        newNode.markTerminus();
+        return newNode;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.CharTrieNodeFactory#addChildTerminus(net
+     * .digitaltsunami.word.trie.CharTrieNode, char, java.lang.String)
+     */
+    @Override
+    public CharTrieTerminusNode addChildTerminus(CharTrieNode parentNode, char c, String term) {
+        return addChildTerminus(parentNode, c);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.CharTrieNodeFactory#convertToTerminus(net
+     * .digitaltsunami.word.trie.CharTrieNode)
+     */
+    @Override
+    public CharTrieTerminusNode convertToTerminus(CharTrieNode currentNode) {
+        ((ConcurrentCharTrieNode) currentNode).markTerminus();
+        return (ConcurrentCharTrieNode) currentNode;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.CharTrieNodeFactory#convertToTerminus(net
+     * .digitaltsunami.word.trie.CharTrieNode, java.lang.String)
+     */
+    @Override
+    public CharTrieTerminusNode convertToTerminus(CharTrieNode currentNode, String originalTerm) {
+        return convertToTerminus(currentNode);
+    }
+}
@@ -0,0 +1,465 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Base class for read-only dictionaries stored as a double-array trie. The
+ * queries are implemented here against a set of accessors, allowing the
+ * arrays to be stored on the heap ({@link CompactCharTrie}) or within a memory
+ * mapped file ({@link MappedCharTrie}).
+ * <p>
+ * Each node of the source trie is represented as a state (an index) within two
+ * parallel integer arrays:
+ * <ul>
+ * <li><em>base</em> - offset from which the children of a state are located.
+ * The child for a character is found at <code>base[s] + code(c)</code>.</li>
+ * <li><em>check</em> - the parent state of each state. A transition is valid
+ * only if <code>check[base[s] + code(c)] == s</code>.</li>
+ * </ul>
+ * Characters are mapped to a dense code in the range [1, alphabet size]. Codes
+ * are assigned in ascending character order, so iterating the codes of a
+ * state visits its children in lexicographic order.
+ * <p>
+ * All queries are case insensitive.
+ *
+ * @author dhagberg
+ *
+ */
+public abstract class DoubleArrayCharTrie {
+    /** State index of the root node. */
+    protected static final int ROOT_STATE = 0;
+    /** Value of check for a state that has not been assigned. */
+    protected static final int EMPTY = -1;
+    /** Value of base for a state that has no children. */
+    protected static final int LEAF = -1;
+
+    /** Identifies a trie image: the characters WSDA. */
+    protected static final int IMAGE_MAGIC = 0x57534441;
+    /** Version of the trie image layout. */
+    protected static final int IMAGE_VERSION = 1;
+    /** Size in bytes of the trie image header. */
+    protected static final int IMAGE_HEADER_SIZE = 32;
+
+    /** Number of unique terms within this dictionary. */
+    private final int wordCount;
+    /** Wildcard character used in pattern searches. */
+    private char wildcardChar;
+
+    /**
+     * Initialize the values common to all double-array implementations.
+     *
+     * @param wordCount
+     *            number of unique terms within this dictionary.
+     * @param wildcardChar
+     *            wildcard character used in pattern searches.
+     */
+    protected DoubleArrayCharTrie(int wordCount, char wildcardChar) {
+        this.wordCount = wordCount;
+        this.wildcardChar = wildcardChar;
+    }
+
+    /**
+     * Return the base value for the provided state or {@link #LEAF} if the
+     * state has no children.
+     */
+    protected abstract int getBase(int state);
+
+    /**
+     * Return the parent state for the provided state or {@link #EMPTY} if the
+     * state is not in use.
+     */
+    protected abstract int getCheck(int state);
+
+    /**
+     * Return true if the provided state completes a term.
+     */
+    protected abstract boolean isTerminus(int state);
+
+    /**
+     * Return the word of the terminus bit set at the provided index. Bit
+     * <code>s % 64</code> of word <code>s / 64</code> is set if state
+     * <code>s</code> is a terminus.
+     */
+    protected abstract long getTerminusBits(int index);
+
+    /**
+     * Return the code for the provided character or 0 if the character does
+     * not occur within the dictionary.
+     */
+    protected abstract int getCode(char value);
+
+    /**
+     * Return the number of entries within the character to code mapping. All
+     * characters greater than or equal to this value have a code of 0.
+     */
+    protected abstract int getCodesLength();
+
+    /**
+     * Return the character for the provided code.
+     */
+    protected abstract char getCodeValue(int code);
+
+    /**
+     * Return the number of distinct characters within the dictionary.
+     */
+    protected abstract int getAlphabetSize();
+
+    /**
+     * Return the number of states allocated within the double array including
+     * unused states.
+     *
+     * @return the length of the base and check arrays.
+     */
+    public abstract int getCapacity();
+
+    /**
+     * Returns true if the dictionary contains the provided term.
+     *
+     * @param term
+     *            Term to query for.
+     * @return true if the term was found, false otherwise.
+     */
+    public boolean contains(String term) {
+        if (term.length() == 0) {
+            return false;
+        }
+        int state = findState(ROOT_STATE, term.toLowerCase());
+        return state != EMPTY && isTerminus(state);
+    }
+
+    /**
+     * Find and return all terms within the dictionary beginning with the
+     * provided prefix. Terms are returned in lexicographic order.
+     *
+     * @param prefix
+     *            Common prefix to all terms to be returned.
+     * @return A list of all terms beginning with the provided prefix. If no
+     *         terms found, an empty list will be returned.
+     */
+    public Collection<String> findTerms(String prefix) {
+        if (prefix.length() == 0) {
+            return Collections.emptyList();
+        }
+        String lcPrefix = prefix.toLowerCase();
+        int state = findState(ROOT_STATE, lcPrefix);
+        if (state == EMPTY) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<String>();
+        char[] termBuff = Arrays.copyOf(lcPrefix.toCharArray(), lcPrefix.length() + 16);
+        if (isTerminus(state)) {
+            terms.add(lcPrefix);
+        }
+        findTerms(terms, state, termBuff, lcPrefix.length());
+        return terms;
+    }
+
+    /**
+     * Find and return all terms within the dictionary matching the provided
+     * pattern. See {@link CharTrie#findPattern(String)} for a description of
+     * the pattern.
+     *
+     * @param pattern
+     *            Mix of fixed and/or {@link #getWildcardChar()} characters to
+     *            match.
+     * @return A list of all terms matching the provided pattern. If no terms
+     *         found, an empty list will be returned.
+     */
+    public Collection<String> findPattern(String pattern) {
+        if (pattern.length() == 0) {
+            return Collections.emptyList();
+        }
+        char[] lcPattern = pattern.toLowerCase().toCharArray();
+        List<String> matchingTerms = new ArrayList<String>();
+        findPattern(matchingTerms, lcPattern, new char[lcPattern.length], 0, ROOT_STATE);
+        return matchingTerms;
+    }
+
+    /**
+     * Return all words within the dictionary with number of characters equal to
+     * the provided length.
+     *
+     * @param length
+     *            exact size of words to be returned.
+     * @return a collection of strings matching size constraints. If none found,
+     *         an empty collection will be returned.
+     */
+    public Collection<String> findAllTermsOfLength(int length) {
+        return findAllTermsOfLength(length, length);
+    }
+
+    /**
+     * Return all words within the dictionary with number of characters within
+     * the range:
+     * <p>
+     * minLength <= termLen <= maxLength
+     *
+     * @param minLength
+     *            minimum size of words to be returned. Must be >= 0
+     * @param maxLength
+     *            maximum size of words to be returned. Must be >= 0. If less
+     *            than minLength, will be changed to minLength.
+     * @return a collection of strings matching size constraints. If none found,
+     *         an empty collection will be returned.
+     */
+    public Collection<String> findAllTermsOfLength(int minLength, int maxLength) {
+        minLength = Math.max(0, minLength);
+        maxLength = Math.max(minLength, maxLength);
+        Collection<String> matchingTerms = new ArrayList<String>();
+        findAllTermsOfLength(minLength, maxLength, matchingTerms, new char[maxLength], 0,
+                ROOT_STATE);
+        return matchingTerms;
+    }
+
+    /**
+     * Return the number of unique entry terms.
+     *
+     * @return the number of unique terms within this dictionary.
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Current wildcard in use for pattern queries.
+     *
+     * @return the wildcardChar
+     */
+    public char getWildcardChar() {
+        return wildcardChar;
+    }
+
+    /**
+     * Set the wildcard to use for pattern queries.
+     *
+     * @param wildcardChar
+     *            the wildcardChar to set
+     */
+    public void setWildcardChar(char wildcardChar) {
+        this.wildcardChar = wildcardChar;
+    }
+
+    /**
+     * Write this dictionary as a trie image that can later be opened using
+     * {@link MappedCharTrie#open(java.io.File)}. The image consists of a fixed
+     * size header followed by the terminus bit set, the base and check arrays,
+     * the character to code mapping and the alphabet. All values are written
+     * in big-endian order.
+     * <p>
+     * The stream will be flushed, but not closed.
+     *
+     * @param out
+     *            stream to which the image will be written.
+     * @throws IOException
+     *             if the image could not be written.
+     */
+    public void writeImage(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        int capacity = getCapacity();
+        int terminusLength = (capacity >>> 6) + 1;
+        int codesLength = getCodesLength();
+        int alphabetSize = getAlphabetSize();
+
+        data.writeInt(IMAGE_MAGIC);
+        data.writeInt(IMAGE_VERSION);
+        data.writeInt(wordCount);
+        data.writeInt(wildcardChar);
+        data.writeInt(capacity);
+        data.writeInt(codesLength);
+        data.writeInt(alphabetSize);
+        data.writeInt(0); // Reserved
+
+        for (int i = 0; i < terminusLength; i++) {
+            data.writeLong(getTerminusBits(i));
+        }
+        for (int state = 0; state < capacity; state++) {
+            data.writeInt(getBase(state));
+        }
+        for (int state = 0; state < capacity; state++) {
+            data.writeInt(getCheck(state));
+        }
+        for (int c = 0; c < codesLength; c++) {
+            data.writeInt(getCode((char) c));
+        }
+        for (int code = 1; code <= alphabetSize; code++) {
+            data.writeChar(getCodeValue(code));
+        }
+        data.flush();
+    }
+
+    /**
+     * Return the state reached by following the provided sequence of
+     * characters from the provided state.
+     *
+     * @param state
+     *            state from which the sequence will be followed.
+     * @param sequence
+     *            characters to follow.
+     * @return the state for the last character in the sequence or
+     *         {@link #EMPTY} if the sequence does not exist.
+     */
+    protected int findState(int state, String sequence) {
+        for (int i = 0; i < sequence.length() && state != EMPTY; i++) {
+            state = getChild(state, sequence.charAt(i));
+        }
+        return state;
+    }
+
+    /**
+     * Return the child state of the provided state for the provided value.
+     *
+     * @param state
+     *            parent state.
+     * @param value
+     *            character to transition on.
+     * @return the child state or {@link #EMPTY} if there is no such child.
+     */
+    protected int getChild(int state, char value) {
+        int code = getCode(value);
+        int stateBase = getBase(state);
+        if (code == 0 || stateBase == LEAF) {
+            return EMPTY;
+        }
+        int child = stateBase + code;
+        if (child < getCapacity() && getCheck(child) == state) {
+            return child;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Return the highest code that may be a child of a state with the provided
+     * base value without exceeding the capacity.
+     */
+    private int getLastCode(int stateBase) {
+        return Math.min(getAlphabetSize(), getCapacity() - 1 - stateBase);
+    }
+
+    /**
+     * Recursive method to walk the states searching for complete words. Each
+     * word will be added to the provided {@link Collection}.
+     *
+     * @param terms
+     *            Location to store all matching results.
+     * @param state
+     *            current state.
+     * @param termBuff
+     *            characters from the root to the current state.
+     * @param length
+     *            number of characters in termBuff for the current state.
+     */
+    private void findTerms(Collection<String> terms, int state, char[] termBuff, int length) {
+        int stateBase = getBase(state);
+        if (stateBase == LEAF) {
+            return;
+        }
+        if (length == termBuff.length) {
+            termBuff = Arrays.copyOf(termBuff, length * 2);
+        }
+        int lastCode = getLastCode(stateBase);
+        for (int code = 1; code <= lastCode; code++) {
+            int child = stateBase + code;
+            if (getCheck(child) == state) {
+                termBuff[length] = getCodeValue(code);
+                if (isTerminus(child)) {
+                    terms.add(new String(termBuff, 0, length + 1));
+                }
+                findTerms(terms, child, termBuff, length + 1);
+            }
+        }
+    }
+
+    /**
+     * Recursive method to find all terms matching the pattern provided starting
+     * at the pattern position and state provided.
+     *
+     * @param list
+     *            Location to store all matching results.
+     * @param pattern
+     *            Mix of fixed and/or wildcard characters to match.
+     * @param termBuff
+     *            characters from the root to the current state.
+     * @param pos
+     *            current character position with pattern.
+     * @param state
+     *            current state from which the children will be compared against
+     *            the current character in the pattern.
+     */
+    private void findPattern(Collection<String> list, char[] pattern, char[] termBuff, int pos,
+            int state) {
+        if (pos == pattern.length) {
+            if (isTerminus(state)) {
+                list.add(new String(termBuff));
+            }
+            return;
+        }
+        if (pattern[pos] == wildcardChar) {
+            int stateBase = getBase(state);
+            if (stateBase == LEAF) {
+                return;
+            }
+            int lastCode = getLastCode(stateBase);
+            for (int code = 1; code <= lastCode; code++) {
+                int child = stateBase + code;
+                if (getCheck(child) == state) {
+                    termBuff[pos] = getCodeValue(code);
+                    findPattern(list, pattern, termBuff, pos + 1, child);
+                }
+            }
+        } else {
+            int child = getChild(state, pattern[pos]);
+            if (child != EMPTY) {
+                termBuff[pos] = pattern[pos];
+                findPattern(list, pattern, termBuff, pos + 1, child);
+            }
+        }
+    }
+
+    /**
+     * Recursive method to find all terms of size within the range:
+     * <p>
+     * minLength <= termLen <= maxLength
+     *
+     * @param minLength
+     *            minimum size of words to be returned.
+     * @param maxLength
+     *            maximum size of words to be returned.
+     * @param list
+     *            Location to store all matching results.
+     * @param termBuff
+     *            characters from the root to the current state.
+     * @param pos
+     *            depth of the current state.
+     * @param state
+     *            current state.
+     */
+    private void findAllTermsOfLength(int minLength, int maxLength, Collection<String> list,
+            char[] termBuff, int pos, int state) {
+        if (pos >= minLength && isTerminus(state)) {
+            list.add(new String(termBuff, 0, pos));
+        }
+        int stateBase = getBase(state);
+        if (pos == maxLength || stateBase == LEAF) {
+            return;
+        }
+        int lastCode = getLastCode(stateBase);
+        for (int code = 1; code <= lastCode; code++) {
+            int child = stateBase + code;
+            if (getCheck(child) == state) {
+                termBuff[pos] = getCodeValue(code);
+                findAllTermsOfLength(minLength, maxLength, list, termBuff, pos + 1, child);
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import java.util.Arrays;
+
+/**
+ * A {@link LexLinkedCharTrieNode} that adds an index over its children once
+ * the number of children exceeds {@link #INDEX_THRESHOLD}. Below the threshold,
+ * children are located by walking the ordered list of siblings. Above it, the
+ * values of the children are kept in a sorted array and located using a
+ * binary search, so the nodes at the upper levels of a dictionary, which may
+ * have many children, are searched in O(log n) rather than O(n).
+ * <p>
+ * The siblings remain linked in order, so iteration is unchanged. Nodes
+ * without an index, which include all leaves, carry only a single null
+ * reference in addition to the linked node.
+ *
+ * @author dhagberg
+ *
+ */
+public class IndexedLexCharTrieNode extends LexLinkedCharTrieNode {
+    /**
+     * Number of children above which the children of a node will be indexed.
+     */
+    public static final int INDEX_THRESHOLD = 8;
+
+    /** Index over the children or null if not yet above the threshold. */
+    private ChildIndex index;
+
+    protected IndexedLexCharTrieNode(CharTrieNode parent, char value) {
+        super(parent, value);
+    }
+
+    /**
+     * @param value
+     */
+    public IndexedLexCharTrieNode(char value) {
+        super(value);
+    }
+
+    /**
+     * @param rootNode
+     */
+    public IndexedLexCharTrieNode(boolean rootNode) {
+        super(rootNode);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.LexLinkedCharTrieNode#getChild(char)
+     */
+    @Override
+    public CharTrieNode getChild(char value) {
+        if (index == null) {
+            return super.getChild(value);
+        }
+        int pos = index.indexOf(value);
+        return pos < 0 ? null : index.nodes[pos];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.LexLinkedCharTrieNode#addChild(char)
+     */
+    @Override
+    public CharTrieNode addChild(char value) {
+        if (index == null) {
+            CharTrieNode child = super.getChild(value);
+            if (child == null) {
+                child = super.addChild(value);
+                indexIfRequired();
+            }
+            return child;
+        }
+        int pos = index.indexOf(value);
+        if (pos >= 0) {
+            return index.nodes[pos];
+        }
+        // Link the new node next to its neighbor within the index rather
+        // than walking the siblings.
+        pos = -(pos + 1);
+        LinkedCharTrieNode newNode = createChild(value);
+        if (pos < index.size) {
+            index.nodes[pos].prependNode(newNode);
+        } else {
+            index.nodes[pos - 1].appendNode(newNode);
+        }
+        index.insert(pos, newNode);
+        return newNode;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.LexLinkedCharTrieNode#appendChild(net.digitaltsunami
+     * .word.trie.LinkedCharTrieNode, char)
+     */
+    @Override
+    protected LinkedCharTrieNode appendChild(LinkedCharTrieNode lastChild, char value) {
+        LinkedCharTrieNode newNode = super.appendChild(lastChild, value);
+        if (newNode != null) {
+            if (index == null) {
+                indexIfRequired();
+            } else {
+                index.insert(index.size, newNode);
+            }
+        }
+        return newNode;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.LexLinkedCharTrieNode#createChild(char)
+     */
+    @Override
+    protected LinkedCharTrieNode createChild(char value) {
+        return new IndexedLexCharTrieNode(this, value);
+    }
+
+    /**
+     * Return true if the children of this node are indexed.
+     *
+     * @return true if the children of this node are indexed.
+     */
+    protected boolean isIndexed() {
+        return index != null;
+    }
+
+    /**
+     * Build the index from the siblings once the number of children exceeds
+     * the threshold.
+     */
+    private void indexIfRequired() {
+        int count = 0;
+        for (LinkedCharTrieNode child = getFirstChild(); child != null; child = child
+                .getNextSibling()) {
+            count++;
+        }
+        if (count <= INDEX_THRESHOLD) {
+            return;
+        }
+        ChildIndex newIndex = new ChildIndex(count * 2);
+        for (LinkedCharTrieNode child = getFirstChild(); child != null; child = child
+                .getNextSibling()) {
+            newIndex.insert(newIndex.size, child);
+        }
+        index = newIndex;
+    }
+
+    /**
+     * Sorted values of the children of a node and the corresponding nodes.
+     */
+    private static final class ChildIndex {
+        private char[] values;
+        private LinkedCharTrieNode[] nodes;
+        private int size;
+
+        private ChildIndex(int capacity) {
+            values = new char[capacity];
+            nodes = new LinkedCharTrieNode[capacity];
+        }
+
+        /**
+         * Return the position of the provided value or, if not present,
+         * (-(insertion point) - 1).
+         */
+        private int indexOf(char value) {
+            return Arrays.binarySearch(values, 0, size, value);
+        }
+
+        private void insert(int pos, LinkedCharTrieNode node) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            System.arraycopy(nodes, pos, nodes, pos + 1, size - pos);
+            values[pos] = node.getValue();
+            nodes[pos] = node;
+            size++;
+        }
+    }
+}
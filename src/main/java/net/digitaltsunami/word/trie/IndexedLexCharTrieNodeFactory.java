@@ -0,0 +1,36 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.trie;
+
+/**
+ * Implementation of the abstract factory {@link CharTrieNodeFactory} that
+ * creates instances of {@link IndexedLexCharTrieNode} for both the
+ * {@link CharTrieNode} and {@link CharTrieTerminusNode} interfaces. Children
+ * are kept in lexicographic order as with {@link LexCharTrieNodeFactory}, but
+ * nodes with many children are searched using an index.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class IndexedLexCharTrieNodeFactory extends LexCharTrieNodeFactory {
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.trie.CharTrieNodeFactory#createNode(char)
+     */
+    @Override
+    public CharTrieNode createNode(char c) {
+        return new IndexedLexCharTrieNode(c);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.trie.CharTrieNodeFactory#createRootNode()
+     */
+    @Override
+    public CharTrieNode createRootNode() {
+        return new IndexedLexCharTrieNode(true);
+    }
+}
@@ -98,4 +98,24 @@ public class LexCharTrieNodeFactory implements CharTrieNodeFactory {
         return (LinkedCharTrieNode) currentNode;
     }
 
+    /**
+     * Create a new node with the provided value and add as a child to the
+     * provided node following the provided child, which must be the last child
+     * of the parent node. This avoids searching the children when terms are
+     * added in lexicographic order. The node created should not be a terminus.
+     * 
+     * @param parentNode
+     *            the node to which the newly created node will be added as a
+     *            child.
+     * @param lastChild
+     *            the last child of the parent node.
+     * @param c
+     *            character that the new child node represents.
+     * @return the newly created {@link CharTrieNode} or null if the provided
+     *         child was not the last or its value does not precede the new
+     *         value.
+     */
+    public CharTrieNode appendChild(CharTrieNode parentNode, CharTrieNode lastChild, char c) {
+        return ((LexLinkedCharTrieNode) parentNode).appendChild((LinkedCharTrieNode) lastChild, c);
+    }
 }
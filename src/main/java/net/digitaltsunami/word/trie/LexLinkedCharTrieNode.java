@@ -59,7 +59,7 @@ public class LexLinkedCharTrieNode extends LinkedCharTrieNode {
                 } else {
                     // Reached the end of the sibling list. Add new node and
                     // append to the last node in the list.
-                    LinkedCharTrieNode newNode = new LexLinkedCharTrieNode(this, value);
+                    LinkedCharTrieNode newNode = createChild(value);
                     sibling.appendNode(newNode);
                     /*
                      * sibling.setNextSibling(newNode);
@@ -73,16 +73,52 @@ public class LexLinkedCharTrieNode extends LinkedCharTrieNode {
             } else {
                 // Value < sibling, list is in order, so it won't be found.
                 // Create new, insert it, and return the new node.
-                LinkedCharTrieNode newNode = new LexLinkedCharTrieNode(this, value);
+                LinkedCharTrieNode newNode = createChild(value);
                 sibling.prependNode(newNode);
                 return newNode;
             }
         }
 
         // First child node to be added, add and return.
-        LinkedCharTrieNode newNode = new LexLinkedCharTrieNode(this, value);
+        LinkedCharTrieNode newNode = createChild(value);
         setFirstChild(newNode);
         return newNode;
     }
 
+    /**
+     * Add a new child with the provided value following the provided child,
+     * without searching the children of this node. The child is added only if
+     * the provided child is the last child of this node and the value follows
+     * its value, which is always the case when adding terms in lexicographic
+     * order to a dictionary that did not previously contain the terms.
+     * 
+     * @param lastChild
+     *            child of this node expected to be the last.
+     * @param value
+     *            value of the new child.
+     * @return the new child or null if the child could not be appended.
+     */
+    protected LinkedCharTrieNode appendChild(LinkedCharTrieNode lastChild, char value) {
+        if (lastChild.getParent() != this || lastChild.getNextSibling() != null
+                || value <= lastChild.getValue()) {
+            return null;
+        }
+        LinkedCharTrieNode newNode = createChild(value);
+        lastChild.appendNode(newNode);
+        return newNode;
+    }
+
+    /**
+     * Create a new node with the provided value as a child of this node. The
+     * node is not linked into the children of this node. Subclasses may
+     * override to create children of their own type.
+     * 
+     * @param value
+     *            value of the new child.
+     * @return the new, unlinked child node.
+     */
+    protected LinkedCharTrieNode createChild(char value) {
+        return new LexLinkedCharTrieNode(this, value);
+    }
+
 }
@@ -0,0 +1,36 @@
+package net.digitaltsunami.word.trie;
+
+import java.util.Collection;
+
+/**
+ * {@link PatternSearchStrategy} able to stop searching once a maximum number
+ * of matches has been found. Strategies not implementing this interface are
+ * limited by {@link CharTrie#findPattern(String, int)} after searching for all
+ * matches.
+ * 
+ * @author dhagberg
+ * 
+ */
+public interface LimitedPatternSearchStrategy extends PatternSearchStrategy {
+
+    /**
+     * Find and return up to the provided number of terms within the
+     * dictionary matching the provided pattern. The search must stop as soon
+     * as the limit has been reached. Terms must be returned in the same order
+     * as {@link #findPattern(String, CharTrieNode, char)}.
+     * 
+     * @param pattern
+     *            Mix of fixed and/or wildcard characters to match.
+     * @param root
+     *            Root of trie being searched for pattern.
+     * @param wildcardChar
+     *            Character value used as wildcard in query.
+     * @param limit
+     *            Maximum number of terms to return.
+     * @return A set of at most limit terms matching the provided pattern. If
+     *         no terms found, an empty set will be returned.
+     */
+    public Collection<String> findPattern(String pattern, CharTrieNode root, char wildcardChar,
+            int limit);
+
+}
@@ -0,0 +1,189 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only dictionary of terms answered directly from a memory mapped trie
+ * image. The image is created using {@link #write(CharTrie, File)} or
+ * {@link DoubleArrayCharTrie#writeImage(OutputStream)} and opened using
+ * {@link #open(File)}.
+ * <p>
+ * Opening an image does not deserialize any nodes. Queries read the base and
+ * check arrays through views of the mapped file, so only the pages touched by
+ * the queries are loaded and the pages are shared with any other process
+ * mapping the same image. See {@link DoubleArrayCharTrie} for a description of
+ * the structure. As with {@link CharTrie}, all queries are case insensitive.
+ * <p>
+ * As a single mapping is used, images are limited to 2GB in size.
+ *
+ * @author dhagberg
+ *
+ */
+public class MappedCharTrie extends DoubleArrayCharTrie {
+    private final int capacity;
+    private final int codesLength;
+    private final int alphabetSize;
+    private final IntBuffer base;
+    private final IntBuffer check;
+    private final LongBuffer terminus;
+    private final IntBuffer codes;
+    private final CharBuffer alphabet;
+
+    /**
+     * Create views over the sections of the provided image.
+     *
+     * @param image
+     *            mapped trie image, including the header.
+     */
+    private MappedCharTrie(ByteBuffer image, int wordCount, char wildcardChar, int capacity,
+            int codesLength, int alphabetSize) {
+        super(wordCount, wildcardChar);
+        this.capacity = capacity;
+        this.codesLength = codesLength;
+        this.alphabetSize = alphabetSize;
+
+        int terminusLength = (capacity >>> 6) + 1;
+        int offset = IMAGE_HEADER_SIZE;
+        this.terminus = section(image, offset, terminusLength * 8).asLongBuffer();
+        offset += terminusLength * 8;
+        this.base = section(image, offset, capacity * 4).asIntBuffer();
+        offset += capacity * 4;
+        this.check = section(image, offset, capacity * 4).asIntBuffer();
+        offset += capacity * 4;
+        this.codes = section(image, offset, codesLength * 4).asIntBuffer();
+        offset += codesLength * 4;
+        this.alphabet = section(image, offset, alphabetSize * 2).asCharBuffer();
+    }
+
+    /**
+     * Write the provided dictionary as a trie image to the provided file. Any
+     * existing file will be replaced.
+     *
+     * @param trie
+     *            populated dictionary to write.
+     * @param file
+     *            destination of the trie image.
+     * @throws IOException
+     *             if the image could not be written.
+     */
+    public static void write(CharTrie trie, File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            trie.freeze().writeImage(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Map the provided trie image into memory and return a dictionary backed
+     * by it. The file is mapped read-only and must not be modified while the
+     * returned dictionary is in use.
+     *
+     * @param file
+     *            trie image created by {@link #write(CharTrie, File)}.
+     * @return a dictionary answering queries from the mapped image.
+     * @throws IOException
+     *             if the file could not be mapped or is not a valid trie image.
+     */
+    public static MappedCharTrie open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        MappedByteBuffer image;
+        try {
+            FileChannel channel = raf.getChannel();
+            // Mapping remains valid after the channel has been closed.
+            image = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            raf.close();
+        }
+        if (image.capacity() < IMAGE_HEADER_SIZE || image.getInt(0) != IMAGE_MAGIC) {
+            throw new IOException("Not a trie image: " + file);
+        }
+        int version = image.getInt(4);
+        if (version != IMAGE_VERSION) {
+            throw new IOException("Unsupported trie image version " + version + ": " + file);
+        }
+        int wordCount = image.getInt(8);
+        char wildcardChar = (char) image.getInt(12);
+        int capacity = image.getInt(16);
+        int codesLength = image.getInt(20);
+        int alphabetSize = image.getInt(24);
+
+        long expectedSize = IMAGE_HEADER_SIZE + ((capacity >>> 6) + 1) * 8L + capacity * 8L
+                + codesLength * 4L + alphabetSize * 2L;
+        if (image.capacity() != expectedSize) {
+            throw new IOException("Trie image is truncated or corrupt: " + file);
+        }
+        return new MappedCharTrie(image, wordCount, wildcardChar, capacity, codesLength,
+                alphabetSize);
+    }
+
+    /**
+     * Return a view of the provided number of bytes starting at the provided
+     * offset within the image.
+     */
+    private static ByteBuffer section(ByteBuffer image, int offset, int length) {
+        ByteBuffer view = image.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice();
+    }
+
+    @Override
+    protected int getBase(int state) {
+        return base.get(state);
+    }
+
+    @Override
+    protected int getCheck(int state) {
+        return check.get(state);
+    }
+
+    @Override
+    protected boolean isTerminus(int state) {
+        return (terminus.get(state >>> 6) & (1L << state)) != 0;
+    }
+
+    @Override
+    protected long getTerminusBits(int index) {
+        return terminus.get(index);
+    }
+
+    @Override
+    protected int getCode(char value) {
+        return value < codesLength ? codes.get(value) : 0;
+    }
+
+    @Override
+    protected int getCodesLength() {
+        return codesLength;
+    }
+
+    @Override
+    protected char getCodeValue(int code) {
+        return alphabet.get(code - 1);
+    }
+
+    @Override
+    protected int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,236 @@
+package net.digitaltsunami.word.trie;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concrete implementation of {@link PatternSearchStrategy} that searches
+ * subtrees of the trie in parallel.
+ * <p>
+ * The calling thread descends the trie one pattern position at a time,
+ * expanding every child at wildcard positions, until there are enough subtrees
+ * to occupy the threads of the executor or the pattern ends. The subtrees are
+ * then divided into tasks and each is searched using
+ * {@link PatternSearchRecursiveStrategy}. Results are combined in the order of
+ * the subtrees, so terms are returned in the same order as the other
+ * strategies.
+ * <p>
+ * The number of nodes remaining to be visited is estimated as the number of
+ * subtrees multiplied by the average number of children of their nodes for
+ * each remaining wildcard position. If the estimate is below the sequential
+ * cutoff, such as for patterns with few wildcards, the search is completed by
+ * the calling thread as the cost of dispatching tasks would exceed the
+ * benefit.
+ * <p>
+ * Once the results have been combined, or the limit reached, any tasks still
+ * running stop at the next node they visit.
+ * <p>
+ * The executor is provided by the caller, who remains responsible for shutting
+ * it down.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class PatternSearchParallelStrategy implements LimitedPatternSearchStrategy {
+    /** Default minimum estimated number of nodes for which tasks are used. */
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 4096;
+    /** Number of tasks created for each thread to balance uneven subtrees. */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final PatternSearchRecursiveStrategy sequentialStrategy = new PatternSearchRecursiveStrategy();
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int sequentialCutoff;
+
+    /**
+     * Create a strategy using the provided executor and
+     * {@link #DEFAULT_SEQUENTIAL_CUTOFF}. The executor is not shut down by
+     * this strategy.
+     * 
+     * @param executor
+     *            executor used to run the search of subtrees.
+     * @param parallelism
+     *            number of threads available within the executor.
+     */
+    public PatternSearchParallelStrategy(ExecutorService executor, int parallelism) {
+        this(executor, parallelism, DEFAULT_SEQUENTIAL_CUTOFF);
+    }
+
+    /**
+     * Create a strategy using the provided executor. The executor is not shut
+     * down by this strategy.
+     * 
+     * @param executor
+     *            executor used to run the search of subtrees.
+     * @param parallelism
+     *            number of threads available within the executor.
+     * @param sequentialCutoff
+     *            minimum estimated number of nodes to be visited before tasks
+     *            are used rather than the calling thread.
+     */
+    public PatternSearchParallelStrategy(ExecutorService executor, int parallelism,
+            int sequentialCutoff) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.sequentialCutoff = sequentialCutoff;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.PatternSearchStrategy#findPattern(java.lang
+     * .String, net.digitaltsunami.word.trie.CharTrieNode, char)
+     */
+    @Override
+    public Collection<String> findPattern(String pattern, CharTrieNode root, char wildcardChar) {
+        return findPattern(pattern, root, wildcardChar, Integer.MAX_VALUE);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.LimitedPatternSearchStrategy#findPattern(java
+     * .lang.String, net.digitaltsunami.word.trie.CharTrieNode, char, int)
+     */
+    @Override
+    public Collection<String> findPattern(String pattern, CharTrieNode root, char wildcardChar,
+            int limit) {
+        final char[] lcPattern = pattern.toLowerCase().toCharArray();
+        final char wildcard = wildcardChar;
+        final int maxTerms = limit;
+
+        /*
+         * Expand the subtrees level by level, keeping them in order, until
+         * there are enough to divide among the threads.
+         */
+        int targetSubtrees = parallelism * TASKS_PER_THREAD;
+        List<CharTrieNode> subtrees = new ArrayList<CharTrieNode>();
+        subtrees.add(root);
+        int pos = 0;
+        while (pos < lcPattern.length && subtrees.size() < targetSubtrees && !subtrees.isEmpty()) {
+            List<CharTrieNode> expanded = new ArrayList<CharTrieNode>();
+            for (CharTrieNode node : subtrees) {
+                if (lcPattern[pos] == wildcard) {
+                    for (CharTrieNode child : node) {
+                        expanded.add(child);
+                    }
+                } else {
+                    CharTrieNode child = node.getChild(lcPattern[pos]);
+                    if (child != null) {
+                        expanded.add(child);
+                    }
+                }
+            }
+            subtrees = expanded;
+            pos++;
+        }
+        if (subtrees.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (estimateRemainingNodes(subtrees, lcPattern, pos, wildcard) < sequentialCutoff) {
+            Collection<String> matchingTerms = new ArrayList<String>();
+            for (CharTrieNode node : subtrees) {
+                if (sequentialStrategy.findPattern(matchingTerms, lcPattern, pos, node, wildcard,
+                        maxTerms)) {
+                    break;
+                }
+            }
+            return matchingTerms;
+        }
+
+        // Divide the subtrees into contiguous groups, one per task.
+        int taskCount = Math.min(targetSubtrees, subtrees.size());
+        List<Future<List<String>>> results = new ArrayList<Future<List<String>>>(taskCount);
+        final int startPos = pos;
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        for (int task = 0; task < taskCount; task++) {
+            final List<CharTrieNode> group = subtrees.subList(task * subtrees.size() / taskCount,
+                    (task + 1) * subtrees.size() / taskCount);
+            results.add(executor.submit(new Callable<List<String>>() {
+                @Override
+                public List<String> call() throws Exception {
+                    List<String> terms = new ArrayList<String>();
+                    for (CharTrieNode node : group) {
+                        if (sequentialStrategy.findPattern(terms, lcPattern, startPos, node,
+                                wildcard, maxTerms, cancelled)) {
+                            break;
+                        }
+                    }
+                    return terms;
+                }
+            }));
+        }
+        return collectResults(results, limit, cancelled);
+    }
+
+    /**
+     * Combine the results of each task in order, stopping and cancelling the
+     * remaining tasks once the limit has been reached. The flag is set on
+     * return so that tasks already running stop searching.
+     */
+    private Collection<String> collectResults(List<Future<List<String>>> results, int limit,
+            AtomicBoolean cancelled) {
+        List<String> matchingTerms = new ArrayList<String>();
+        try {
+            for (Future<List<String>> result : results) {
+                for (String term : result.get()) {
+                    if (matchingTerms.size() >= limit) {
+                        return matchingTerms;
+                    }
+                    matchingTerms.add(term);
+                }
+            }
+            return matchingTerms;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching for pattern", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Pattern search failed", e.getCause());
+        } finally {
+            cancelled.set(true);
+            for (Future<List<String>> result : results) {
+                result.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Estimate the number of nodes visited in searching the subtrees for the
+     * remainder of the pattern, assuming each remaining wildcard position
+     * multiplies the nodes by the average number of children of the subtrees.
+     */
+    private static double estimateRemainingNodes(List<CharTrieNode> subtrees, char[] pattern,
+            int pos, char wildcard) {
+        int wildcards = 0;
+        for (int i = pos; i < pattern.length; i++) {
+            if (pattern[i] == wildcard) {
+                wildcards++;
+            }
+        }
+        if (wildcards == 0) {
+            return subtrees.size();
+        }
+        int children = 0;
+        for (CharTrieNode node : subtrees) {
+            for (Iterator<CharTrieNode> iter = node.iterator(); iter.hasNext(); iter.next()) {
+                children++;
+            }
+        }
+        double fanout = Math.max(1.0, (double) children / subtrees.size());
+        return subtrees.size() * Math.pow(fanout, wildcards);
+    }
+}
@@ -11,14 +11,14 @@ import java.util.Queue;
  * Concrete implementation of {@link PatternSearchStrategy} using a queue to
  * query the trie.
  * <p>
- * This strategy performs slower than the {@link PatternSearchQueueStrategy} and
+ * This strategy performs slower than the {@link PatternSearchRecursiveStrategy} and
  * should be used only for very deep tries that may cause a
  * {@link StackOverflowError} if using recursion.
  * 
  * @author dhagberg
  * 
  */
-public class PatternSearchQueueStrategy implements PatternSearchStrategy {
+public class PatternSearchQueueStrategy implements LimitedPatternSearchStrategy {
 
     private static final CharTrieNode SENTINEL = new CharTrieNodeSentinel('\0');
 
@@ -31,6 +31,19 @@ public class PatternSearchQueueStrategy implements PatternSearchStrategy {
      */
     @Override
     public Collection<String> findPattern(String pattern, CharTrieNode root, char wildcardChar) {
+        return findPattern(pattern, root, wildcardChar, Integer.MAX_VALUE);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.LimitedPatternSearchStrategy#findPattern(java
+     * .lang.String, net.digitaltsunami.word.trie.CharTrieNode, char, int)
+     */
+    @Override
+    public Collection<String> findPattern(String pattern, CharTrieNode root, char wildcardChar,
+            int limit) {
         int patLen = pattern.length();
         if (patLen < 1) {
             return Collections.emptyList();
@@ -66,12 +79,17 @@ public class PatternSearchQueueStrategy implements PatternSearchStrategy {
                 /*
                  * At the end of the pattern. Check all children of current node
                  * for match of pattern. If a match and the node indicates the
-                 * last character in a term, add to list.
+                 * last character in a term, add to list. As each level is
+                 * processed in order, matches are found in the order of the
+                 * nodes and the search can end once the limit is reached.
                  */
                 if (lcPattern[patPos] == wildcardChar) {
                     for (CharTrieNode child : currentNode) {
                         if (child.isTerminus()) {
                             matchingTerms.add(((CharTrieTerminusNode) child).getTerm());
+                            if (matchingTerms.size() >= limit) {
+                                return matchingTerms;
+                            }
                         }
                     }
                 } else {
@@ -79,6 +97,9 @@ public class PatternSearchQueueStrategy implements PatternSearchStrategy {
                     if (child != null) {
                         if (child.isTerminus()) {
                             matchingTerms.add(((CharTrieTerminusNode) child).getTerm());
+                            if (matchingTerms.size() >= limit) {
+                                return matchingTerms;
+                            }
                         }
                     }
                 }
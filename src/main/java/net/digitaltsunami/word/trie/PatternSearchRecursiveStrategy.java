@@ -2,6 +2,7 @@ package net.digitaltsunami.word.trie;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Concrete implementation of {@link PatternSearchStrategy} using recursion to
@@ -15,7 +16,7 @@ import java.util.Collection;
  * @author dhagberg
  * 
  */
-public class PatternSearchRecursiveStrategy implements PatternSearchStrategy {
+public class PatternSearchRecursiveStrategy implements LimitedPatternSearchStrategy {
 
     /*
      * (non-Javadoc)
@@ -26,17 +27,31 @@ public class PatternSearchRecursiveStrategy implements PatternSearchStrategy {
      */
     @Override
     public Collection<String> findPattern(String pattern, CharTrieNode root, char wildcardChar) {
+        return findPattern(pattern, root, wildcardChar, Integer.MAX_VALUE);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.LimitedPatternSearchStrategy#findPattern(java
+     * .lang.String, net.digitaltsunami.word.trie.CharTrieNode, char, int)
+     */
+    @Override
+    public Collection<String> findPattern(String pattern, CharTrieNode root, char wildcardChar,
+            int limit) {
         char[] lcPattern = pattern.toLowerCase().toCharArray();
         CharTrieNode currentNode = root;
         Collection<String> matchingTerms = new ArrayList<String>();
-        findPattern(matchingTerms, lcPattern, 0, currentNode, wildcardChar);
+        findPattern(matchingTerms, lcPattern, 0, currentNode, wildcardChar, limit);
         return matchingTerms;
     }
 
     /**
      * Recursive method to find all terms matching the pattern provided starting
      * at the pattern position and node provided. Results will be stored in the
-     * provided list.
+     * provided list. Also used by {@link PatternSearchParallelStrategy} to
+     * search each subtree.
      * 
      * @param list
      *            Location to store all matching results.
@@ -50,24 +65,66 @@ public class PatternSearchRecursiveStrategy implements PatternSearchStrategy {
      *            the current character in the pattern.
      * @param wildcardChar
      *            Character value used as wildcard in query.
+     * @param limit
+     *            Maximum number of results to store in the list.
+     * @return true if the limit has been reached and the search should stop.
+     */
+    boolean findPattern(Collection<String> list, char[] pattern, int pos,
+            CharTrieNode node, char wildcardChar, int limit) {
+        return findPattern(list, pattern, pos, node, wildcardChar, limit, null);
+    }
+
+    /**
+     * Recursive method to find all terms matching the pattern as described by
+     * {@link #findPattern(Collection, char[], int, CharTrieNode, char, int)},
+     * stopping at the next node visited once the provided flag is set. Used by
+     * {@link PatternSearchParallelStrategy} to stop the search of subtrees
+     * whose results are no longer required.
+     * 
+     * @param list
+     *            Location to store all matching results.
+     * @param pattern
+     *            Mix of fixed and/or wildcard characters to match.
+     * @param pos
+     *            current character position with pattern.
+     * @param node
+     *            current node from which the children will be compared against
+     *            the current character in the pattern.
+     * @param wildcardChar
+     *            Character value used as wildcard in query.
+     * @param limit
+     *            Maximum number of results to store in the list.
+     * @param cancelled
+     *            flag set when the search should stop or null if the search
+     *            can not be cancelled.
+     * @return true if the limit has been reached or the search was cancelled
+     *         and the search should stop.
      */
-    private void findPattern(Collection<String> list, char[] pattern, int pos, CharTrieNode node,
-            char wildcardChar) {
+    boolean findPattern(Collection<String> list, char[] pattern, int pos, CharTrieNode node,
+            char wildcardChar, int limit, AtomicBoolean cancelled) {
         if (node == null) {
-            return;
+            return false;
+        }
+        if (cancelled != null && cancelled.get()) {
+            return true;
         }
         if (pos == pattern.length) {
             if (node.isTerminus()) {
                 list.add(((CharTrieTerminusNode) node).getTerm());
+                return list.size() >= limit;
             }
-            return;
+            return false;
         }
         if (pattern[pos] == wildcardChar) {
             for (CharTrieNode child : node) {
-                findPattern(list, pattern, pos + 1, child, wildcardChar);
+                if (findPattern(list, pattern, pos + 1, child, wildcardChar, limit, cancelled)) {
+                    return true;
+                }
             }
+            return false;
         } else {
-            findPattern(list, pattern, pos + 1, node.getChild(pattern[pos]), wildcardChar);
+            return findPattern(list, pattern, pos + 1, node.getChild(pattern[pos]), wildcardChar,
+                    limit, cancelled);
         }
     }
 
@@ -0,0 +1,371 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A dictionary of terms stored using a path-compressed (radix) trie. Rather
+ * than one node per character, each node holds the run of characters along
+ * the edge from its parent, so a chain of characters without branches or
+ * terms, such as the "nationalization" following "inter", is stored in a
+ * single node. Nodes are split as terms are added that branch from or end
+ * within a run.
+ * <p>
+ * Queries consume whole runs at a time, comparing each run against the term,
+ * prefix or pattern rather than visiting a node per character. As with
+ * {@link CharTrie}, all terms are converted to lower case and all queries are
+ * case insensitive.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author dhagberg
+ *
+ */
+public class RadixCharTrie {
+    /** Node with an empty run from which all terms start. */
+    private final Node root = new Node(new char[0]);
+    /** Number of unique words contained within this dictionary. */
+    private int wordCount;
+    /** Number of nodes within this dictionary, excluding the root. */
+    private int nodeCount;
+    /** Wildcard character used in pattern searches. */
+    private char wildcardChar = CharTrie.WILDCARD_CHAR;
+
+    /**
+     * Add a term to the dictionary. The term will be converted to lower case.
+     * Empty terms are ignored.
+     *
+     * @param term
+     *            A string of characters to add.
+     */
+    public void addTerm(String term) {
+        char[] termArray = term.toLowerCase().toCharArray();
+        if (termArray.length == 0) {
+            return;
+        }
+        Node node = root;
+        int pos = 0;
+        while (pos < termArray.length) {
+            int index = node.indexOf(termArray[pos]);
+            if (index < 0) {
+                // No run begins with the next character: the remainder of the
+                // term becomes a new run.
+                Node leaf = new Node(Arrays.copyOfRange(termArray, pos, termArray.length));
+                leaf.terminus = true;
+                node.insertChild(-(index + 1), leaf);
+                nodeCount++;
+                wordCount++;
+                return;
+            }
+            Node child = node.children[index];
+            int matched = child.match(termArray, pos);
+            pos += matched;
+            if (matched < child.run.length) {
+                // Term branches from or ends within the run.
+                child.split(matched);
+                nodeCount++;
+                if (pos < termArray.length) {
+                    Node leaf = new Node(Arrays.copyOfRange(termArray, pos, termArray.length));
+                    leaf.terminus = true;
+                    child.insertChild(-(child.indexOf(termArray[pos]) + 1), leaf);
+                    nodeCount++;
+                } else {
+                    child.terminus = true;
+                }
+                wordCount++;
+                return;
+            }
+            node = child;
+        }
+        if (!node.terminus) {
+            node.terminus = true;
+            wordCount++;
+        }
+    }
+
+    /**
+     * Returns true if the dictionary contains the provided term.
+     *
+     * @param term
+     *            Term to query for.
+     * @return true if the term was found, false otherwise.
+     */
+    public boolean contains(String term) {
+        char[] termArray = term.toLowerCase().toCharArray();
+        if (termArray.length == 0) {
+            return false;
+        }
+        Node node = root;
+        int pos = 0;
+        while (pos < termArray.length) {
+            int index = node.indexOf(termArray[pos]);
+            if (index < 0) {
+                return false;
+            }
+            node = node.children[index];
+            if (node.match(termArray, pos) < node.run.length) {
+                return false;
+            }
+            pos += node.run.length;
+        }
+        return node.terminus;
+    }
+
+    /**
+     * Find and return all terms within the dictionary beginning with the
+     * provided prefix. Terms are returned in lexicographic order.
+     *
+     * @param prefix
+     *            Common prefix to all terms to be returned.
+     * @return A list of all terms beginning with the provided prefix. If no
+     *         terms found, an empty list will be returned.
+     */
+    public Collection<String> findTerms(String prefix) {
+        char[] prefixArray = prefix.toLowerCase().toCharArray();
+        if (prefixArray.length == 0) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        int pos = 0;
+        int matched = 0;
+        while (pos < prefixArray.length) {
+            int index = node.indexOf(prefixArray[pos]);
+            if (index < 0) {
+                return Collections.emptyList();
+            }
+            node = node.children[index];
+            matched = node.match(prefixArray, pos);
+            pos += matched;
+            if (matched < node.run.length && pos < prefixArray.length) {
+                return Collections.emptyList();
+            }
+        }
+        // The prefix may end within the run of the last node; the terms
+        // include the whole run.
+        StringBuilder termBuff = new StringBuilder(prefixArray.length + 16);
+        termBuff.append(prefixArray);
+        termBuff.append(node.run, matched, node.run.length - matched);
+
+        List<String> terms = new ArrayList<String>();
+        findTerms(terms, node, termBuff);
+        return terms;
+    }
+
+    /**
+     * Find and return all terms within the dictionary matching the provided
+     * pattern. See {@link CharTrie#findPattern(String)} for a description of
+     * the pattern.
+     *
+     * @param pattern
+     *            Mix of fixed and/or {@link #getWildcardChar()} characters to
+     *            match.
+     * @return A list of all terms matching the provided pattern. If no terms
+     *         found, an empty list will be returned.
+     */
+    public Collection<String> findPattern(String pattern) {
+        if (pattern.length() == 0) {
+            return Collections.emptyList();
+        }
+        char[] lcPattern = pattern.toLowerCase().toCharArray();
+        List<String> matchingTerms = new ArrayList<String>();
+        findPattern(matchingTerms, lcPattern, new char[lcPattern.length], 0, root);
+        return matchingTerms;
+    }
+
+    /**
+     * Return the number of unique entry terms.
+     *
+     * @return the number of unique terms within this dictionary.
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Return the number of nodes within this dictionary, not including the
+     * root. Each node holds the run of characters leading to it.
+     *
+     * @return the number of nodes within this dictionary.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Current wildcard in use for pattern queries.
+     *
+     * @return the wildcardChar
+     */
+    public char getWildcardChar() {
+        return wildcardChar;
+    }
+
+    /**
+     * Set the wildcard to use for pattern queries.
+     *
+     * @param wildcardChar
+     *            the wildcardChar to set
+     */
+    public void setWildcardChar(char wildcardChar) {
+        this.wildcardChar = wildcardChar;
+    }
+
+    /**
+     * Recursive method to walk the nodes searching for complete words. Each
+     * word will be added to the provided {@link Collection}.
+     *
+     * @param terms
+     *            Location to store all matching results.
+     * @param node
+     *            current node.
+     * @param termBuff
+     *            characters from the root through the run of the current node.
+     */
+    private void findTerms(Collection<String> terms, Node node, StringBuilder termBuff) {
+        if (node.terminus) {
+            terms.add(termBuff.toString());
+        }
+        int length = termBuff.length();
+        for (int i = 0; i < node.childCount; i++) {
+            Node child = node.children[i];
+            termBuff.append(child.run);
+            findTerms(terms, child, termBuff);
+            termBuff.setLength(length);
+        }
+    }
+
+    /**
+     * Recursive method to find all terms matching the pattern provided starting
+     * at the pattern position and node provided.
+     *
+     * @param list
+     *            Location to store all matching results.
+     * @param pattern
+     *            Mix of fixed and/or wildcard characters to match.
+     * @param termBuff
+     *            characters from the root through the run of the current node.
+     * @param pos
+     *            position within the pattern following the run of the current
+     *            node.
+     * @param node
+     *            current node whose children will be compared against the
+     *            pattern.
+     */
+    private void findPattern(Collection<String> list, char[] pattern, char[] termBuff, int pos,
+            Node node) {
+        if (pos == pattern.length) {
+            if (node.terminus) {
+                list.add(new String(termBuff));
+            }
+            return;
+        }
+        int first = 0;
+        int last = node.childCount - 1;
+        if (pattern[pos] != wildcardChar) {
+            first = node.indexOf(pattern[pos]);
+            if (first < 0) {
+                return;
+            }
+            last = first;
+        }
+        for (int i = first; i <= last; i++) {
+            char[] run = node.children[i].run;
+            if (run.length > pattern.length - pos) {
+                continue;
+            }
+            int runPos = 0;
+            while (runPos < run.length
+                    && (pattern[pos + runPos] == wildcardChar || pattern[pos + runPos] == run[runPos])) {
+                termBuff[pos + runPos] = run[runPos];
+                runPos++;
+            }
+            if (runPos == run.length) {
+                findPattern(list, pattern, termBuff, pos + run.length, node.children[i]);
+            }
+        }
+    }
+
+    /**
+     * Node holding the run of characters along the edge from its parent.
+     * Children are ordered by the first character of their runs, which is
+     * unique among the children of a node.
+     */
+    private static final class Node {
+        private char[] run;
+        private Node[] children;
+        private int childCount;
+        private boolean terminus;
+
+        private Node(char[] run) {
+            this.run = run;
+        }
+
+        /**
+         * Return the index of the child whose run begins with the provided
+         * value or, if there is none, (-(insertion point) - 1).
+         */
+        private int indexOf(char value) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midValue = children[mid].run[0];
+                if (midValue < value) {
+                    low = mid + 1;
+                } else if (midValue > value) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * Return the number of characters of the run matching the provided
+         * characters starting at the provided position.
+         */
+        private int match(char[] chars, int pos) {
+            int limit = Math.min(run.length, chars.length - pos);
+            int matched = 0;
+            while (matched < limit && run[matched] == chars[pos + matched]) {
+                matched++;
+            }
+            return matched;
+        }
+
+        private void insertChild(int index, Node child) {
+            if (children == null) {
+                children = new Node[2];
+            } else if (childCount == children.length) {
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            children[index] = child;
+            childCount++;
+        }
+
+        /**
+         * Split the run of this node after the provided number of characters.
+         * The remainder of the run, the children and the terminus flag move to
+         * a new child, leaving this node with the leading characters as its
+         * only child.
+         */
+        private void split(int length) {
+            Node tail = new Node(Arrays.copyOfRange(run, length, run.length));
+            tail.children = children;
+            tail.childCount = childCount;
+            tail.terminus = terminus;
+            run = Arrays.copyOf(run, length);
+            children = new Node[] { tail, null };
+            childCount = 1;
+            terminus = false;
+        }
+    }
+}
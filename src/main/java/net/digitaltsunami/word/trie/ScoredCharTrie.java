@@ -0,0 +1,224 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.trie;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import net.digitaltsunami.word.trie.filter.CharFilter;
+import net.digitaltsunami.word.trie.filter.TermFilter;
+
+/**
+ * A dictionary of terms stored using a Trie structure where each term has a
+ * score, such as its frequency of use, allowing the best completions for a
+ * prefix to be found without enumerating and sorting all terms beginning with
+ * the prefix.
+ * <p>
+ * Each node holds the maximum score of any term within its subtree. The best
+ * completions are found using a best-first search ordered by these maximum
+ * scores, which expands only those subtrees that may contain a term scoring
+ * higher than the completions already found.
+ * <p>
+ * The score of each term is written with the nodes by
+ * {@link #writeTo(java.io.OutputStream)} and restored by
+ * {@link #readFrom(java.io.InputStream)}.
+ * 
+ * @see ScoredCharTrieNode
+ * @author dhagberg
+ * 
+ */
+public class ScoredCharTrie extends CharTrie {
+
+    /**
+     * Create a default dictionary. All terms will be added without any
+     * filtering applied.
+     */
+    public ScoredCharTrie() {
+        this(null, null);
+    }
+
+    /**
+     * Create a dictionary using the provided term and character filters. All
+     * terms added to this dictionary will be passed through these filters prior
+     * to being added. The term filter will be applied first, followed by the
+     * character filter.
+     * 
+     * @param charFilter
+     * @param termFilter
+     */
+    public ScoredCharTrie(CharFilter charFilter, TermFilter termFilter) {
+        super(charFilter, termFilter, new ScoredCharTrieNodeFactory());
+    }
+
+    /**
+     * Add a term to the dictionary with the provided score. If the term already
+     * exists, its score will be replaced. See {@link CharTrie#addTerm(String)}
+     * for the processing applied to the term. Terms added without a score will
+     * be given a score of {@link ScoredCharTrieNode#DEFAULT_SCORE}.
+     * 
+     * @param term
+     *            A string of characters to add.
+     * @param score
+     *            Score of the term, such as its frequency of use.
+     */
+    public void addTerm(String term, float score) {
+        ScoredCharTrieNode node = (ScoredCharTrieNode) insertTerm(term);
+        if (node != null) {
+            node.setScore(score);
+        }
+    }
+
+    /**
+     * Return the score of the provided term.
+     * 
+     * @param term
+     *            Term to query for.
+     * @return the score of the term or {@link Float#NaN} if the term is not
+     *         within the dictionary.
+     */
+    public float getScore(String term) {
+        List<CharTrieNode> nodes = findSequence(term.toLowerCase());
+        if (nodes.isEmpty()) {
+            return Float.NaN;
+        }
+        ScoredCharTrieNode node = (ScoredCharTrieNode) nodes.get(nodes.size() - 1);
+        return node.isTerminus() ? node.getScore() : Float.NaN;
+    }
+
+    /**
+     * Return up to the provided number of terms beginning with the provided
+     * prefix having the highest scores, ordered from highest to lowest score.
+     * The order of terms with equal scores is not specified.
+     * <p>
+     * Unlike {@link #findTerms(String)}, an empty prefix will consider all
+     * terms within the dictionary.
+     * 
+     * @param prefix
+     *            Common prefix to all terms to be returned.
+     * @param k
+     *            Maximum number of terms to return.
+     * @return A list of at most k terms beginning with the provided prefix in
+     *         descending order of score. If no terms found, an empty list will
+     *         be returned.
+     */
+    public List<String> topCompletions(String prefix, int k) {
+        if (k < 1) {
+            return Collections.emptyList();
+        }
+        CharTrieNode start = getRoot();
+        if (prefix.length() > 0) {
+            List<CharTrieNode> prefixNodes = findSequence(prefix.toLowerCase());
+            if (prefixNodes.isEmpty()) {
+                return Collections.emptyList();
+            }
+            start = prefixNodes.get(prefixNodes.size() - 1);
+        }
+
+        List<String> completions = new ArrayList<String>(Math.min(k, 16));
+        PriorityQueue<Candidate> candidates = new PriorityQueue<Candidate>();
+        long sequence = 0;
+        ScoredCharTrieNode startNode = (ScoredCharTrieNode) start;
+        if (startNode.getMaxScore() != Float.NEGATIVE_INFINITY) {
+            candidates.add(new Candidate(startNode, false, startNode.getMaxScore(), sequence++));
+        }
+        /*
+         * The head of the queue is either the highest scoring remaining term or
+         * the subtree that may contain it. When a term is at the head, no
+         * remaining subtree can contain a term scoring higher.
+         */
+        while (!candidates.isEmpty() && completions.size() < k) {
+            Candidate candidate = candidates.poll();
+            ScoredCharTrieNode node = candidate.node;
+            if (candidate.term) {
+                completions.add(node.getTerm());
+                continue;
+            }
+            if (node.isTerminus()) {
+                candidates.add(new Candidate(node, true, node.getScore(), sequence++));
+            }
+            for (CharTrieNode child : node) {
+                ScoredCharTrieNode scoredChild = (ScoredCharTrieNode) child;
+                if (scoredChild.getMaxScore() != Float.NEGATIVE_INFINITY) {
+                    candidates.add(new Candidate(scoredChild, false, scoredChild.getMaxScore(),
+                            sequence++));
+                }
+            }
+        }
+        return completions;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.trie.CharTrie#hasTermData()
+     */
+    @Override
+    protected boolean hasTermData() {
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.CharTrie#writeTermData(java.io.DataOutput,
+     * net.digitaltsunami.word.trie.CharTrieTerminusNode)
+     */
+    @Override
+    protected void writeTermData(DataOutput out, CharTrieTerminusNode node) throws IOException {
+        out.writeFloat(((ScoredCharTrieNode) node).getScore());
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.CharTrie#readTermData(java.io.DataInput,
+     * net.digitaltsunami.word.trie.CharTrieTerminusNode)
+     */
+    @Override
+    protected void readTermData(DataInput in, CharTrieTerminusNode node) throws IOException {
+        ((ScoredCharTrieNode) node).setScore(in.readFloat());
+    }
+
+    /**
+     * Entry within the search queue representing either the term ending at a
+     * node or the subtree rooted at a node. Entries are ordered by descending
+     * priority, with terms before subtrees of the same priority, followed by
+     * the order in which they were added to the queue.
+     * 
+     * @author dhagberg
+     * 
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        private final ScoredCharTrieNode node;
+        private final boolean term;
+        private final float priority;
+        private final long sequence;
+
+        private Candidate(ScoredCharTrieNode node, boolean term, float priority, long sequence) {
+            this.node = node;
+            this.term = term;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int result = Float.compare(other.priority, priority);
+            if (result != 0) {
+                return result;
+            }
+            if (term != other.term) {
+                return term ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.trie;
+
+/**
+ * Lexicographically ordered node holding a score for the term ending at this
+ * node along with the maximum score of any term within the subtree rooted at
+ * this node, including this node.
+ * <p>
+ * The maximum score is maintained as terms are added or their scores change,
+ * allowing a search for the best terms to skip any subtree whose maximum score
+ * can not improve upon the results already found.
+ * 
+ * @see ScoredCharTrie
+ * @author dhagberg
+ * 
+ */
+public class ScoredCharTrieNode extends LexLinkedCharTrieNode {
+    /** Score assigned to new terms if not provided. */
+    public static final float DEFAULT_SCORE = 0.0F;
+
+    private float score = DEFAULT_SCORE;
+    private float maxScore = Float.NEGATIVE_INFINITY;
+
+    /**
+     * Create new Node with the provided value as a child of the provided
+     * parent.
+     * 
+     * @param parent
+     * @param value
+     */
+    protected ScoredCharTrieNode(CharTrieNode parent, char value) {
+        super(parent, value);
+    }
+
+    /**
+     * @param value
+     */
+    public ScoredCharTrieNode(char value) {
+        super(value);
+    }
+
+    /**
+     * @param rootNode
+     */
+    public ScoredCharTrieNode(boolean rootNode) {
+        super(rootNode);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.trie.LexLinkedCharTrieNode#createChild(char)
+     */
+    @Override
+    protected LinkedCharTrieNode createChild(char value) {
+        return new ScoredCharTrieNode(this, value);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.trie.LinkedCharTrieNode#setTerminus(boolean)
+     */
+    @Override
+    protected void setTerminus(boolean terminus) {
+        super.setTerminus(terminus);
+        updateMaxScore();
+    }
+
+    /**
+     * Return the score of the term ending at this node. Only meaningful if
+     * this node is a terminus.
+     * 
+     * @return the score of the term ending at this node.
+     */
+    public float getScore() {
+        return score;
+    }
+
+    /**
+     * Set the score of the term ending at this node and update the maximum
+     * score of this node and its ancestors.
+     * 
+     * @param score
+     *            score of the term ending at this node.
+     */
+    protected void setScore(float score) {
+        this.score = score;
+        updateMaxScore();
+    }
+
+    /**
+     * Return the maximum score of all terms within the subtree rooted at this
+     * node, including this node.
+     * 
+     * @return the maximum score within this subtree or
+     *         {@link Float#NEGATIVE_INFINITY} if the subtree contains no terms.
+     */
+    public float getMaxScore() {
+        return maxScore;
+    }
+
+    /**
+     * Recalculate the maximum score for this node from its own score and the
+     * maximum scores of its children, continuing with each ancestor until the
+     * maximum score of a node is unchanged.
+     */
+    private void updateMaxScore() {
+        ScoredCharTrieNode node = this;
+        while (node != null) {
+            float max = node.isTerminus() ? node.score : Float.NEGATIVE_INFINITY;
+            for (CharTrieNode child : node) {
+                max = Math.max(max, ((ScoredCharTrieNode) child).maxScore);
+            }
+            if (max == node.maxScore) {
+                // Ancestors will not change either.
+                return;
+            }
+            node.maxScore = max;
+            node = (ScoredCharTrieNode) node.getParent();
+        }
+    }
+}
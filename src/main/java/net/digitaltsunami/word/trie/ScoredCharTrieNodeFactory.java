@@ -0,0 +1,35 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.trie;
+
+/**
+ * Implementation of the abstract factory {@link CharTrieNodeFactory} that
+ * creates instances of {@link ScoredCharTrieNode} for both the
+ * {@link CharTrieNode} and {@link CharTrieTerminusNode} interfaces.
+ * 
+ * @see ScoredCharTrie
+ * @author dhagberg
+ * 
+ */
+public class ScoredCharTrieNodeFactory extends LexCharTrieNodeFactory {
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.trie.CharTrieNodeFactory#createNode(char)
+     */
+    @Override
+    public CharTrieNode createNode(char c) {
+        return new ScoredCharTrieNode(c);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.digitaltsunami.word.trie.CharTrieNodeFactory#createRootNode()
+     */
+    @Override
+    public CharTrieNode createRootNode() {
+        return new ScoredCharTrieNode(true);
+    }
+}
@@ -0,0 +1,536 @@
+package net.digitaltsunami.word.trie.event;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.digitaltsunami.word.trie.CharTrieNode;
+import net.digitaltsunami.word.trie.CharTrieTerminusNode;
+
+/**
+ * Dispatches events to the listeners of another {@link NodeEventListenerList}
+ * from a dedicated thread, so the cost of the listeners is not added to the
+ * cost of adding terms. Each event is recorded in a bounded ring buffer as the
+ * node and the type of event, and the dispatching thread delivers the events
+ * in batches, in the order in which they were recorded, through the wrapped
+ * list. Event objects for nodes are created on the dispatching thread, while
+ * those for terms, which carry more than the node, are recorded as dispatched.
+ * <p>
+ * Listeners added to or removed from this list are added to or removed from
+ * the wrapped list. Listeners will be invoked on the dispatching thread and
+ * may observe the dictionary after further terms have been added. Exceptions
+ * thrown by listeners are passed to the uncaught exception handler of the
+ * dispatching thread and do not stop delivery of later events.
+ * <p>
+ * The {@link OverflowPolicy} determines what happens when an event is
+ * dispatched while the buffer is full. Use {@link #flush()} to wait for the
+ * recorded events to be delivered and {@link #shutdown()} to deliver the
+ * remaining events and stop the dispatching thread. Events dispatched after
+ * shutdown are delivered on the calling thread.
+ *
+ * @author dhagberg
+ *
+ */
+public class AsyncNodeEventListenerList extends NodeEventListenerList {
+    /** Default number of events that may be waiting for delivery. */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * Action taken when an event is dispatched while the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait until the dispatching thread makes room for the event. */
+        BLOCK,
+        /** Discard the event. */
+        DROP,
+        /**
+         * Discard character and node added events, but wait to record
+         * terminus character, terminus node and term added events. When
+         * character or node added events for a term have been discarded, a
+         * single replacement event for the term is recorded along with its
+         * terminus event: character added listeners receive
+         * {@link NodeAddedListener#characterAdded(NodeAddedEvent)} and node
+         * added listeners {@link NodeAddedListener#nodeAdded(NodeAddedEvent)}
+         * with the terminus node of the term as the source, in place of the
+         * discarded events. Events recorded before the buffer filled are
+         * still delivered, so a term may be reported by both.
+         */
+        COALESCE
+    }
+
+    private static final byte CHARACTER_ADDED = 0;
+    private static final byte TERMINUS_CHARACTER_ADDED = 1;
+    private static final byte NODE_ADDED = 2;
+    private static final byte TERMINUS_NODE_ADDED = 3;
+    private static final byte TERM_ADDED = 4;
+    private static final byte TERMS_ADDED = 5;
+    /** Replacement for discarded character added events of a term. */
+    private static final byte CHARACTERS_COALESCED = 6;
+    /** Replacement for discarded node added events of a term. */
+    private static final byte NODES_COALESCED = 7;
+
+    /** Maximum number of events delivered for each acquisition of the lock. */
+    private static final int BATCH_SIZE = 256;
+    /** Used to assign a unique name to each dispatching thread. */
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /** List holding the listeners to which events will be delivered. */
+    private final NodeEventListenerList delegate;
+    private final OverflowPolicy policy;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition delivered = lock.newCondition();
+
+    /** Type of each recorded event. */
+    private final byte[] types;
+    /** Node, term event or list of term events for each recorded event. */
+    private final Object[] payloads;
+    /** Position of the oldest recorded event. */
+    private int head;
+    /** Number of recorded events. */
+    private int count;
+    /** Number of events removed from the buffer but not yet delivered. */
+    private int inFlight;
+    private boolean shutdown;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * Whether character and node added events, respectively, have been
+     * discarded for the term being added by each thread.
+     */
+    private final ThreadLocal<boolean[]> coalesced = new ThreadLocal<boolean[]>() {
+        @Override
+        protected boolean[] initialValue() {
+            return new boolean[2];
+        }
+    };
+    private final Thread dispatcher;
+
+    /**
+     * Create a list dispatching to the listeners of the provided list with a
+     * buffer of {@link #DEFAULT_CAPACITY} events that blocks when full.
+     *
+     * @param delegate
+     *            list holding the listeners to which events will be delivered.
+     */
+    public AsyncNodeEventListenerList(NodeEventListenerList delegate) {
+        this(delegate, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Create a list dispatching to the listeners of the provided list.
+     *
+     * @param delegate
+     *            list holding the listeners to which events will be delivered.
+     * @param capacity
+     *            maximum number of events waiting for delivery.
+     * @param policy
+     *            action taken when an event is dispatched while the buffer is
+     *            full.
+     */
+    public AsyncNodeEventListenerList(NodeEventListenerList delegate, int capacity,
+            OverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        this.delegate = delegate;
+        this.policy = policy;
+        this.types = new byte[capacity];
+        this.payloads = new Object[capacity];
+        this.dispatcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                deliverEvents();
+            }
+        }, "node-event-dispatch-" + threadCount.incrementAndGet());
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Return the list holding the listeners to which events are delivered.
+     *
+     * @return the list to which events are delivered.
+     */
+    public NodeEventListenerList getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Return the number of events discarded because the buffer was full.
+     *
+     * @return the number of events discarded.
+     */
+    public long getDroppedEventCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Wait until all events recorded prior to this call have been delivered.
+     * Returns immediately if invoked from a listener.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting.
+     */
+    public void flush() throws InterruptedException {
+        if (Thread.currentThread() == dispatcher) {
+            return;
+        }
+        lock.lockInterruptibly();
+        try {
+            while (count > 0 || inFlight > 0) {
+                delivered.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deliver all recorded events and stop the dispatching thread. Events
+     * dispatched after this call are delivered on the calling thread.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the events to be delivered.
+     */
+    public void shutdown() throws InterruptedException {
+        lock.lock();
+        try {
+            shutdown = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (Thread.currentThread() != dispatcher) {
+            dispatcher.join();
+        }
+    }
+
+    /**
+     * Return true if the dispatching thread has been asked to stop.
+     *
+     * @return true if {@link #shutdown()} has been invoked.
+     */
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addCharacterAddedListener(NodeAddedListener listener) {
+        delegate.addCharacterAddedListener(listener);
+    }
+
+    @Override
+    public void removeCharacterAddedListener(NodeAddedListener listener) {
+        delegate.removeCharacterAddedListener(listener);
+    }
+
+    @Override
+    public void addTerminusCharacterAddedListener(NodeAddedListener listener) {
+        delegate.addTerminusCharacterAddedListener(listener);
+    }
+
+    @Override
+    public void removeTerminusCharacterAddedListener(NodeAddedListener listener) {
+        delegate.removeTerminusCharacterAddedListener(listener);
+    }
+
+    @Override
+    public void addNodeAddedListener(NodeAddedListener listener) {
+        delegate.addNodeAddedListener(listener);
+    }
+
+    @Override
+    public void removeNodeAddedListener(NodeAddedListener listener) {
+        delegate.removeNodeAddedListener(listener);
+    }
+
+    @Override
+    public void addTerminusNodeAddedListener(NodeAddedListener listener) {
+        delegate.addTerminusNodeAddedListener(listener);
+    }
+
+    @Override
+    public void removeTerminusNodeAddedListener(NodeAddedListener listener) {
+        delegate.removeTerminusNodeAddedListener(listener);
+    }
+
+    @Override
+    public void addTermAddedListener(TermAddedListener listener) {
+        delegate.addTermAddedListener(listener);
+    }
+
+    @Override
+    public void removeTermAddedListener(TermAddedListener listener) {
+        delegate.removeTermAddedListener(listener);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.event.NodeEventListenerList#dispatchCharacterAddedEvent
+     * (net.digitaltsunami.word.trie.CharTrieNode)
+     */
+    @Override
+    public void dispatchCharacterAddedEvent(CharTrieNode node) {
+        if (delegate.hasCharacterAddedListeners()) {
+            record(CHARACTER_ADDED, node);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.event.NodeEventListenerList#
+     * dispatchTerminusCharacterAddedEvent
+     * (net.digitaltsunami.word.trie.CharTrieTerminusNode)
+     */
+    @Override
+    public void dispatchTerminusCharacterAddedEvent(CharTrieTerminusNode node) {
+        recordCoalesced(node);
+        if (delegate.hasTerminusCharacterAddedListeners()) {
+            record(TERMINUS_CHARACTER_ADDED, node);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.event.NodeEventListenerList#dispatchNodeAddedEvent
+     * (net.digitaltsunami.word.trie.CharTrieNode)
+     */
+    @Override
+    public void dispatchNodeAddedEvent(CharTrieNode node) {
+        if (delegate.hasNodeAddedListeners()) {
+            record(NODE_ADDED, node);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see net.digitaltsunami.word.trie.event.NodeEventListenerList#
+     * dispatchTerminusNodeAddedEvent
+     * (net.digitaltsunami.word.trie.CharTrieTerminusNode)
+     */
+    @Override
+    public void dispatchTerminusNodeAddedEvent(CharTrieTerminusNode node) {
+        recordCoalesced(node);
+        if (delegate.hasTerminusNodeAddedListeners()) {
+            record(TERMINUS_NODE_ADDED, node);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.event.NodeEventListenerList#dispatchTermAddedEvent
+     * (net.digitaltsunami.word.trie.CharTrieTerminusNode, int, boolean)
+     */
+    @Override
+    public void dispatchTermAddedEvent(CharTrieTerminusNode node, int newNodeCount,
+            boolean newTerm) {
+        if (delegate.hasTermAddedListeners()) {
+            record(TERM_ADDED, new TermAddedEvent(node, newNodeCount, newTerm));
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.event.NodeEventListenerList#dispatchTermAddedEvent
+     * (net.digitaltsunami.word.trie.event.TermAddedEvent)
+     */
+    @Override
+    public void dispatchTermAddedEvent(TermAddedEvent event) {
+        if (delegate.hasTermAddedListeners()) {
+            record(TERM_ADDED, event);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * net.digitaltsunami.word.trie.event.NodeEventListenerList#dispatchTermsAddedEvent
+     * (java.util.List)
+     */
+    @Override
+    public void dispatchTermsAddedEvent(List<TermAddedEvent> events) {
+        if (delegate.hasTermAddedListeners()) {
+            record(TERMS_ADDED, events);
+        }
+    }
+
+    @Override
+    public boolean hasTermAddedListeners() {
+        return delegate.hasTermAddedListeners();
+    }
+
+    @Override
+    protected boolean hasCharacterAddedListeners() {
+        return delegate.hasCharacterAddedListeners();
+    }
+
+    @Override
+    protected boolean hasTerminusCharacterAddedListeners() {
+        return delegate.hasTerminusCharacterAddedListeners();
+    }
+
+    @Override
+    protected boolean hasNodeAddedListeners() {
+        return delegate.hasNodeAddedListeners();
+    }
+
+    @Override
+    protected boolean hasTerminusNodeAddedListeners() {
+        return delegate.hasTerminusNodeAddedListeners();
+    }
+
+    /**
+     * Record the replacement events for the character and node added events
+     * discarded while adding the term ending at the provided node.
+     */
+    private void recordCoalesced(CharTrieTerminusNode node) {
+        if (policy != OverflowPolicy.COALESCE) {
+            return;
+        }
+        boolean[] discarded = coalesced.get();
+        if (discarded[0]) {
+            discarded[0] = false;
+            record(CHARACTERS_COALESCED, node);
+        }
+        if (discarded[1]) {
+            discarded[1] = false;
+            record(NODES_COALESCED, node);
+        }
+    }
+
+    /**
+     * Record the event for delivery, applying the overflow policy if the
+     * buffer is full.
+     */
+    private void record(byte type, Object payload) {
+        if (Thread.currentThread() == dispatcher) {
+            // Terms added by a listener; waiting for room would never end.
+            deliver(type, payload);
+            return;
+        }
+        lock.lock();
+        try {
+            while (count == types.length && !shutdown) {
+                boolean perCharacter = type == CHARACTER_ADDED || type == NODE_ADDED;
+                if (policy == OverflowPolicy.DROP) {
+                    droppedCount.incrementAndGet();
+                    return;
+                }
+                if (policy == OverflowPolicy.COALESCE && perCharacter) {
+                    coalesced.get()[type == CHARACTER_ADDED ? 0 : 1] = true;
+                    droppedCount.incrementAndGet();
+                    return;
+                }
+                notFull.awaitUninterruptibly();
+            }
+            if (!shutdown) {
+                int tail = (head + count) % types.length;
+                types[tail] = type;
+                payloads[tail] = payload;
+                count++;
+                notEmpty.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Dispatching thread has stopped; deliver on this thread.
+        deliver(type, payload);
+    }
+
+    /**
+     * Deliver events in batches until shutdown and all recorded events have
+     * been delivered.
+     */
+    private void deliverEvents() {
+        byte[] batchTypes = new byte[Math.min(BATCH_SIZE, types.length)];
+        Object[] batchPayloads = new Object[batchTypes.length];
+        while (true) {
+            int batchSize;
+            lock.lock();
+            try {
+                inFlight = 0;
+                delivered.signalAll();
+                while (count == 0 && !shutdown) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (count == 0) {
+                    return;
+                }
+                batchSize = Math.min(count, batchTypes.length);
+                for (int i = 0; i < batchSize; i++) {
+                    batchTypes[i] = types[head];
+                    batchPayloads[i] = payloads[head];
+                    payloads[head] = null;
+                    head = (head + 1) % types.length;
+                }
+                count -= batchSize;
+                inFlight = batchSize;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            for (int i = 0; i < batchSize; i++) {
+                try {
+                    deliver(batchTypes[i], batchPayloads[i]);
+                } catch (RuntimeException e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+                batchPayloads[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Deliver the event to the listeners of the wrapped list.
+     */
+    @SuppressWarnings("unchecked")
+    private void deliver(byte type, Object payload) {
+        switch (type) {
+        case CHARACTER_ADDED:
+        case CHARACTERS_COALESCED:
+            delegate.dispatchCharacterAddedEvent((CharTrieNode) payload);
+            break;
+        case TERMINUS_CHARACTER_ADDED:
+            delegate.dispatchTerminusCharacterAddedEvent((CharTrieTerminusNode) payload);
+            break;
+        case NODE_ADDED:
+        case NODES_COALESCED:
+            delegate.dispatchNodeAddedEvent((CharTrieNode) payload);
+            break;
+        case TERM_ADDED:
+            delegate.dispatchTermAddedEvent((TermAddedEvent) payload);
+            break;
+        case TERMS_ADDED:
+            delegate.dispatchTermsAddedEvent((List<TermAddedEvent>) payload);
+            break;
+        default:
+            delegate.dispatchTerminusNodeAddedEvent((CharTrieTerminusNode) payload);
+            break;
+        }
+    }
+}
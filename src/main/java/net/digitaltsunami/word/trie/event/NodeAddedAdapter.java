@@ -0,0 +1,60 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.trie.event;
+
+/**
+ * An abstract adapter class for receiving node added events. The methods in
+ * this class are empty, allowing a listener to override only the methods for
+ * the events of interest.
+ * 
+ * @see NodeAddedListener
+ * @author dhagberg
+ * 
+ */
+public abstract class NodeAddedAdapter implements NodeAddedListener {
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.event.NodeAddedListener#characterAdded(net
+     * .digitaltsunami.word.trie.event.NodeAddedEvent)
+     */
+    @Override
+    public void characterAdded(NodeAddedEvent event) {
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.event.NodeAddedListener#terminusCharacterAdded
+     * (net.digitaltsunami.word.trie.event.TerminusNodeAddedEvent)
+     */
+    @Override
+    public void terminusCharacterAdded(TerminusNodeAddedEvent event) {
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.event.NodeAddedListener#nodeAdded(net.digitaltsunami
+     * .word.trie.event.NodeAddedEvent)
+     */
+    @Override
+    public void nodeAdded(NodeAddedEvent event) {
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.event.NodeAddedListener#terminusNodeAdded(
+     * net.digitaltsunami.word.trie.event.TerminusNodeAddedEvent)
+     */
+    @Override
+    public void terminusNodeAdded(TerminusNodeAddedEvent event) {
+    }
+}
@@ -1,6 +1,7 @@
 package net.digitaltsunami.word.trie.event;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import net.digitaltsunami.word.trie.CharTrieNode;
 import net.digitaltsunami.word.trie.CharTrieTerminusNode;
@@ -28,7 +29,16 @@ import net.digitaltsunami.word.trie.CharTrieTerminusNode;
  * and for existing non-terminus nodes that are converted see
  * {@link #addTerminusNodeAddedListener(NodeAddedListener)} for more information
  * regarding conversion.
+ * <li><em>Term added</em> - Will be fired once for each term that is added,
+ * whether or not the term had previously been added, through a
+ * {@link TermAddedListener}. Terms added as a batch are delivered in a single
+ * notification. Listeners interested only in terms should use this event
+ * rather than the per character events, as no work is done for the
+ * characters of a term.</li>
  * </ul>
+ * <p>
+ * Listeners may be added and removed while events are being dispatched, and
+ * events may be dispatched from multiple threads concurrently.
  * 
  * @author dhagberg
  * 
@@ -38,12 +48,14 @@ public class NodeEventListenerList {
     private final java.util.List<NodeAddedListener> nodeListeners;
     private final java.util.List<NodeAddedListener> terminusNodeListeners;
     private final java.util.List<NodeAddedListener> terminusCharacterListeners;
+    private final java.util.List<TermAddedListener> termListeners;
 
     public NodeEventListenerList() {
-        characterListeners = new ArrayList<NodeAddedListener>();
-        nodeListeners = new ArrayList<NodeAddedListener>();
-        terminusCharacterListeners = new ArrayList<NodeAddedListener>();
-        terminusNodeListeners = new ArrayList<NodeAddedListener>();
+        characterListeners = new CopyOnWriteArrayList<NodeAddedListener>();
+        nodeListeners = new CopyOnWriteArrayList<NodeAddedListener>();
+        terminusCharacterListeners = new CopyOnWriteArrayList<NodeAddedListener>();
+        terminusNodeListeners = new CopyOnWriteArrayList<NodeAddedListener>();
+        termListeners = new CopyOnWriteArrayList<TermAddedListener>();
     }
 
     /**
@@ -188,6 +200,29 @@ public class NodeEventListenerList {
         terminusNodeListeners.remove(listener);
     }
 
+    /**
+     * Add a listener for events fired once for each term that is added.
+     * <p>
+     * Listeners on this event will be notified for each term added to the
+     * dictionary regardless of prior status. Notification will be through the
+     * invocation of {@link TermAddedListener#termAdded(TermAddedEvent)} for
+     * terms added individually and
+     * {@link TermAddedListener#termsAdded(List)} for terms added as a batch.
+     * 
+     * @param listener
+     *            interested when a term is added.
+     */
+    public void addTermAddedListener(TermAddedListener listener) {
+        termListeners.add(listener);
+    }
+
+    /**
+     * Remove the specified listener for events fired as each term is added.
+     */
+    public void removeTermAddedListener(TermAddedListener listener) {
+        termListeners.remove(listener);
+    }
+
     /**
      * Notify all character added listeners that a character has been added and
      * provide the node for the character.
@@ -251,4 +286,92 @@ public class NodeEventListenerList {
             }
         }
     }
+
+    /**
+     * Notify all term added listeners that a term has been added.
+     * 
+     * @param node
+     *            Terminus node for the term.
+     * @param newNodeCount
+     *            Number of nodes created for the term.
+     * @param newTerm
+     *            True if the term was not previously within the dictionary.
+     */
+    public void dispatchTermAddedEvent(CharTrieTerminusNode node, int newNodeCount,
+            boolean newTerm) {
+        if (termListeners.size() > 0) {
+            dispatchTermAddedEvent(new TermAddedEvent(node, newNodeCount, newTerm));
+        }
+    }
+
+    /**
+     * Notify all term added listeners of the provided event.
+     * 
+     * @param event
+     *            Event for the term that was added.
+     */
+    public void dispatchTermAddedEvent(TermAddedEvent event) {
+        for (TermAddedListener listener : termListeners) {
+            listener.termAdded(event);
+        }
+    }
+
+    /**
+     * Notify all term added listeners that a batch of terms has been added.
+     * 
+     * @param events
+     *            Event for each term in the order the terms were added.
+     */
+    public void dispatchTermsAddedEvent(List<TermAddedEvent> events) {
+        for (TermAddedListener listener : termListeners) {
+            listener.termsAdded(events);
+        }
+    }
+
+    /**
+     * Return true if there are listeners for term added events. Used to avoid
+     * collecting the events for a batch of terms that no listener will
+     * receive.
+     * 
+     * @return true if there are listeners for term added events.
+     */
+    public boolean hasTermAddedListeners() {
+        return termListeners.size() > 0;
+    }
+
+    /**
+     * Return true if there are listeners for character added events.
+     * 
+     * @return true if there are listeners for character added events.
+     */
+    protected boolean hasCharacterAddedListeners() {
+        return characterListeners.size() > 0;
+    }
+
+    /**
+     * Return true if there are listeners for terminus character added events.
+     * 
+     * @return true if there are listeners for terminus character added events.
+     */
+    protected boolean hasTerminusCharacterAddedListeners() {
+        return terminusCharacterListeners.size() > 0;
+    }
+
+    /**
+     * Return true if there are listeners for node added events.
+     * 
+     * @return true if there are listeners for node added events.
+     */
+    protected boolean hasNodeAddedListeners() {
+        return nodeListeners.size() > 0;
+    }
+
+    /**
+     * Return true if there are listeners for terminus node added events.
+     * 
+     * @return true if there are listeners for terminus node added events.
+     */
+    protected boolean hasTerminusNodeAddedListeners() {
+        return terminusNodeListeners.size() > 0;
+    }
 }
@@ -0,0 +1,32 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.trie.event;
+
+import java.util.List;
+
+/**
+ * An abstract adapter class for receiving term added events. Batches of terms
+ * are delivered to {@link #termAdded(TermAddedEvent)} one event at a time,
+ * allowing a listener to handle all terms in a single method.
+ * 
+ * @see TermAddedListener
+ * @author dhagberg
+ * 
+ */
+public abstract class TermAddedAdapter implements TermAddedListener {
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * net.digitaltsunami.word.trie.event.TermAddedListener#termsAdded(java.
+     * util.List)
+     */
+    @Override
+    public void termsAdded(List<TermAddedEvent> events) {
+        for (TermAddedEvent event : events) {
+            termAdded(event);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package net.digitaltsunami.word.trie.event;
+
+import java.util.EventObject;
+
+import net.digitaltsunami.word.trie.CharTrieTerminusNode;
+
+/**
+ * Event dispatched once for each term added to a dictionary, summarizing the
+ * changes made to the dictionary for the term.
+ * 
+ * @author dhagberg
+ */
+public class TermAddedEvent extends EventObject {
+
+    private static final long serialVersionUID = -4373262957913627011L;
+
+    private final int newNodeCount;
+    private final boolean newTerm;
+
+    /**
+     * Create a new event for the term ending at the provided terminus node.
+     * 
+     * @param source
+     *            terminus node for the term that was added.
+     * @param newNodeCount
+     *            number of nodes created for the term, including the terminus
+     *            node.
+     * @param newTerm
+     *            true if the term was not previously within the dictionary.
+     */
+    public TermAddedEvent(CharTrieTerminusNode source, int newNodeCount, boolean newTerm) {
+        super(source);
+        this.newNodeCount = newNodeCount;
+        this.newTerm = newTerm;
+    }
+
+    /**
+     * Return the terminus node for the term that was added.
+     * 
+     * @return terminus node for the term.
+     */
+    public CharTrieTerminusNode getTerminusNode() {
+        return (CharTrieTerminusNode) getSource();
+    }
+
+    /**
+     * Return the number of nodes created for the term, including the terminus
+     * node. Will be zero if the term previously existed or if its terminus
+     * was an existing node that was converted.
+     * 
+     * @return number of nodes created for the term.
+     */
+    public int getNewNodeCount() {
+        return newNodeCount;
+    }
+
+    /**
+     * Return true if the term was not previously within the dictionary.
+     * 
+     * @return true if the term is new to the dictionary.
+     */
+    public boolean isNewTerm() {
+        return newTerm;
+    }
+}
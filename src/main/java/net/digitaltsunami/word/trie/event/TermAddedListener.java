@@ -0,0 +1,46 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.trie.event;
+
+import java.util.EventListener;
+import java.util.List;
+
+import net.digitaltsunami.word.trie.CharTrie;
+
+/**
+ * The listener interface for when terms are added. Rather than a notification
+ * for each character of a term as provided by {@link NodeAddedListener}, a
+ * single notification is made for each term, providing the terminus node for
+ * the term, the number of nodes created and whether or not the term is new.
+ * Terms added as a batch are delivered in a single notification.
+ * 
+ * @see NodeEventListenerList
+ * @see CharTrie
+ * 
+ * @author dhagberg
+ * 
+ */
+public interface TermAddedListener extends EventListener {
+    /**
+     * Method used to notify listener as each term is added to the dictionary
+     * through {@link CharTrie#addTerm(String)} regardless of prior status.
+     * 
+     * @param event
+     *            containing the terminus node for the term and the changes made
+     *            to add it.
+     */
+    public void termAdded(TermAddedEvent event);
+
+    /**
+     * Method used to notify listener as a batch of terms is added to the
+     * dictionary through {@link CharTrie#addTerms(Iterable)} or
+     * {@link CharTrie#addSortedTerms(java.util.Iterator)}. A large batch may
+     * be delivered over several invocations.
+     * 
+     * @param events
+     *            an event for each term added in the order the terms were
+     *            added.
+     */
+    public void termsAdded(List<TermAddedEvent> events);
+}
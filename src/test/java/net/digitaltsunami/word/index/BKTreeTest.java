@@ -0,0 +1,137 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import net.digitaltsunami.word.sequence.EditDistance;
+import net.digitaltsunami.word.sequence.EditDistanceCalculator;
+import net.digitaltsunami.word.sequence.LevenshteinDistanceStrategy;
+import net.digitaltsunami.word.trie.CharTrie;
+
+import org.junit.Test;
+
+/**
+ * Test that the {@link BKTree} finds the same terms as a scan of all terms.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class BKTreeTest {
+
+    /**
+     * Test queries against a small set of terms.
+     */
+    @Test
+    public void testGetAllWithinDistance() {
+        BKTree tree = new BKTree(new LevenshteinDistanceStrategy(), Arrays.asList("flag",
+                "flagrant", "frag", "fang", "fast", "flog", "plan"));
+        assertEquals(7, tree.size());
+        assertFalse(tree.add("flag"));
+        assertEquals(7, tree.size());
+
+        assertEquals(Arrays.asList("flag"), tree.getAllWithinDistance("flag", 0));
+        assertEquals(Arrays.asList("flag", "flog", "frag"), tree.getAllWithinDistance("flag", 1));
+        assertEquals(Arrays.asList("flag", "flog", "frag", "fang", "plan"),
+                tree.getAllWithinDistance("flag", 2));
+        assertEquals(0, tree.getAllWithinDistance("zzzzzz", 2).size());
+        assertEquals(0, tree.getAllWithinDistance("flag", -1).size());
+        assertEquals(0, new BKTree().getAllWithinDistance("flag", 2).size());
+    }
+
+    /**
+     * Test that the nearest terms are returned in order of distance.
+     */
+    @Test
+    public void testGetNearest() {
+        BKTree tree = new BKTree(new LevenshteinDistanceStrategy(), Arrays.asList("flag",
+                "flagrant", "frag", "fang", "fast", "flog", "plan"));
+        assertEquals(Arrays.asList("flag"), tree.getNearest("flag", 1));
+        assertEquals(Arrays.asList("flag", "flog", "frag"), tree.getNearest("flag", 3));
+        assertEquals(Arrays.asList("flog", "flag"), tree.getNearest("flogs", 2));
+        assertEquals(7, tree.getNearest("x", 10).size());
+        assertEquals(0, tree.getNearest("flag", 0).size());
+    }
+
+    /**
+     * Test that the results match a scan of all terms for random terms.
+     */
+    @Test
+    public void testMatchesScan() {
+        Random random = new Random(13);
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 2000; i++) {
+            terms.add(randomTerm(random));
+        }
+        BKTree tree = new BKTree(new LevenshteinDistanceStrategy(), terms);
+        assertEquals(new HashSet<String>(terms).size(), tree.size());
+        EditDistanceCalculator calculator = new EditDistanceCalculator(
+                new LevenshteinDistanceStrategy());
+
+        for (int i = 0; i < 50; i++) {
+            String query = randomTerm(random);
+            for (int max = 0; max <= 3; max++) {
+                List<String> expected = new ArrayList<String>(new HashSet<String>(
+                        EditDistance.getAllWithinDistance(terms, query, max, calculator)));
+                List<String> actual = tree.getAllWithinDistance(query, max);
+                Collections.sort(expected);
+                List<String> sortedActual = new ArrayList<String>(actual);
+                Collections.sort(sortedActual);
+                assertEquals(expected, sortedActual);
+            }
+
+            // Distances of the nearest terms must match the smallest distances.
+            List<Integer> allDistances = new ArrayList<Integer>();
+            for (String term : new HashSet<String>(terms)) {
+                allDistances.add(LevenshteinDistanceStrategy.calculateEditCount(query, term));
+            }
+            Collections.sort(allDistances);
+            List<String> nearest = tree.getNearest(query, 10);
+            assertEquals(10, nearest.size());
+            for (int n = 0; n < nearest.size(); n++) {
+                assertEquals(allDistances.get(n).intValue(),
+                        LevenshteinDistanceStrategy.calculateEditCount(query, nearest.get(n)));
+            }
+        }
+    }
+
+    /**
+     * Test that the index is built from a dictionary and kept current by a
+     * {@link TermIndexListener}.
+     */
+    @Test
+    public void testFromDictionary() {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("flag");
+        dict.addTerm("frag");
+        BKTree tree = new BKTree(new LevenshteinDistanceStrategy(), dict);
+        dict.addTerminusNodeAddedListener(new TermIndexListener(tree));
+        dict.addTerm("Flog");
+        dict.addTerm("flag");
+        dict.addTerm("fla");
+
+        assertEquals(4, tree.size());
+        List<String> found = tree.getAllWithinDistance("flag", 1);
+        assertEquals(Arrays.asList("flag", "fla", "flog", "frag"), found);
+        assertTrue(tree.getAllWithinDistance("flagg", 1).contains("flag"));
+    }
+
+    private String randomTerm(Random random) {
+        int len = 1 + random.nextInt(8);
+        StringBuilder sb = new StringBuilder(len);
+        for (int c = 0; c < len; c++) {
+            sb.append((char) ('a' + random.nextInt(6)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import net.digitaltsunami.word.sequence.DamerauLevenshteinDistanceStrategy;
+import net.digitaltsunami.word.sequence.EditDistance;
+import net.digitaltsunami.word.sequence.EditDistanceCalculator;
+import net.digitaltsunami.word.trie.CharTrie;
+
+import org.junit.Test;
+
+/**
+ * Test that the {@link DeletionIndex} suggests the same terms as a scan of all
+ * terms.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class DeletionIndexTest {
+
+    /**
+     * Test suggestions from a small set of terms, including a transposition.
+     */
+    @Test
+    public void testSuggest() {
+        DeletionIndex index = new DeletionIndex(2);
+        for (String term : new String[] { "flag", "flagrant", "frag", "fang", "fast", "flog",
+                "plan" }) {
+            assertTrue(index.add(term));
+        }
+        assertFalse(index.add("flag"));
+        assertEquals(7, index.size());
+
+        assertEquals(Arrays.asList("flag"), index.suggest("flag", 0));
+        assertEquals(Arrays.asList("flag", "flog", "frag"), index.suggest("flag", 1));
+        assertEquals(Arrays.asList("fang", "flag"), index.suggest("falg", 1));
+        assertEquals(Arrays.asList("flagrant"), index.suggest("flagarnt", 2));
+        assertEquals(0, index.suggest("zzzzzz", 2).size());
+    }
+
+    /**
+     * Test that queries beyond the maximum supported edits are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSuggestBeyondMaxEdits() {
+        new DeletionIndex(1).suggest("flag", 2);
+    }
+
+    /**
+     * Test that the prefix length must exceed the maximum edits.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPrefixLength() {
+        new DeletionIndex(2, 2);
+    }
+
+    /**
+     * Test that suggestions match a scan of all terms for random terms, using
+     * a short prefix so that most terms are longer than the prefix.
+     */
+    @Test
+    public void testMatchesScan() {
+        Random random = new Random(19);
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++) {
+            terms.add(randomTerm(random));
+        }
+        EditDistanceCalculator calculator = new EditDistanceCalculator(
+                new DamerauLevenshteinDistanceStrategy());
+        for (int prefixLength : new int[] { 3, 5, 20 }) {
+            DeletionIndex index = new DeletionIndex(2, prefixLength);
+            for (String term : terms) {
+                index.add(term);
+            }
+            index.trimToSize();
+            assertEquals(new HashSet<String>(terms).size(), index.size());
+
+            for (int i = 0; i < 100; i++) {
+                String query = randomTerm(random);
+                for (int max = 0; max <= 2; max++) {
+                    List<String> expected = new ArrayList<String>(new HashSet<String>(
+                            EditDistance.getAllWithinDistance(terms, query, max, calculator)));
+                    List<String> actual = new ArrayList<String>(index.suggest(query, max));
+                    Collections.sort(expected);
+                    Collections.sort(actual);
+                    assertEquals(query + " " + max, expected, actual);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that a shorter prefix produces fewer deletions.
+     */
+    @Test
+    public void testPrefixLimitsDeletions() {
+        DeletionIndex shortPrefix = new DeletionIndex(2, 4);
+        DeletionIndex longPrefix = new DeletionIndex(2, 10);
+        for (String term : new String[] { "flagrant", "fragrance", "flamboyant" }) {
+            shortPrefix.add(term);
+            longPrefix.add(term);
+        }
+        assertTrue(shortPrefix.getDeletionCount() < longPrefix.getDeletionCount());
+    }
+
+    /**
+     * Test that the index is built from a dictionary and kept current by a
+     * {@link TermIndexListener}.
+     */
+    @Test
+    public void testFromDictionary() {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("flag");
+        DeletionIndex index = new DeletionIndex(1, 5, dict);
+        dict.addTerminusNodeAddedListener(new TermIndexListener(index));
+        dict.addTerm("Frag");
+        assertEquals(2, index.size());
+        assertEquals(Arrays.asList("flag", "frag"), index.suggest("flag", 1));
+    }
+
+    private String randomTerm(Random random) {
+        int len = 1 + random.nextInt(9);
+        StringBuilder sb = new StringBuilder(len);
+        for (int c = 0; c < len; c++) {
+            sb.append((char) ('a' + random.nextInt(5)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import net.digitaltsunami.word.sequence.DamerauLevenshteinDistanceStrategy;
+import net.digitaltsunami.word.sequence.EditDistance;
+import net.digitaltsunami.word.sequence.EditDistanceCalculator;
+import net.digitaltsunami.word.trie.CharTrie;
+
+import org.junit.Test;
+
+/**
+ * Test that the {@link QGramIndex} finds the same terms as a scan of all
+ * terms.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class QGramIndexTest {
+
+    /**
+     * Test candidates, similar terms and suggestions from a small set of
+     * terms.
+     */
+    @Test
+    public void testQueries() {
+        QGramIndex index = new QGramIndex();
+        for (String term : new String[] { "flag", "flagrant", "frag", "fang", "fast", "flog",
+                "plan" }) {
+            assertTrue(index.add(term));
+        }
+        assertFalse(index.add("flag"));
+        assertEquals(7, index.size());
+
+        // flag padded: ##f, #fl, fla, lag, ag#, g## - 6 q-grams.
+        assertEquals(6, index.getMinSharedGrams("flag", 0));
+        assertEquals(3, index.getMinSharedGrams("flag", 1));
+        // All but plan share ##f, frag shares ag# and g##, fang and flog g##.
+        assertEquals(Arrays.asList("flag", "flagrant", "frag", "fang", "flog"), index
+                .getCandidates("flag", 2));
+        assertEquals(Arrays.asList("flag", "flagrant", "frag", "flog"), index.getCandidates(
+                "flag", 3));
+        assertEquals(Arrays.asList("flag"), index.getCandidates("flag", 6));
+
+        assertEquals(Arrays.asList("flag"), index.suggest("flag", 0));
+        assertEquals(Arrays.asList("flag", "flog", "frag"), index.suggest("flag", 1));
+        assertEquals(Arrays.asList("flagrant"), index.suggest("flagrnt", 1));
+        assertEquals(0, index.suggest("zzzzzz", 2).size());
+        assertEquals(0, index.suggest("flag", -1).size());
+
+        assertEquals(Arrays.asList("flag", "flog", "frag", "fang", "flagrant"), index
+                .findSimilar("flag", 2, 0.5));
+        assertEquals(Arrays.asList("flag", "flog", "frag"), index.findSimilar("flag", 3, 0.75));
+        assertEquals(Arrays.asList("flag"), index.findSimilar("flag", 2, 1.0));
+    }
+
+    /**
+     * Test that terms sharing no q-gram with a query too short for the
+     * q-grams to exclude them are still suggested.
+     */
+    @Test
+    public void testSuggestNoSharedGrams() {
+        QGramIndex index = new QGramIndex();
+        index.add("abce");
+        index.add("xbcy");
+        index.add("zzzzzzzz");
+        assertEquals(Arrays.asList("abce", "xbcy"), index.suggest("abcd", 2));
+        assertEquals(Arrays.asList("abce"), index.suggest("abcd", 1));
+        assertEquals(Arrays.asList("abce", "xbcy", "zzzzzzzz"), index.suggest("abcd",
+                Integer.MAX_VALUE));
+        assertEquals(3, index.suggest("", 8).size());
+        assertEquals(Arrays.asList("abce", "xbcy"), index.suggest("q", 4));
+    }
+
+    /**
+     * Test that the minimum number of shared q-grams must be positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMinSharedGrams() {
+        new QGramIndex().getCandidates("flag", 0);
+    }
+
+    /**
+     * Test that suggestions match a scan of all terms for random terms long
+     * enough for the q-grams to exclude terms.
+     */
+    @Test
+    public void testMatchesScan() {
+        Random random = new Random(23);
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++) {
+            terms.add(randomTerm(random));
+        }
+        EditDistanceCalculator calculator = new EditDistanceCalculator();
+        for (int q = 2; q <= 3; q++) {
+            QGramIndex index = new QGramIndex(q, calculator);
+            for (String term : terms) {
+                index.add(term);
+            }
+            index.trimToSize();
+            assertEquals(new HashSet<String>(terms).size(), index.size());
+
+            for (int i = 0; i < 100; i++) {
+                String query = randomTerm(random);
+                for (int max = 0; max <= 4; max++) {
+                    List<String> expected = new ArrayList<String>(new HashSet<String>(
+                            EditDistance.getAllWithinDistance(terms, query, max, calculator)));
+                    List<String> actual = new ArrayList<String>(index.suggest(query, max));
+                    Collections.sort(expected);
+                    Collections.sort(actual);
+                    assertEquals(query + " " + max, expected, actual);
+                }
+                int minShared = index.getMinSharedGrams(query, 2);
+                List<String> candidates = index.getCandidates(query, Math.max(1, minShared));
+                assertTrue(candidates.size() < index.size());
+                for (String similar : index.findSimilar(query, Math.max(1, minShared), 0.75)) {
+                    assertTrue(candidates.contains(similar));
+                    assertTrue(calculator.getNormalizedEditDistance(query, similar) >= 0.75);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that suggestions verified using a strategy counting transpositions
+     * as a single edit match a scan of all terms, including terms differing
+     * from the query only by transpositions.
+     */
+    @Test
+    public void testMatchesScanTranspositions() {
+        Random random = new Random(29);
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 2000; i++) {
+            terms.add(randomTerm(random));
+        }
+        EditDistanceCalculator calculator = new EditDistanceCalculator(
+                new DamerauLevenshteinDistanceStrategy());
+        for (int q = 2; q <= 3; q++) {
+            QGramIndex index = new QGramIndex(q, calculator, true);
+            for (String term : terms) {
+                index.add(term);
+            }
+            for (int i = 0; i < 100; i++) {
+                String query = transpose(terms.get(random.nextInt(terms.size())), random);
+                for (int max = 0; max <= 3; max++) {
+                    List<String> expected = new ArrayList<String>(new HashSet<String>(
+                            EditDistance.getAllWithinDistance(terms, query, max, calculator)));
+                    List<String> actual = new ArrayList<String>(index.suggest(query, max));
+                    Collections.sort(expected);
+                    Collections.sort(actual);
+                    assertEquals(query + " " + max, expected, actual);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the term with adjacent characters swapped at up to three
+     * positions.
+     */
+    private String transpose(String term, Random random) {
+        char[] chars = term.toCharArray();
+        for (int swaps = 1 + random.nextInt(3); swaps > 0 && chars.length > 1; swaps--) {
+            int pos = random.nextInt(chars.length - 1);
+            char c = chars[pos];
+            chars[pos] = chars[pos + 1];
+            chars[pos + 1] = c;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Test that the term ids are delta encoded, using a single byte for each
+     * of a run of consecutive ids.
+     */
+    @Test
+    public void testPostingList() {
+        PostingList ids = new PostingList(1);
+        for (int id = 0; id < 1000; id++) {
+            ids.add(id);
+        }
+        ids.add(100000);
+        ids.add(Integer.MAX_VALUE - 1);
+        assertEquals(1002, ids.size());
+        assertEquals(1000 + 3 + 5, ids.getEncodedLength());
+        ids.trimToSize();
+
+        int[] counts = new int[Integer.MAX_VALUE >> 16];
+        IntList counted = new IntList(4);
+        PostingList small = new PostingList(1);
+        small.add(3);
+        small.add(200);
+        small.add(30000);
+        small.addTo(counts, counted);
+        small.addTo(counts, counted);
+        assertEquals(3, counted.size());
+        assertEquals(200, counted.get(1));
+        assertEquals(2, counts[30000]);
+    }
+
+    /**
+     * Test that ids must be added in ascending order.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPostingListOrder() {
+        PostingList ids = new PostingList(1);
+        ids.add(5);
+        ids.add(5);
+    }
+
+    /**
+     * Test that the index is built from a dictionary and kept current by a
+     * {@link TermIndexListener}.
+     */
+    @Test
+    public void testFromDictionary() {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("flag");
+        QGramIndex index = new QGramIndex(2, dict);
+        dict.addTerminusNodeAddedListener(new TermIndexListener(index));
+        dict.addTerm("Frag");
+        dict.addTerm("flag");
+        assertEquals(2, index.size());
+        assertEquals(Arrays.asList("flag", "frag"), index.suggest("flag", 1));
+    }
+
+    private String randomTerm(Random random) {
+        int len = 6 + random.nextInt(7);
+        StringBuilder sb = new StringBuilder(len);
+        for (int c = 0; c < len; c++) {
+            sb.append((char) ('a' + random.nextInt(6)));
+        }
+        return sb.toString();
+    }
+}
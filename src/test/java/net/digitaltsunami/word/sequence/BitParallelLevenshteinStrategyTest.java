@@ -0,0 +1,98 @@
+package net.digitaltsunami.word.sequence;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test that the {@link BitParallelLevenshteinStrategy} produces the same
+ * results as the {@link LevenshteinDistanceStrategy}.
+ * 
+ * @author dhagberg
+ */
+public class BitParallelLevenshteinStrategyTest {
+    private static BitParallelLevenshteinStrategy distanceCalculator;
+
+    @BeforeClass
+    public static void initEditCounter() {
+        distanceCalculator = new BitParallelLevenshteinStrategy();
+    }
+
+    /**
+     * Test the edit counts for simple edits and empty terms.
+     */
+    @Test
+    public void testEditCount() {
+        assertEquals(0, distanceCalculator.getEditCount("abcde", "abcde"));
+        assertEquals(5, distanceCalculator.getEditCount("", "efghi"));
+        assertEquals(5, distanceCalculator.getEditCount("abcde", ""));
+        assertEquals(0, distanceCalculator.getEditCount("", ""));
+        assertEquals(2, distanceCalculator.getEditCount("game", "gnome"));
+        assertEquals(2, distanceCalculator.getEditCount("calm", "clam"));
+        assertEquals(3, distanceCalculator.getEditCount("test", "t"));
+        assertEquals(5, distanceCalculator.getEditDistance("abcde", "0axdefg"), 0.01);
+    }
+
+    /**
+     * Test that the bounded edit count is exact when within the maximum and is
+     * one more than the maximum otherwise.
+     */
+    @Test
+    public void testBoundedEditCount() {
+        assertEquals(2, distanceCalculator.getEditCount("abcde", "abdce", 2));
+        assertEquals(3, distanceCalculator.getEditCount("abcde", "0axdefg", 2));
+        assertEquals(2, distanceCalculator.getEditCount("test", "t", 1));
+        assertEquals(2.0, distanceCalculator.getEditDistance("abcde", "abdce", 2.5), 0.01);
+    }
+
+    /**
+     * Test terms at and beyond the 64 character limit of a single word, and
+     * characters outside of the ASCII range.
+     */
+    @Test
+    public void testLongAndNonAsciiTerms() {
+        Random random = new Random(17);
+        for (int len : new int[] { 63, 64, 65, 130 }) {
+            String fromTerm = randomTerm(random, len, "abé中");
+            String toTerm = randomTerm(random, len - 3, "abé中");
+            int expected = LevenshteinDistanceStrategy.calculateEditCount(fromTerm, toTerm);
+            assertEquals(expected, distanceCalculator.getEditCount(fromTerm, toTerm));
+            assertEquals(expected, distanceCalculator.getEditCount(toTerm, fromTerm));
+            String longer = "ab" + toTerm;
+            assertEquals(LevenshteinDistanceStrategy.calculateEditCount(fromTerm, longer),
+                    distanceCalculator.getEditCount(fromTerm, longer));
+        }
+    }
+
+    /**
+     * Test that random terms, compared repeatedly against the same fromTerm,
+     * match the {@link LevenshteinDistanceStrategy}.
+     */
+    @Test
+    public void testMatchesLevenshtein() {
+        Random random = new Random(23);
+        for (int i = 0; i < 200; i++) {
+            String fromTerm = randomTerm(random, random.nextInt(12), "abcd");
+            for (int j = 0; j < 20; j++) {
+                String toTerm = randomTerm(random, random.nextInt(12), "abcde");
+                int expected = LevenshteinDistanceStrategy.calculateEditCount(fromTerm, toTerm);
+                assertEquals(expected, distanceCalculator.getEditCount(fromTerm, toTerm));
+                for (int max = 0; max <= 3; max++) {
+                    assertEquals(expected <= max ? expected : max + 1,
+                            distanceCalculator.getEditCount(fromTerm, toTerm, max));
+                }
+            }
+        }
+    }
+
+    private String randomTerm(Random random, int len, String alphabet) {
+        StringBuilder sb = new StringBuilder(len);
+        for (int c = 0; c < len; c++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -62,4 +62,18 @@ public class EditDistanceCalculatorTest {
         assertEquals(0.5, calc.getNormalizedEditDistance("abcd", "acbd"), 0.001);
     }
 
+
+    @Test
+    public void testBoundedEditCount() {
+        // Bounded strategy stops at the maximum.
+        EditDistanceCalculator calc = new EditDistanceCalculator();
+        assertEquals(2, calc.getEditCount("abcd", "acbd", 2));
+        assertEquals(2, calc.getEditCount("abcd", "dcba", 1));
+        assertEquals(2.0, calc.getEditDistance("abcd", "dcba", 1.0), 0.001);
+        // Strategy without a bound returns the full count.
+        calc = new EditDistanceCalculator(new DamerauLevenshteinDistanceStrategy());
+        assertEquals(1, calc.getEditCount("abcd", "acbd", 2));
+        assertEquals(3, calc.getEditCount("abcd", "dcba", 1));
+        assertEquals(3.0, calc.getEditDistance("abcd", "dcba", 1.0), 0.001);
+    }
 }
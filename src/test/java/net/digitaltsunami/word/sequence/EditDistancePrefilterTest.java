@@ -0,0 +1,159 @@
+package net.digitaltsunami.word.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link EditDistancePrefilter}.
+ *
+ * @author dhagberg
+ *
+ */
+public class EditDistancePrefilterTest {
+
+    /**
+     * Test that each filter eliminates the candidates it is expected to and
+     * that the eliminations are counted.
+     */
+    @Test
+    public void testFilterCounts() {
+        EditDistancePrefilter prefilter = new EditDistancePrefilter();
+        // Length differs by 3.
+        assertFalse(prefilter.mayBeWithinDistance("test", "testing", 2));
+        // Same length, but no characters in common.
+        assertFalse(prefilter.mayBeWithinDistance("test", "abcd", 2));
+        // Same characters, but no bigrams in common.
+        assertFalse(prefilter.mayBeWithinDistance("abcdef", "fedcba", 2));
+        // Within distance.
+        assertTrue(prefilter.mayBeWithinDistance("test", "tests", 1));
+        assertTrue(prefilter.mayBeWithinDistance("test", "best", 1));
+        assertEquals(5, prefilter.getCandidateCount());
+        assertEquals(1, prefilter.getLengthFilteredCount());
+        assertEquals(1, prefilter.getHistogramFilteredCount());
+        assertEquals(1, prefilter.getQGramFilteredCount());
+        assertEquals(2, prefilter.getPassedCount());
+
+        prefilter.resetCounts();
+        assertEquals(0, prefilter.getCandidateCount());
+        assertEquals(0, prefilter.getPassedCount());
+    }
+
+    /**
+     * Test that a transposition is not counted as eliminating bigrams beyond
+     * those allowed for a single edit.
+     */
+    @Test
+    public void testTranspositions() {
+        EditDistancePrefilter levenshtein = new EditDistancePrefilter(2, false);
+        EditDistancePrefilter damerau = new EditDistancePrefilter(2, true);
+        // One transposition destroys 3 bigrams: ab, bc, cd of abcd -> acbd.
+        assertFalse(levenshtein.mayBeWithinDistance("abcd", "acbd", 1));
+        assertTrue(damerau.mayBeWithinDistance("abcd", "acbd", 1));
+        assertEquals(1, new DamerauLevenshteinDistanceStrategy().getEditCount("abcd", "acbd"));
+    }
+
+    /**
+     * Test that no candidate within the maximum number of edits is ever
+     * eliminated and that most distant candidates are.
+     */
+    @Test
+    public void testNoFalseNegatives() {
+        Random random = new Random(17);
+        EditDistanceStrategy levenshtein = new LevenshteinDistanceStrategy();
+        EditDistanceStrategy damerau = new DamerauLevenshteinDistanceStrategy();
+        for (int q = 1; q <= 4; q++) {
+            EditDistancePrefilter levenshteinFilter = new EditDistancePrefilter(q, false);
+            EditDistancePrefilter damerauFilter = new EditDistancePrefilter(q, true);
+            for (int i = 0; i < 3000; i++) {
+                String from = createTerm(random);
+                String to = random.nextBoolean() ? createTerm(random) : mutate(from, random);
+                int maxEdits = random.nextInt(4);
+                if (!levenshteinFilter.mayBeWithinDistance(from, to, maxEdits)) {
+                    assertTrue(from + " " + to, levenshtein.getEditCount(from, to) > maxEdits);
+                }
+                if (!damerauFilter.mayBeWithinDistance(from, to, maxEdits)) {
+                    assertTrue(from + " " + to, damerau.getEditCount(from, to) > maxEdits);
+                }
+            }
+            assertTrue(levenshteinFilter.getPassedCount() < levenshteinFilter.getCandidateCount());
+        }
+    }
+
+    /**
+     * Test that the filtered search returns the same terms as the unfiltered
+     * search while comparing fewer candidates.
+     */
+    @Test
+    public void testGetAllWithinDistance() {
+        Random random = new Random(3);
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++) {
+            terms.add(createTerm(random));
+        }
+        EditDistanceCalculator calculator = new EditDistanceCalculator();
+        EditDistancePrefilter prefilter = new EditDistancePrefilter();
+        for (String fromTerm : Arrays.asList("abcdef", "bead", terms.get(42))) {
+            assertEquals(EditDistance.getAllWithinDistance(terms, fromTerm, 2, calculator),
+                    prefilter.getAllWithinDistance(terms, fromTerm, 2, calculator));
+        }
+        assertEquals(15000, prefilter.getCandidateCount());
+        assertTrue("Passed " + prefilter.getPassedCount(), prefilter.getPassedCount() < 3000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidQ() {
+        new EditDistancePrefilter(0, false);
+    }
+
+    private static String createTerm(Random random) {
+        char[] term = new char[random.nextInt(10)];
+        for (int i = 0; i < term.length; i++) {
+            term[i] = (char) ('a' + random.nextInt(6));
+        }
+        return new String(term);
+    }
+
+    /**
+     * Apply up to three random insertions, deletions, substitutions or
+     * transpositions.
+     */
+    private static String mutate(String term, Random random) {
+        StringBuilder sb = new StringBuilder(term);
+        int edits = random.nextInt(4);
+        for (int i = 0; i < edits; i++) {
+            int pos = sb.length() == 0 ? 0 : random.nextInt(sb.length());
+            char c = (char) ('a' + random.nextInt(6));
+            switch (random.nextInt(4)) {
+            case 0:
+                sb.insert(pos, c);
+                break;
+            case 1:
+                if (sb.length() > 0) {
+                    sb.deleteCharAt(pos);
+                }
+                break;
+            case 2:
+                if (sb.length() > 0) {
+                    sb.setCharAt(pos, c);
+                }
+                break;
+            default:
+                if (pos + 1 < sb.length()) {
+                    char t = sb.charAt(pos);
+                    sb.setCharAt(pos, sb.charAt(pos + 1));
+                    sb.setCharAt(pos + 1, t);
+                }
+                break;
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -3,7 +3,13 @@ package net.digitaltsunami.word.sequence;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -178,4 +184,84 @@ public class EditDistanceTest {
         assertTrue(matching[3].equals("aa") || matching[3].equals("bb") || matching[3].equals("cc"));
     }
 
+
+    /**
+     * Test that the nearest terms are returned in order by edit distance and
+     * then by term.
+     */
+    @Test
+    public void testGetNearest() {
+        Collection<String> terms = createTestCollection();
+        assertEquals(Arrays.asList("aaa", "aa", "aaaa"), EditDistance.getNearest(terms, "aaa", 3));
+        assertEquals(Arrays.asList("aaa", "aa", "aaaa", "a", "aaaaa"), EditDistance.getNearest(
+                terms, "aaa", 5, distanceCalculator));
+        assertEquals(Arrays.asList("a", "b", "c", "aa"), EditDistance.getNearest(terms, "d", 4));
+        assertEquals(terms.size(), EditDistance.getNearest(terms, "d", Integer.MAX_VALUE).size());
+        assertEquals(0, EditDistance.getNearest(terms, "d", 0).size());
+        assertEquals(0, EditDistance.getNearest(new ArrayList<String>(), "d", 3).size());
+    }
+
+    /**
+     * Test that the parallel methods return the same terms, in the same
+     * order, as the sequential methods.
+     */
+    @Test
+    public void testParallelMatchesSequential() {
+        List<String> terms = createRandomTerms(20000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (String fromTerm : Arrays.asList("abcde", "ace", terms.get(17))) {
+                Collection<String> expected = EditDistance.getAllWithinDistance(terms, fromTerm,
+                        2, distanceCalculator);
+                assertEquals(expected, EditDistance.getAllWithinDistance(terms, fromTerm, 2,
+                        distanceCalculator, executor, 4));
+
+                List<String> nearest = EditDistance.getNearest(terms, fromTerm, 25,
+                        distanceCalculator);
+                assertEquals(nearest, EditDistance.getNearest(terms, fromTerm, 25,
+                        distanceCalculator, executor, 4));
+                assertEquals(25, nearest.size());
+                // Nearest terms must be the start of all terms sorted by distance.
+                List<String> all = new ArrayList<String>(EditDistance.getAllWithinDistance(terms,
+                        fromTerm, Integer.MAX_VALUE, distanceCalculator));
+                assertEquals(all.subList(0, 25), nearest);
+            }
+            // Too few candidates to divide; compared on the calling thread.
+            Collection<String> small = createTestCollection();
+            assertEquals(EditDistance.getAllWithinDistance(small, "aaa", 2, distanceCalculator),
+                    EditDistance.getAllWithinDistance(small, "aaa", 2, distanceCalculator,
+                            executor, 4));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that a failure within a task is reported to the caller.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testParallelFailure() {
+        List<String> terms = new ArrayList<String>(createRandomTerms(10000));
+        terms.set(9000, null);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            EditDistance.getAllWithinDistance(terms, "abc", 1, distanceCalculator, executor, 2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<String> createRandomTerms(int count) {
+        Random random = new Random(7);
+        List<String> terms = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            char[] term = new char[2 + random.nextInt(7)];
+            for (int j = 0; j < term.length; j++) {
+                term[j] = (char) ('a' + random.nextInt(6));
+            }
+            terms.add(new String(term));
+        }
+        Collections.shuffle(terms, random);
+        return terms;
+    }
 }
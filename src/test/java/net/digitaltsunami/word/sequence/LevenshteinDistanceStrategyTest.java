@@ -2,6 +2,8 @@ package net.digitaltsunami.word.sequence;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
+
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -179,4 +181,71 @@ public class LevenshteinDistanceStrategyTest {
         assertEquals(2, distanceCalculator.getEditCount("abdcef", "abcdef"));
         assertEquals(2, distanceCalculator.getEditCount("abcdfe", "abcdef"));
     }
+
+    /**
+     * Test that the bounded edit count is exact when within the maximum and is
+     * one more than the maximum otherwise.
+     */
+    @Test
+    public void testBoundedEditCount() {
+        assertEquals(0, distanceCalculator.getEditCount("abcde", "abcde", 0));
+        assertEquals(1, distanceCalculator.getEditCount("abcde", "abxde", 0));
+        assertEquals(2, distanceCalculator.getEditCount("abcde", "abdce", 2));
+        assertEquals(3, distanceCalculator.getEditCount("abcde", "0axdefg", 2));
+        assertEquals(5, distanceCalculator.getEditCount("abcde", "0axdefg", 10));
+        // Length difference alone exceeds the maximum.
+        assertEquals(2, distanceCalculator.getEditCount("test", "t", 1));
+        assertEquals(5, distanceCalculator.getEditCount("", "efghi", Integer.MAX_VALUE));
+        assertEquals(0, distanceCalculator.getEditCount("abc", "abc", -1));
+        assertEquals(2.0, distanceCalculator.getEditDistance("abcde", "abdce", 2.5), 0.01);
+        assertTrue(distanceCalculator.getEditDistance("abcde", "abdce", 1.5) > 1.5);
+    }
+
+    /**
+     * Test that the bounded edit count matches a full edit matrix for random
+     * terms and maximums.
+     */
+    @Test
+    public void testBoundedEditCountMatchesMatrix() {
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            String fromTerm = randomTerm(random);
+            String toTerm = randomTerm(random);
+            int expected = matrixEditCount(fromTerm, toTerm);
+            assertEquals(expected, LevenshteinDistanceStrategy.calculateEditCount(fromTerm, toTerm));
+            for (int max = 0; max <= 4; max++) {
+                int bounded = distanceCalculator.getEditCount(fromTerm, toTerm, max);
+                assertEquals(fromTerm + "/" + toTerm, expected <= max ? expected : max + 1,
+                        bounded);
+            }
+        }
+    }
+
+    private String randomTerm(Random random) {
+        int len = random.nextInt(10);
+        StringBuilder sb = new StringBuilder(len);
+        for (int c = 0; c < len; c++) {
+            sb.append((char) ('a' + random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Calculate the edit count using the full edit matrix.
+     */
+    private int matrixEditCount(String fromTerm, String toTerm) {
+        int[][] matrix = new int[fromTerm.length() + 1][toTerm.length() + 1];
+        for (int r = 0; r <= fromTerm.length(); r++) {
+            for (int c = 0; c <= toTerm.length(); c++) {
+                if (r == 0 || c == 0) {
+                    matrix[r][c] = r + c;
+                } else {
+                    int cost = fromTerm.charAt(r - 1) == toTerm.charAt(c - 1) ? 0 : 1;
+                    matrix[r][c] = Math.min(matrix[r - 1][c - 1] + cost,
+                            Math.min(matrix[r - 1][c], matrix[r][c - 1]) + 1);
+                }
+            }
+        }
+        return matrix[fromTerm.length()][toTerm.length()];
+    }
 }
@@ -5,6 +5,8 @@ package net.digitaltsunami.word.sequence;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
+
 import net.digitaltsunami.word.sequence.Sequence;
 
 import org.junit.Test;
@@ -75,4 +77,81 @@ public class SequenceTest {
         // same length if the trace back algorithm changes.
         assertEquals(19, Sequence.getALongestCommonSubsequence(s1, s2).length());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that the linear space subsequence and the bit-parallel length
+     * agree with the matrix for random strings, including strings longer than
+     * a word of bits and characters outside of ASCII.
+     */
+    @Test
+    public void testLCSLinearSpaceMatchesMatrix() {
+        Random random = new Random(17);
+        String alphabet = "abcd\u00e9\u4e00";
+        for (int i = 0; i < 500; i++) {
+            String s1 = randomString(random, alphabet, random.nextInt(150));
+            String s2 = randomString(random, alphabet, random.nextInt(150));
+            String expected = Sequence.getALongestCommonSubsequence(s1, s2);
+            String linear = Sequence.getALongestCommonSubsequenceInLinearSpace(s1, s2);
+            assertEquals(expected.length(), linear.length());
+            assertTrue(isSubsequence(linear, s1));
+            assertTrue(isSubsequence(linear, s2));
+            assertEquals(expected.length(), Sequence.getLongestCommonSubsequenceLength(s1, s2));
+            assertEquals(expected.length(), Sequence.getLongestCommonSubsequenceLength(s2, s1));
+        }
+    }
+
+    /**
+     * Test the linear space algorithm and length on the cases used for the
+     * matrix.
+     */
+    @Test
+    public void testLCSLinearSpace() {
+        assertEquals("", Sequence.getALongestCommonSubsequenceInLinearSpace("", ""));
+        assertEquals("", Sequence.getALongestCommonSubsequenceInLinearSpace("", "abcd"));
+        assertEquals("abcd", Sequence.getALongestCommonSubsequenceInLinearSpace("abcd", "abcd"));
+        assertEquals("abcd", Sequence.getALongestCommonSubsequenceInLinearSpace("abcd",
+                "axlxbxcd"));
+        assertEquals("", Sequence.getALongestCommonSubsequenceInLinearSpace("abcd", "efghi"));
+        assertEquals(0, Sequence.getLongestCommonSubsequenceLength("", "abcd"));
+        assertEquals(4, Sequence.getLongestCommonSubsequenceLength("axlxbxcd", "abcd"));
+        assertEquals(0, Sequence.getLongestCommonSubsequenceLength("abcd", "efghi"));
+
+        String s1 = "hNBfwkheVTZr1cK or4z 1n1dLhLTPKpu tfE8FcMrr3aT X dz9 4Ub0wEaOx9ooJxdJb6WCNYKmN";
+        String s2 = "j W THxW0z9YP CMr1ncK o67craZB tTxxr3a6NjUCynkT WEMYRb0ZKJCFV Boo1l3nfR24qjrXkz";
+        assertEquals(19, Sequence.getALongestCommonSubsequenceInLinearSpace(s1, s2).length());
+        assertEquals(19, Sequence.getLongestCommonSubsequenceLength(s1, s2));
+    }
+
+    /**
+     * Test strings too long for the matrix.
+     */
+    @Test
+    public void testLCSBeyondMatrix() {
+        Random random = new Random(5);
+        String s1 = randomString(random, "abcdefgh ", 3000);
+        String s2 = randomString(random, "abcdefgh ", 2500);
+        String lcs = Sequence.getALongestCommonSubsequence(s1, s2);
+        assertTrue(isSubsequence(lcs, s1));
+        assertTrue(isSubsequence(lcs, s2));
+        assertEquals(Sequence.getLongestCommonSubsequenceLength(s1, s2), lcs.length());
+        assertEquals(s2, Sequence.getALongestCommonSubsequence(s1 + s2, s2));
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    private static boolean isSubsequence(String sequence, String string) {
+        int pos = 0;
+        for (int i = 0; i < string.length() && pos < sequence.length(); i++) {
+            if (string.charAt(i) == sequence.charAt(pos)) {
+                pos++;
+            }
+        }
+        return pos == sequence.length();
+    }
+}
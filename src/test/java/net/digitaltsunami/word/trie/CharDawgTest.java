@@ -0,0 +1,166 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Exercise the queries of the {@link CharDawg} and ensure that they match
+ * those of the source {@link CharTrie}.
+ *
+ * @author dhagberg
+ *
+ */
+public class CharDawgTest {
+    private CharTrie dict;
+    private CharDawg dawg;
+
+    @Before
+    public void setup() {
+        dict = new CharTrie();
+        dict.addTerm("flag");
+        dict.addTerm("flagrant");
+        dict.addTerm("frag");
+        dict.addTerm("fang");
+        dict.addTerm("fast");
+        dict.addTerm("pang");
+        dict.addTerm("plan");
+        dict.addTerm("act");
+        dict.addTerm("Ace");
+        dawg = CharDawg.from(dict);
+    }
+
+    /**
+     * Test that all terms are found and that fragments and unknown terms are
+     * not.
+     */
+    @Test
+    public void testContains() {
+        assertTrue(dawg.contains("flag"));
+        assertTrue(dawg.contains("flagrant"));
+        assertTrue(dawg.contains("ACE"));
+        assertFalse(dawg.contains("flagr"));
+        assertFalse(dawg.contains("frang"));
+        assertFalse(dawg.contains("zebra"));
+        assertFalse(dawg.contains(""));
+        assertEquals(9, dawg.getWordCount());
+    }
+
+    /**
+     * Test that prefix queries are rebuilt from the path followed and return
+     * the terms in lexicographic order.
+     */
+    @Test
+    public void testFindTerms() {
+        assertEquals(Arrays.asList("fang", "fast", "flag", "flagrant", "frag"),
+                dawg.findTerms("f"));
+        assertEquals(Arrays.asList("flag", "flagrant"), dawg.findTerms("FLAG"));
+        assertEquals(Arrays.asList("pang"), dawg.findTerms("pa"));
+        assertEquals(0, dawg.findTerms("z").size());
+        assertEquals(0, dawg.findTerms("").size());
+    }
+
+    /**
+     * Test pattern queries with the default and a custom wildcard.
+     */
+    @Test
+    public void testFindPattern() {
+        assertEquals(dict.findPattern("~~a~"), dawg.findPattern("~~a~"));
+        assertEquals(Arrays.asList("fang", "pang"), dawg.findPattern("~ang"));
+        dawg.setWildcardChar('?');
+        assertEquals(Arrays.asList("frag"), dawg.findPattern("?r?g"));
+        assertEquals(0, dawg.findPattern("").size());
+    }
+
+    /**
+     * Test that equivalent nodes are shared. The nodes following the 'a' and
+     * 'o' of "tap(s)" and "top(s)" are identical, as are the 'a' and 'o' nodes
+     * themselves, leaving t, a|o, p and s.
+     */
+    @Test
+    public void testSuffixesShared() {
+        CharDawg shared = CharDawg.fromSortedTerms(Arrays.asList("tap", "taps", "top", "tops")
+                .iterator());
+        assertEquals(4, shared.getNodeCount());
+        assertEquals(4, shared.getWordCount());
+        assertEquals(Arrays.asList("tap", "taps", "top", "tops"), shared.findTerms("t"));
+        assertFalse(shared.contains("to"));
+    }
+
+    /**
+     * Test that duplicate and empty terms are ignored and that terms out of
+     * order are rejected.
+     */
+    @Test
+    public void testFromSortedTerms() {
+        CharDawg words = CharDawg.fromSortedTerms(Arrays.asList("", "Bat", "bat", "cat")
+                .iterator());
+        assertEquals(2, words.getWordCount());
+        try {
+            CharDawg.fromSortedTerms(Arrays.asList("cat", "bat").iterator());
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test a larger, randomly generated dictionary against the source trie and
+     * ensure that fewer nodes are used.
+     */
+    @Test
+    public void testRandomDictionary() {
+        String[] suffixes = { "", "s", "ing", "ed", "ation", "ations", "ness" };
+        Random random = new Random(42);
+        CharTrie source = new CharTrie();
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 2000; i++) {
+            int len = 1 + random.nextInt(6);
+            StringBuilder sb = new StringBuilder(len);
+            for (int c = 0; c < len; c++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            for (String suffix : suffixes) {
+                terms.add(sb + suffix);
+                source.addTerm(sb + suffix);
+            }
+        }
+        Collections.sort(terms);
+        CharDawg copy = CharDawg.fromSortedTerms(terms.iterator());
+        assertEquals(source.getWordCount(), copy.getWordCount());
+        for (String term : terms) {
+            assertTrue(copy.contains(term));
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            assertEquals(source.findTerms(String.valueOf(c)), copy.findTerms(String.valueOf(c)));
+        }
+        assertEquals(source.findPattern("~a~e~"), copy.findPattern("~a~e~"));
+        assertEquals(new ArrayList<String>(source.findPattern("~~~ation")),
+                copy.findPattern("~~~ation"));
+
+        int trieNodes = countNodes(source.getRoot()) - 1;
+        assertTrue("Expected several-fold reduction: " + copy.getNodeCount() + " of "
+                + trieNodes, copy.getNodeCount() * 3 < trieNodes);
+    }
+
+    private static int countNodes(CharTrieNode node) {
+        int count = 1;
+        for (CharTrieNode child : node) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+}
@@ -6,14 +6,30 @@ package net.digitaltsunami.word.trie;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
 
+import net.digitaltsunami.word.sequence.EditDistance;
+import net.digitaltsunami.word.sequence.EditDistanceCalculator;
+import net.digitaltsunami.word.sequence.LevenshteinDistanceStrategy;
+import net.digitaltsunami.word.sequence.Sequence;
 import net.digitaltsunami.word.trie.CharTrie;
 import net.digitaltsunami.word.trie.CharTrieNode;
+import net.digitaltsunami.word.trie.event.TermAddedEvent;
 import net.digitaltsunami.word.trie.event.TestNodeEventListener;
+import net.digitaltsunami.word.trie.event.TestTermAddedListener;
 import net.digitaltsunami.word.trie.filter.CharFilter;
 import net.digitaltsunami.word.trie.filter.TermFilter;
 
@@ -950,4 +966,586 @@ public class CharTrieTest {
         terms = dict.findAllTermsOfLength(3,2);
         assertEquals(1, terms.size());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for
+     * {@link net.digitaltsunami.word.trie.CharTrie#findWithinDistance(String, int)}
+     * Test that only terms within the edit distance are returned and that they
+     * are ordered by distance.
+     */
+    @Test
+    public void testFindWithinDistance() {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("flag");
+        dict.addTerm("flagrant");
+        dict.addTerm("frag");
+        dict.addTerm("fang");
+        dict.addTerm("fast");
+        dict.addTerm("flog");
+        dict.addTerm("plan");
+
+        Collection<String> terms = dict.findWithinDistance("flag", 0);
+        assertEquals(1, terms.size());
+        assertTrue(terms.contains("flag"));
+
+        terms = dict.findWithinDistance("Flag", 1);
+        String[] expected = { "flag", "flog", "frag" };
+        assertEquals(Arrays.asList(expected), terms);
+
+        terms = dict.findWithinDistance("flag", 2);
+        assertEquals(5, terms.size());
+        assertEquals("flag", terms.iterator().next());
+        assertTrue(terms.contains("fang"));
+        assertTrue(terms.contains("plan"));
+        assertFalse(terms.contains("flagrant"));
+
+        assertEquals(0, dict.findWithinDistance("zzzzzz", 2).size());
+        assertEquals(0, dict.findWithinDistance("flag", -1).size());
+    }
+
+    /**
+     * Test that the results of
+     * {@link net.digitaltsunami.word.trie.CharTrie#findWithinDistance(String, int)}
+     * match those of a scan of all terms using
+     * {@link EditDistance#getAllWithinDistance(Collection, String, int)}.
+     */
+    @Test
+    public void testFindWithinDistanceMatchesScan() {
+        CharTrie dict = new CharTrie();
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            int len = 1 + random.nextInt(8);
+            StringBuilder sb = new StringBuilder(len);
+            for (int c = 0; c < len; c++) {
+                sb.append((char) ('a' + random.nextInt(6)));
+            }
+            dict.addTerm(sb.toString());
+        }
+        EditDistanceCalculator calculator = new EditDistanceCalculator(
+                new LevenshteinDistanceStrategy());
+        Collection<String> allTerms = dict.getAllTerms();
+        for (String query : new String[] { "abc", "fedcba", "a", "bbbbbbb" }) {
+            for (int maxEdits = 0; maxEdits <= 3; maxEdits++) {
+                Collection<String> expected = EditDistance.getAllWithinDistance(allTerms, query,
+                        maxEdits, calculator);
+                Collection<String> actual = dict.findWithinDistance(query, maxEdits);
+                assertEquals(new HashSet<String>(expected), new HashSet<String>(actual));
+                assertEquals(expected.size(), actual.size());
+            }
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link net.digitaltsunami.word.trie.CharTrie#findByCommonSubsequence(String, int, int)}
+     * Test that only terms with a long enough common subsequence are returned
+     * and that they are ordered by subsequence length.
+     */
+    @Test
+    public void testFindByCommonSubsequence() {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("flag");
+        dict.addTerm("flagrant");
+        dict.addTerm("frag");
+        dict.addTerm("fang");
+        dict.addTerm("fast");
+        dict.addTerm("flog");
+        dict.addTerm("plan");
+
+        Collection<String> terms = dict.findByCommonSubsequence("Flag", 4);
+        String[] expected = { "flag", "flagrant" };
+        assertEquals(Arrays.asList(expected), terms);
+
+        terms = dict.findByCommonSubsequence("flag", 3);
+        expected = new String[] { "flag", "flagrant", "fang", "flog", "frag" };
+        assertEquals(Arrays.asList(expected), terms);
+
+        terms = dict.findByCommonSubsequence("flag", 3, 4);
+        expected = new String[] { "flag", "fang", "flog", "frag" };
+        assertEquals(Arrays.asList(expected), terms);
+
+        assertEquals(7, dict.findByCommonSubsequence("flag", 0).size());
+        assertEquals(0, dict.findByCommonSubsequence("flag", 5).size());
+        assertEquals(0, dict.findByCommonSubsequence("flag", 3, 2).size());
+        assertEquals(0, dict.findByCommonSubsequence("zzzzzz", 1).size());
+    }
+
+    /**
+     * Test that the results of
+     * {@link net.digitaltsunami.word.trie.CharTrie#findByCommonSubsequence(String, int, int)}
+     * match those of a scan of all terms using
+     * {@link Sequence#getLongestCommonSubsequenceLength(String, String)}.
+     */
+    @Test
+    public void testFindByCommonSubsequenceMatchesScan() {
+        CharTrie dict = new CharTrie();
+        Random random = new Random(13);
+        for (int i = 0; i < 1000; i++) {
+            int len = 1 + random.nextInt(10);
+            StringBuilder sb = new StringBuilder(len);
+            for (int c = 0; c < len; c++) {
+                sb.append((char) ('a' + random.nextInt(6)));
+            }
+            dict.addTerm(sb.toString());
+        }
+        Collection<String> allTerms = dict.getAllTerms();
+        for (String query : new String[] { "abc", "fedcba", "a", "bbbbbbb", "abcdefabcdef" }) {
+            for (int minLength = 1; minLength <= 5; minLength++) {
+                for (int maxLength : new int[] { 4, 7, Integer.MAX_VALUE }) {
+                    List<String> expected = new ArrayList<String>();
+                    for (int length = query.length(); length >= minLength; length--) {
+                        for (String term : allTerms) {
+                            if (term.length() <= maxLength
+                                    && Sequence.getLongestCommonSubsequenceLength(query, term) == length) {
+                                expected.add(term);
+                            }
+                        }
+                    }
+                    assertEquals(expected, dict.findByCommonSubsequence(query, minLength,
+                            maxLength));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link net.digitaltsunami.word.trie.CharTrie#iterateTerms(String)}. Test
+     * that the terms are returned in the same order as
+     * {@link CharTrie#findTerms(String)}.
+     */
+    @Test
+    public void testIterateTerms() {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("flag");
+        dict.addTerm("flagrant");
+        dict.addTerm("frag");
+        dict.addTerm("fang");
+        dict.addTerm("fla");
+        dict.addTerm("plan");
+
+        assertEquals(dict.findTerms("fla"), drain(dict.iterateTerms("Fla")));
+        assertEquals(dict.findTerms("f"), drain(dict.iterateTerms("f")));
+        assertEquals(Arrays.asList("flagrant"), drain(dict.iterateTerms("flagr")));
+        assertEquals(new ArrayList<String>(dict.getAllTerms()), drain(dict.iterateTerms("")));
+        assertFalse(dict.iterateTerms("flz").hasNext());
+        assertFalse(new CharTrie().iterateTerms("").hasNext());
+    }
+
+    /**
+     * Test that iterating past the last term throws
+     * {@link NoSuchElementException}.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testIterateTermsExhausted() {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("flag");
+        Iterator<String> terms = dict.iterateTerms("flag");
+        assertEquals("flag", terms.next());
+        assertFalse(terms.hasNext());
+        terms.next();
+    }
+
+    private List<String> drain(Iterator<String> terms) {
+        List<String> list = new ArrayList<String>();
+        while (terms.hasNext()) {
+            list.add(terms.next());
+        }
+        return list;
+    }
+
+    /**
+     * Test method for
+     * {@link net.digitaltsunami.word.trie.CharTrie#findTerms(String, int)}.
+     * Test that the first terms in lexicographic order are returned.
+     */
+    @Test
+    public void testFindTermsWithLimit() {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("flagrant");
+        dict.addTerm("flag");
+        dict.addTerm("frag");
+        dict.addTerm("fang");
+        dict.addTerm("fla");
+
+        List<String> all = new ArrayList<String>(dict.findTerms("f"));
+        for (int limit = 1; limit <= all.size(); limit++) {
+            assertEquals(all.subList(0, limit), dict.findTerms("F", limit));
+        }
+        assertEquals(all, dict.findTerms("f", all.size() + 10));
+        assertEquals(0, dict.findTerms("f", 0).size());
+        assertEquals(0, dict.findTerms("", 3).size());
+        assertEquals(0, dict.findTerms("flz", 3).size());
+    }
+
+    /**
+     * Test method for
+     * {@link net.digitaltsunami.word.trie.CharTrie#findPattern(String, int)}
+     * using each of the pattern search strategies.
+     */
+    @Test
+    public void testFindPatternWithLimit() {
+        PatternSearchStrategy[] strategies = { new PatternSearchRecursiveStrategy(),
+                new PatternSearchQueueStrategy() };
+        for (PatternSearchStrategy strategy : strategies) {
+            CharTrie dict = new CharTrie();
+            dict.setPatternSearchStrategy(strategy);
+            dict.addTerm("flag");
+            dict.addTerm("frag");
+            dict.addTerm("fang");
+            dict.addTerm("flog");
+            dict.addTerm("crag");
+            dict.addTerm("flagrant");
+
+            List<String> all = new ArrayList<String>(dict.findPattern("~~~g"));
+            assertEquals(Arrays.asList("crag", "fang", "flag", "flog", "frag"), all);
+            for (int limit = 1; limit <= all.size(); limit++) {
+                assertEquals(all.subList(0, limit),
+                        new ArrayList<String>(dict.findPattern("~~~g", limit)));
+            }
+            assertEquals(all, new ArrayList<String>(dict.findPattern("~~~g", 20)));
+            assertEquals(0, dict.findPattern("~~~g", 0).size());
+            assertEquals(1, dict.findPattern("fl~g", 1).size());
+        }
+
+        // Strategies unable to stop early are limited after the search.
+        final PatternSearchStrategy unlimited = new PatternSearchRecursiveStrategy();
+        CharTrie dict = new CharTrie();
+        dict.setPatternSearchStrategy(new PatternSearchStrategy() {
+            @Override
+            public Collection<String> findPattern(String pattern, CharTrieNode root,
+                    char wildcardChar) {
+                return unlimited.findPattern(pattern, root, wildcardChar);
+            }
+        });
+        dict.addTerm("flag");
+        dict.addTerm("frag");
+        dict.addTerm("fang");
+        assertEquals(Arrays.asList("fang", "flag"),
+                new ArrayList<String>(dict.findPattern("~~~g", 2)));
+        assertEquals(3, dict.findPattern("~~~g", 5).size());
+    }
+
+    /**
+     * Test method for
+     * {@link net.digitaltsunami.word.trie.CharTrie#writeTo(java.io.OutputStream)}
+     * and {@link net.digitaltsunami.word.trie.CharTrie#readFrom(java.io.InputStream)}.
+     */
+    @Test
+    public void testWriteToReadFrom() throws IOException {
+        Random random = new Random(17);
+        CharTrie dict = new CharTrie();
+        for (int i = 0; i < 2000; i++) {
+            char[] term = new char[1 + random.nextInt(10)];
+            for (int j = 0; j < term.length; j++) {
+                term[j] = (char) ('a' + random.nextInt(26));
+            }
+            dict.addTerm(new String(term));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dict.writeTo(out);
+
+        TestNodeEventListener listener = new TestNodeEventListener();
+        CharTrie copy = new CharTrie();
+        copy.addTerminusNodeAddedListener(listener);
+        copy.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(dict.getWordCount(), copy.getWordCount());
+        assertEquals(dict.getWordCount(), listener.eventCount);
+        assertEquals(drain(dict.iterateTerms("")), drain(copy.iterateTerms("")));
+        assertEquals(dict.findPattern("~a~"), copy.findPattern("~a~"));
+
+        // Same nodes written by a copy from another factory
+        CharTrie scored = new CharTrie(null, null, new ScoredCharTrieNodeFactory());
+        scored.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(drain(dict.iterateTerms("")), drain(scored.iterateTerms("")));
+        ConcurrentCharTrie concurrent = new ConcurrentCharTrie();
+        concurrent.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(dict.getWordCount(), concurrent.getWordCount());
+        assertEquals(drain(dict.iterateTerms("")), drain(concurrent.iterateTerms("")));
+    }
+
+    /**
+     * Test that reading into a dictionary that already contains terms merges
+     * the terms and counts only those that are new.
+     */
+    @Test
+    public void testReadFromMerge() throws IOException {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("bat");
+        dict.addTerm("batter");
+        dict.addTerm("cat");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dict.writeTo(out);
+
+        CharTrie target = new CharTrie();
+        target.addTerm("batt");
+        target.addTerm("cat");
+        target.addTerm("dog");
+        TestTermAddedListener listener = new TestTermAddedListener();
+        target.addTermAddedListener(listener);
+        target.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(5, target.getWordCount());
+        assertEquals(Arrays.asList("bat", "batt", "batter", "cat", "dog"),
+                drain(target.iterateTerms("")));
+
+        // Term added events are delivered as a single batch.
+        assertEquals(0, listener.termCount);
+        assertEquals(1, listener.batchCount);
+        assertEquals(3, listener.events.size());
+        assertEquals("bat", listener.events.get(0).getTerminusNode().getTerm());
+        assertTrue(listener.events.get(0).isNewTerm());
+        assertEquals(0, listener.events.get(0).getNewNodeCount());
+        assertEquals("batter", listener.events.get(1).getTerminusNode().getTerm());
+        assertTrue(listener.events.get(1).isNewTerm());
+        assertEquals(2, listener.events.get(1).getNewNodeCount());
+        assertEquals("cat", listener.events.get(2).getTerminusNode().getTerm());
+        assertFalse(listener.events.get(2).isNewTerm());
+        assertEquals(0, listener.events.get(2).getNewNodeCount());
+    }
+
+    /**
+     * Test that an empty dictionary can be written and read.
+     */
+    @Test
+    public void testWriteToReadFromEmpty() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CharTrie().writeTo(out);
+        CharTrie copy = new CharTrie();
+        copy.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(0, copy.getWordCount());
+        assertFalse(copy.iterateTerms("").hasNext());
+    }
+
+    /**
+     * Test that streams that were not written by writeTo or were truncated
+     * are rejected.
+     */
+    @Test
+    public void testReadFromCorrupt() throws IOException {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("flag");
+        dict.addTerm("frag");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dict.writeTo(out);
+        byte[] image = out.toByteArray();
+
+        byte[] badMagic = image.clone();
+        badMagic[0] = 0;
+        assertReadFails(badMagic);
+        byte[] badVersion = image.clone();
+        badVersion[7] = 9;
+        assertReadFails(badVersion);
+        assertReadFails(Arrays.copyOf(image, image.length - 3));
+        byte[] badCount = image.clone();
+        badCount[badCount.length - 1] = 7;
+        assertReadFails(badCount);
+    }
+
+    private static void assertReadFails(byte[] image) {
+        try {
+            new CharTrie().readFrom(new ByteArrayInputStream(image));
+            fail("Expected IOException");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link net.digitaltsunami.word.trie.CharTrie#addSortedTerms(Iterator)}
+     * to ensure the dictionary and events match those of adding each term.
+     */
+    @Test
+    public void testAddSortedTerms() {
+        Random random = new Random(23);
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++) {
+            char[] term = new char[1 + random.nextInt(8)];
+            for (int j = 0; j < term.length; j++) {
+                term[j] = (char) ('a' + random.nextInt(6));
+            }
+            terms.add(new String(term));
+        }
+        Collections.sort(terms);
+
+        CharTrie expected = new CharTrie();
+        TestNodeEventListener[] expectedListeners = addListeners(expected);
+        for (String term : terms) {
+            expected.addTerm(term);
+        }
+        CharTrie dict = new CharTrie();
+        TestNodeEventListener[] listeners = addListeners(dict);
+        dict.addSortedTerms(terms.iterator());
+
+        assertEquals(expected.getWordCount(), dict.getWordCount());
+        assertEquals(drain(expected.iterateTerms("")), drain(dict.iterateTerms("")));
+        for (int i = 0; i < listeners.length; i++) {
+            assertEquals(expectedListeners[i].eventCount, listeners[i].eventCount);
+        }
+    }
+
+    /**
+     * Test that terms out of order, duplicated or already within the
+     * dictionary are added correctly.
+     */
+    @Test
+    public void testAddSortedTermsUnordered() {
+        CharTrie dict = new CharTrie();
+        dict.addTerm("bat");
+        dict.addTerm("cab");
+        dict.addTerm("zoo");
+        dict.addSortedTerms(Arrays.asList("ba", "bat", "batter", "batter", "ca", "cat", "abc",
+                "ab", "cz", "b", "zoo", "zoom").iterator());
+        assertEquals(12, dict.getWordCount());
+        assertEquals(Arrays.asList("ab", "abc", "b", "ba", "bat", "batter", "ca", "cab", "cat",
+                "cz", "zoo", "zoom"), drain(dict.iterateTerms("")));
+        assertEquals(Arrays.asList("ca", "cab", "cat", "cz"), dict.findTerms("c"));
+    }
+
+    /**
+     * Test that sorted terms are filtered and added using other node
+     * factories.
+     */
+    @Test
+    public void testAddSortedTermsFiltered() {
+        List<String> terms = Arrays.asList("Ant", "ant-hill", "Bee", "bees", "skip");
+        TermFilter skipFilter = new TermFilter() {
+            @Override
+            public String apply(String term) {
+                return "skip".equals(term) ? SKIP_TERM : term;
+            }
+        };
+        CharTrie[] dicts = { new CharTrie(null, skipFilter),
+                new CharTrie(null, skipFilter, new ScoredCharTrieNodeFactory()),
+                new ConcurrentCharTrie(null, skipFilter) };
+        for (CharTrie dict : dicts) {
+            dict.addSortedTerms(terms.iterator());
+            assertEquals(4, dict.getWordCount());
+            assertEquals(Arrays.asList("ant", "ant-hill", "bee", "bees"),
+                    drain(dict.iterateTerms("")));
+        }
+    }
+
+    /**
+     * Test that a single term added event is dispatched for each term with
+     * the number of nodes created and whether the term is new.
+     */
+    @Test
+    public void testTermAddedListener() {
+        CharTrie dict = new CharTrie(null, new TermFilter() {
+            @Override
+            public String apply(String term) {
+                return term.startsWith("#") ? TermFilter.SKIP_TERM : term;
+            }
+        });
+        TestTermAddedListener listener = new TestTermAddedListener();
+        dict.addTermAddedListener(listener);
+        dict.addTerm("test");
+        dict.addTerm("tests");
+        dict.addTerm("tea");
+        dict.addTerm("tes");
+        dict.addTerm("Test");
+        dict.addTerm("#test");
+        assertEquals(5, listener.termCount);
+        assertEquals(0, listener.batchCount);
+        assertTermEvent(listener.events.get(0), "test", 4, true);
+        assertTermEvent(listener.events.get(1), "tests", 1, true);
+        assertTermEvent(listener.events.get(2), "tea", 1, true);
+        assertTermEvent(listener.events.get(3), "tes", 0, true);
+        assertTermEvent(listener.events.get(4), "test", 0, false);
+
+        dict.removeTermAddedListener(listener);
+        dict.addTerm("toast");
+        assertEquals(5, listener.events.size());
+    }
+
+    /**
+     * Test that terms added through
+     * {@link net.digitaltsunami.word.trie.CharTrie#addTerms(Iterable)} and
+     * {@link net.digitaltsunami.word.trie.CharTrie#addSortedTerms(Iterator)}
+     * are delivered in batches with the same events as adding each term.
+     */
+    @Test
+    public void testTermsAddedBatches() {
+        Random random = new Random(5);
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++) {
+            char[] term = new char[1 + random.nextInt(6)];
+            for (int j = 0; j < term.length; j++) {
+                term[j] = (char) ('a' + random.nextInt(5));
+            }
+            terms.add(new String(term));
+        }
+        CharTrie expected = new CharTrie();
+        TestTermAddedListener expectedListener = new TestTermAddedListener();
+        expected.addTermAddedListener(expectedListener);
+        for (String term : terms) {
+            expected.addTerm(term);
+        }
+
+        CharTrie dict = new CharTrie();
+        TestTermAddedListener listener = new TestTermAddedListener();
+        dict.addTermAddedListener(listener);
+        dict.addTerms(terms);
+        assertEquals(0, listener.termCount);
+        assertEquals(3, listener.batchCount);
+        assertEquals(expectedListener.events.size(), listener.events.size());
+        for (int i = 0; i < terms.size(); i++) {
+            TermAddedEvent event = expectedListener.events.get(i);
+            assertTermEvent(listener.events.get(i), terms.get(i), event.getNewNodeCount(),
+                    event.isNewTerm());
+        }
+
+        Collections.sort(terms);
+        expected = new CharTrie();
+        expectedListener = new TestTermAddedListener();
+        expected.addTermAddedListener(expectedListener);
+        for (String term : terms) {
+            expected.addTerm(term);
+        }
+        dict = new CharTrie();
+        listener = new TestTermAddedListener();
+        dict.addTermAddedListener(listener);
+        dict.addSortedTerms(terms.iterator());
+        assertEquals(3, listener.batchCount);
+        int newNodes = 0;
+        for (int i = 0; i < terms.size(); i++) {
+            TermAddedEvent event = expectedListener.events.get(i);
+            assertTermEvent(listener.events.get(i), terms.get(i), event.getNewNodeCount(),
+                    event.isNewTerm());
+            newNodes += event.getNewNodeCount();
+        }
+        assertEquals(countNodes(dict.getRoot()) - 1, newNodes);
+
+        // No batches are delivered for terms that were all excluded.
+        dict.addTerms(Collections.<String> emptyList());
+        assertEquals(3, listener.batchCount);
+    }
+
+    private static void assertTermEvent(TermAddedEvent event, String term, int newNodeCount,
+            boolean newTerm) {
+        assertEquals(term, event.getTerminusNode().getTerm());
+        assertEquals(newNodeCount, event.getNewNodeCount());
+        assertEquals(newTerm, event.isNewTerm());
+    }
+
+    private static int countNodes(CharTrieNode node) {
+        int count = 1;
+        for (CharTrieNode child : node) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    private static TestNodeEventListener[] addListeners(CharTrie dict) {
+        TestNodeEventListener[] listeners = new TestNodeEventListener[4];
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i] = new TestNodeEventListener();
+        }
+        dict.addCharacterAddedListener(listeners[0]);
+        dict.addCharacterTerminusAddedListener(listeners[1]);
+        dict.addNodeAddedListener(listeners[2]);
+        dict.addTerminusNodeAddedListener(listeners[3]);
+        return listeners;
+    }
+}
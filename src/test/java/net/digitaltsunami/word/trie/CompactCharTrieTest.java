@@ -0,0 +1,153 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Exercise the queries of the {@link CompactCharTrie} and ensure that they
+ * match those of the source {@link CharTrie}.
+ *
+ * @author dhagberg
+ *
+ */
+public class CompactCharTrieTest {
+    private CharTrie dict;
+    private CompactCharTrie compact;
+
+    @Before
+    public void setup() {
+        dict = new CharTrie();
+        dict.addTerm("flag");
+        dict.addTerm("flagrant");
+        dict.addTerm("frag");
+        dict.addTerm("fang");
+        dict.addTerm("fast");
+        dict.addTerm("pang");
+        dict.addTerm("plan");
+        dict.addTerm("act");
+        dict.addTerm("Ace");
+        compact = dict.freeze();
+    }
+
+    /**
+     * Test that all terms are found and that fragments and unknown terms are
+     * not.
+     */
+    @Test
+    public void testContains() {
+        assertTrue(compact.contains("flag"));
+        assertTrue(compact.contains("flagrant"));
+        assertTrue(compact.contains("ACE"));
+        assertFalse(compact.contains("flagr"));
+        assertFalse(compact.contains("zebra"));
+        assertFalse(compact.contains(""));
+        assertEquals(9, compact.getWordCount());
+    }
+
+    /**
+     * Test that prefix queries return the terms in lexicographic order.
+     */
+    @Test
+    public void testFindTerms() {
+        Collection<String> terms = compact.findTerms("F");
+        assertEquals(5, terms.size());
+        String[] expected = { "fang", "fast", "flag", "flagrant", "frag" };
+        assertEquals(expected.length, terms.size());
+        int i = 0;
+        for (String term : terms) {
+            assertEquals(expected[i++], term);
+        }
+        assertEquals(2, compact.findTerms("flag").size());
+        assertEquals(0, compact.findTerms("x").size());
+        assertEquals(0, compact.findTerms("").size());
+    }
+
+    /**
+     * Test pattern queries with leading, trailing and custom wildcards.
+     */
+    @Test
+    public void testFindPattern() {
+        Collection<String> terms = compact.findPattern("~ang");
+        assertEquals(2, terms.size());
+        assertTrue(terms.contains("fang"));
+        assertTrue(terms.contains("pang"));
+
+        assertEquals(4, compact.findPattern("f~~~").size());
+        assertEquals(0, compact.findPattern("").size());
+
+        compact.setWildcardChar('+');
+        terms = compact.findPattern("f+a+");
+        assertEquals(2, terms.size());
+        assertTrue(terms.contains("flag"));
+        assertTrue(terms.contains("frag"));
+    }
+
+    /**
+     * Test queries by term length.
+     */
+    @Test
+    public void testFindAllTermsOfLength() {
+        assertEquals(2, compact.findAllTermsOfLength(3).size());
+        assertEquals(6, compact.findAllTermsOfLength(4).size());
+        assertEquals(8, compact.findAllTermsOfLength(3, 4).size());
+        assertEquals(9, compact.findAllTermsOfLength(0, 10).size());
+    }
+
+    /**
+     * Test that a trie built using the weighted factory, where siblings are not
+     * in lexicographic order, results in the same queries.
+     */
+    @Test
+    public void testFromWeightedTrie() throws Exception {
+        ExpectedValueWeightTable table = new ExpectedValueWeightTable(getClass()
+                .getResourceAsStream("/letterFreqTestSample.csv"));
+        CharTrie weighted = new CharTrie(null, null, new WeightedCharTrieNodeFactory(table));
+        for (String term : dict.getAllTerms()) {
+            weighted.addTerm(term);
+        }
+        CompactCharTrie weightedCompact = CompactCharTrie.from(weighted);
+        assertEquals(compact.findTerms("f"), weightedCompact.findTerms("f"));
+        assertEquals(compact.findPattern("~~a~"), weightedCompact.findPattern("~~a~"));
+    }
+
+    /**
+     * Test a larger, randomly generated dictionary against the source trie.
+     */
+    @Test
+    public void testRandomDictionary() {
+        Random random = new Random(42);
+        CharTrie source = new CharTrie();
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 2000; i++) {
+            int len = 1 + random.nextInt(10);
+            StringBuilder sb = new StringBuilder(len);
+            for (int c = 0; c < len; c++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            terms.add(sb.toString());
+            source.addTerm(sb.toString());
+        }
+        CompactCharTrie copy = source.freeze();
+        assertEquals(source.getWordCount(), copy.getWordCount());
+        for (String term : terms) {
+            assertTrue(copy.contains(term));
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            assertEquals(source.findTerms(String.valueOf(c)), copy.findTerms(String.valueOf(c)));
+        }
+        assertEquals(source.findPattern("~a~e"), copy.findPattern("~a~e"));
+        assertEquals(source.findAllTermsOfLength(3).size(), copy.findAllTermsOfLength(3).size());
+    }
+}
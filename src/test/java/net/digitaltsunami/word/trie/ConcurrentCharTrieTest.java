@@ -0,0 +1,247 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.digitaltsunami.word.trie.event.NodeAddedEvent;
+import net.digitaltsunami.word.trie.event.NodeAddedListener;
+import net.digitaltsunami.word.trie.event.TerminusNodeAddedEvent;
+import net.digitaltsunami.word.trie.event.TestTermAddedListener;
+
+import org.junit.Test;
+
+/**
+ * Exercise the {@link ConcurrentCharTrie} from a single thread and from
+ * multiple threads adding overlapping terms.
+ *
+ * @author dhagberg
+ *
+ */
+public class ConcurrentCharTrieTest {
+    private static final int THREADS = 8;
+
+    /**
+     * Test that the dictionary behaves as a {@link CharTrie} when used from a
+     * single thread.
+     */
+    @Test
+    public void testSingleThread() {
+        CharTrie dict = new ConcurrentCharTrie();
+        dict.addTerm("flag");
+        dict.addTerm("flagrant");
+        dict.addTerm("Frag");
+        dict.addTerm("fang");
+        dict.addTerm("flag");
+        dict.addTerm("fla");
+
+        assertEquals(5, dict.getWordCount());
+        assertTrue(dict.contains("fla"));
+        assertTrue(dict.contains("frag"));
+        assertFalse(dict.contains("flagr"));
+
+        Collection<String> terms = dict.findTerms("fla");
+        assertEquals(3, terms.size());
+        assertEquals("fla", terms.iterator().next());
+
+        String[] expected = { "fang", "fla", "flag", "flagrant", "frag" };
+        List<String> all = new ArrayList<String>(dict.getAllTerms());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], all.get(i));
+        }
+        assertEquals(2, dict.findPattern("f~a~").size());
+    }
+
+    /**
+     * Test that term added events report the nodes created and new terms and
+     * that sorted terms are delivered as a batch.
+     */
+    @Test
+    public void testTermAddedEvents() {
+        CharTrie dict = new ConcurrentCharTrie();
+        TestTermAddedListener listener = new TestTermAddedListener();
+        dict.addTermAddedListener(listener);
+        dict.addTerm("flag");
+        dict.addTerm("fla");
+        dict.addTerm("flags");
+        dict.addTerm("flag");
+        assertEquals(4, listener.termCount);
+        assertEquals(4, listener.events.get(0).getNewNodeCount());
+        assertTrue(listener.events.get(1).isNewTerm());
+        assertEquals(0, listener.events.get(1).getNewNodeCount());
+        assertEquals(1, listener.events.get(2).getNewNodeCount());
+        assertFalse(listener.events.get(3).isNewTerm());
+
+        dict.addSortedTerms(createTerms(50).iterator());
+        assertEquals(4, listener.termCount);
+        assertEquals(1, listener.batchCount);
+        assertEquals(54, listener.events.size());
+    }
+
+    /**
+     * Test that terms added concurrently are each counted once and are all
+     * found, and that a new term event is dispatched once per term.
+     */
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        final List<String> terms = createTerms(5000);
+        Set<String> unique = new HashSet<String>(terms);
+        final ConcurrentCharTrie dict = new ConcurrentCharTrie();
+        final AtomicInteger newTermEvents = new AtomicInteger();
+        dict.addTerminusNodeAddedListener(new NewTermCounter(newTermEvents));
+
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t;
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        int found = 0;
+                        // Each thread adds every term, starting at a different
+                        // position, while reading back terms it has added.
+                        for (int i = 0; i < terms.size(); i++) {
+                            String term = terms.get((i + offset * 611) % terms.size());
+                            dict.addTerm(term);
+                            if (dict.contains(term)) {
+                                found++;
+                            }
+                        }
+                        return found;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(terms.size(), result.get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(unique.size(), dict.getWordCount());
+        assertEquals(unique.size(), newTermEvents.get());
+        assertEquals(unique, new HashSet<String>(dict.getAllTerms()));
+
+        // Children must remain in lexicographic order.
+        List<String> all = new ArrayList<String>(dict.getAllTerms());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).compareTo(all.get(i)) < 0);
+        }
+    }
+
+    /**
+     * Test that terms read while other threads add the same terms are each
+     * counted once and a new term event is dispatched once per term.
+     */
+    @Test
+    public void testConcurrentReadFrom() throws Exception {
+        List<String> terms = createTerms(5000);
+        final Set<String> unique = new HashSet<String>(terms);
+        CharTrie source = new CharTrie();
+        source.addTerms(unique);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        source.writeTo(out);
+        final byte[] data = out.toByteArray();
+
+        final ConcurrentCharTrie dict = new ConcurrentCharTrie();
+        final AtomicInteger newTermEvents = new AtomicInteger();
+        dict.addTerminusNodeAddedListener(new NewTermCounter(newTermEvents));
+
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < THREADS; t++) {
+                final boolean reader = t % 2 == 0;
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        if (reader) {
+                            dict.readFrom(new ByteArrayInputStream(data));
+                        } else {
+                            for (String term : unique) {
+                                dict.addTerm(term);
+                            }
+                        }
+                        return dict.getWordCount();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertTrue(result.get().intValue() <= unique.size());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(unique.size(), dict.getWordCount());
+        assertEquals(unique.size(), newTermEvents.get());
+        assertEquals(unique, new HashSet<String>(dict.getAllTerms()));
+    }
+
+    /**
+     * Count the terminus node added events dispatched.
+     */
+    private static class NewTermCounter implements NodeAddedListener {
+        private final AtomicInteger count;
+
+        NewTermCounter(AtomicInteger count) {
+            this.count = count;
+        }
+
+        @Override
+        public void terminusNodeAdded(TerminusNodeAddedEvent event) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void terminusCharacterAdded(TerminusNodeAddedEvent event) {
+        }
+
+        @Override
+        public void nodeAdded(NodeAddedEvent event) {
+        }
+
+        @Override
+        public void characterAdded(NodeAddedEvent event) {
+        }
+    }
+
+    private List<String> createTerms(int count) {
+        Random random = new Random(11);
+        List<String> terms = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            int len = 1 + random.nextInt(6);
+            StringBuilder sb = new StringBuilder(len);
+            for (int c = 0; c < len; c++) {
+                sb.append((char) ('a' + random.nextInt(5)));
+            }
+            terms.add(sb.toString());
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link IndexedLexCharTrieNode} and
+ * {@link IndexedLexCharTrieNodeFactory}.
+ *
+ * @author dhagberg
+ *
+ */
+public class IndexedLexCharTrieNodeTest {
+
+    /**
+     * Test that the children are indexed only once above the threshold and
+     * that lookups and sibling links are correct either side of it.
+     */
+    @Test
+    public void testIndexThreshold() {
+        IndexedLexCharTrieNode root = new IndexedLexCharTrieNode(true);
+        List<Character> values = new ArrayList<Character>();
+        for (char c = 'a'; c <= 'z'; c++) {
+            values.add(c);
+        }
+        Collections.shuffle(values, new Random(3));
+        for (int i = 0; i < values.size(); i++) {
+            char value = values.get(i);
+            CharTrieNode child = root.addChild(value);
+            assertSame(child, root.addChild(value));
+            assertEquals(i + 1 > IndexedLexCharTrieNode.INDEX_THRESHOLD, root.isIndexed());
+            assertOrdered(root, i + 1);
+            for (int j = 0; j <= i; j++) {
+                assertEquals(values.get(j).charValue(), root.getChild(values.get(j)).getValue());
+            }
+            assertNull(root.getChild('A'));
+            assertNull(root.getChild('{'));
+        }
+    }
+
+    /**
+     * Test that children appended in order are added to the index.
+     */
+    @Test
+    public void testAppendChild() {
+        IndexedLexCharTrieNode root = new IndexedLexCharTrieNode(true);
+        LinkedCharTrieNode last = (LinkedCharTrieNode) root.addChild('a');
+        for (char c = 'b'; c <= 'z'; c++) {
+            last = root.appendChild(last, c);
+            assertSame(last, root.getChild(c));
+        }
+        assertTrue(root.isIndexed());
+        assertNull(root.appendChild((LinkedCharTrieNode) root.getChild('m'), '~'));
+        assertOrdered(root, 26);
+    }
+
+    /**
+     * Test that children of created nodes are also indexed.
+     */
+    @Test
+    public void testFactory() {
+        IndexedLexCharTrieNodeFactory factory = new IndexedLexCharTrieNodeFactory();
+        CharTrieNode root = factory.createRootNode();
+        assertTrue(root.isRoot());
+        CharTrieNode child = factory.addChild(root, 'a');
+        assertTrue(child instanceof IndexedLexCharTrieNode);
+        assertTrue(factory.addChild(child, 'b') instanceof IndexedLexCharTrieNode);
+        assertTrue(factory.createNode('c') instanceof IndexedLexCharTrieNode);
+        CharTrieTerminusNode terminus = factory.addChildTerminus(child, 'c');
+        assertTrue(terminus.isTerminus());
+        assertEquals("ac", terminus.getTerm());
+    }
+
+    /**
+     * Test a dictionary using a wide alphabet against one using
+     * {@link LexCharTrieNodeFactory}.
+     */
+    @Test
+    public void testDictionary() throws IOException {
+        Random random = new Random(11);
+        CharTrie lex = new CharTrie();
+        CharTrie indexed = new CharTrie(null, null, new IndexedLexCharTrieNodeFactory());
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++) {
+            char[] term = new char[1 + random.nextInt(4)];
+            for (int j = 0; j < term.length; j++) {
+                term[j] = (char) (0x4E00 + random.nextInt(j == 0 ? 500 : 20));
+            }
+            terms.add(new String(term));
+            lex.addTerm(terms.get(i));
+            indexed.addTerm(terms.get(i));
+        }
+        assertEquals(lex.getWordCount(), indexed.getWordCount());
+        for (String term : terms) {
+            assertTrue(indexed.contains(term));
+            assertEquals(lex.findTerms(term), indexed.findTerms(term));
+        }
+        assertFalse(indexed.contains("\u4e00\u4e00\u4e00\u4e00\u4e00"));
+
+        Collections.sort(terms);
+        CharTrie sorted = new CharTrie(null, null, new IndexedLexCharTrieNodeFactory());
+        sorted.addSortedTerms(terms.iterator());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        indexed.writeTo(out);
+        CharTrie read = new CharTrie(null, null, new IndexedLexCharTrieNodeFactory());
+        read.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        for (char c = 0x4E00; c < 0x4E00 + 500; c++) {
+            String prefix = String.valueOf(c);
+            assertEquals(lex.findTerms(prefix), sorted.findTerms(prefix));
+            assertEquals(lex.findTerms(prefix), read.findTerms(prefix));
+            assertEquals(lex.findPattern(prefix + "~"), indexed.findPattern(prefix + "~"));
+        }
+        assertEquals(lex.getWordCount(), sorted.getWordCount());
+    }
+
+    /**
+     * Ensure the siblings are linked in ascending order in both directions.
+     */
+    private static void assertOrdered(IndexedLexCharTrieNode parent, int expectedCount) {
+        int count = 0;
+        LinkedCharTrieNode prior = null;
+        Iterator<CharTrieNode> it = parent.iterator();
+        while (it.hasNext()) {
+            LinkedCharTrieNode child = (LinkedCharTrieNode) it.next();
+            assertSame(prior, child.getPriorSibling());
+            if (prior != null) {
+                assertTrue(prior.getValue() < child.getValue());
+            }
+            prior = child;
+            count++;
+        }
+        assertEquals(expectedCount, count);
+    }
+}
@@ -223,6 +223,27 @@ public class LexLinkedCharTrieNodeTest {
         assertSame(firstChild, sibling.getPriorSibling());
     }
 
+    /**
+     * Attach to parent, a new 'b' node. Append new 'd' node following 'b'.
+     * Ensure that the append is refused when 'b' is no longer the last child
+     * or the value does not follow it.
+     */
+    @Test
+    public void appendSiblingViaAppendChild() {
+        LexLinkedCharTrieNode root = new LexLinkedCharTrieNode('0');
+        LexLinkedCharTrieNode firstChild = (LexLinkedCharTrieNode) root.addChild('b');
+        LinkedCharTrieNode sibling = root.appendChild(firstChild, 'd');
+
+        assertSame(sibling, root.getChild('d'));
+        assertSame(root, sibling.getParent());
+        assertSame(sibling, firstChild.getNextSibling());
+        assertSame(firstChild, sibling.getPriorSibling());
+        assertNull(root.appendChild(firstChild, 'e'));
+        assertNull(root.appendChild(sibling, 'c'));
+        assertNull(root.appendChild(sibling, 'd'));
+        assertNull(root.appendChild(new LexLinkedCharTrieNode('a'), 'z'));
+    }
+
     /**
      * Attach to parent, a new 'b' node. Attach new 'd' node. Attach new 'c'
      * node. Ensure that b.left is null, b.right is c, c.left is b, c.right is d
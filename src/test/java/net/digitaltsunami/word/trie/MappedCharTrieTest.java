@@ -0,0 +1,104 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Exercise writing a trie image and querying it through a
+ * {@link MappedCharTrie}.
+ *
+ * @author dhagberg
+ *
+ */
+public class MappedCharTrieTest {
+    private CharTrie dict;
+    private File imageFile;
+
+    @Before
+    public void setup() throws IOException {
+        dict = new CharTrie();
+        dict.addTerm("flag");
+        dict.addTerm("flagrant");
+        dict.addTerm("frag");
+        dict.addTerm("fang");
+        dict.addTerm("fast");
+        dict.addTerm("pang");
+        dict.addTerm("plan");
+        dict.addTerm("act");
+        imageFile = File.createTempFile("wordscope", ".trie");
+        imageFile.deleteOnExit();
+    }
+
+    @After
+    public void cleanup() {
+        imageFile.delete();
+    }
+
+    /**
+     * Test that a written image answers the same queries as the source
+     * dictionary.
+     */
+    @Test
+    public void testWriteAndOpen() throws IOException {
+        MappedCharTrie.write(dict, imageFile);
+        MappedCharTrie mapped = MappedCharTrie.open(imageFile);
+
+        assertEquals(8, mapped.getWordCount());
+        assertTrue(mapped.contains("flag"));
+        assertTrue(mapped.contains("Flagrant"));
+        assertFalse(mapped.contains("flagr"));
+        assertFalse(mapped.contains("zebra"));
+
+        assertEquals(dict.findTerms("f"), mapped.findTerms("f"));
+        assertEquals(dict.findTerms("flag"), mapped.findTerms("flag"));
+        assertEquals(0, mapped.findTerms("x").size());
+
+        assertEquals(dict.findPattern("~ang"), mapped.findPattern("~ang"));
+        assertEquals(dict.findAllTermsOfLength(4).size(), mapped.findAllTermsOfLength(4).size());
+    }
+
+    /**
+     * Test that the wildcard of the source dictionary is retained in the
+     * image.
+     */
+    @Test
+    public void testWildcardRetained() throws IOException {
+        dict.setWildcardChar('+');
+        MappedCharTrie.write(dict, imageFile);
+        MappedCharTrie mapped = MappedCharTrie.open(imageFile);
+        assertEquals('+', mapped.getWildcardChar());
+        assertEquals(2, mapped.findPattern("+ang").size());
+    }
+
+    /**
+     * Test that a file that is not a trie image is rejected.
+     */
+    @Test
+    public void testInvalidImage() throws IOException {
+        FileOutputStream out = new FileOutputStream(imageFile);
+        try {
+            out.write(new byte[64]);
+        } finally {
+            out.close();
+        }
+        try {
+            MappedCharTrie.open(imageFile);
+            fail("Expected invalid image to be rejected");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+}
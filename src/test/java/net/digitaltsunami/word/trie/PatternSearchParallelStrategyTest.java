@@ -0,0 +1,163 @@
+package net.digitaltsunami.word.trie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test that the {@link PatternSearchParallelStrategy} returns the same terms,
+ * in the same order, as the {@link PatternSearchRecursiveStrategy}.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class PatternSearchParallelStrategyTest {
+    private static final String[] PATTERNS = { "~~a~~", "~~~~~~", "a~b", "~", "~~~~~~~~~~",
+            "ab~~", "abcdef", "zz~", "", "~e~e~e~" };
+    private static ExecutorService executor;
+    private static CharTrie dict;
+
+    @BeforeClass
+    public static void createDictionary() {
+        executor = Executors.newFixedThreadPool(3);
+        dict = new CharTrie();
+        Random random = new Random(31);
+        for (int i = 0; i < 5000; i++) {
+            int len = 1 + random.nextInt(9);
+            StringBuilder sb = new StringBuilder(len);
+            for (int c = 0; c < len; c++) {
+                sb.append((char) ('a' + random.nextInt(6)));
+            }
+            dict.addTerm(sb.toString());
+        }
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Test using a cutoff that causes tasks to be used for all but the
+     * smallest searches.
+     */
+    @Test
+    public void testMatchesRecursive() {
+        PatternSearchStrategy parallel = new PatternSearchParallelStrategy(executor, 3, 2);
+        PatternSearchStrategy recursive = new PatternSearchRecursiveStrategy();
+        for (String pattern : PATTERNS) {
+            assertEquals(pattern, findPattern(recursive, pattern), findPattern(parallel, pattern));
+        }
+    }
+
+    /**
+     * Test using the default cutoff.
+     */
+    @Test
+    public void testDefaultCutoff() {
+        PatternSearchStrategy parallel = new PatternSearchParallelStrategy(executor, 3);
+        PatternSearchStrategy recursive = new PatternSearchRecursiveStrategy();
+        for (String pattern : PATTERNS) {
+            assertEquals(pattern, findPattern(recursive, pattern), findPattern(parallel, pattern));
+        }
+    }
+
+    /**
+     * Test that tasks are used only for patterns whose remaining wildcards
+     * leave enough work, regardless of the number of subtrees.
+     */
+    @Test
+    public void testCutoffEstimate() throws InterruptedException {
+        ThreadPoolExecutor counted = (ThreadPoolExecutor) Executors.newFixedThreadPool(3);
+        try {
+            PatternSearchStrategy parallel = new PatternSearchParallelStrategy(counted, 3, 1000);
+            PatternSearchStrategy recursive = new PatternSearchRecursiveStrategy();
+            // Many subtrees, but each is a single path once no wildcards remain.
+            for (String pattern : new String[] { "~~ab", "abcdef", "ab~~" }) {
+                assertEquals(pattern, findPattern(recursive, pattern),
+                        findPattern(parallel, pattern));
+            }
+            assertEquals(0, counted.getTaskCount());
+            assertEquals(findPattern(recursive, "~~~~~~"), findPattern(parallel, "~~~~~~"));
+            assertTrue(counted.getTaskCount() > 0);
+        } finally {
+            counted.shutdown();
+        }
+    }
+
+    /**
+     * Test that limited results are the first terms of the unlimited results.
+     */
+    @Test
+    public void testLimit() {
+        LimitedPatternSearchStrategy parallel = new PatternSearchParallelStrategy(executor, 3, 2);
+        List<String> all = findPattern(parallel, "~~~~~");
+        assertTrue(all.size() > 100);
+        for (int limit : new int[] { 1, 7, 100, all.size() + 1 }) {
+            Collection<String> limited = parallel.findPattern("~~~~~", dict.getRoot(),
+                    dict.getWildcardChar(), limit);
+            assertEquals(all.subList(0, Math.min(limit, all.size())), limited);
+        }
+    }
+
+    /**
+     * Test that the strategy may be set on the dictionary.
+     */
+    /**
+     * Test that the search of a subtree stops once cancelled, as done for the
+     * tasks still running when the parallel search completes.
+     */
+    @Test
+    public void testCancelledSearchStops() {
+        PatternSearchRecursiveStrategy recursive = new PatternSearchRecursiveStrategy();
+        char[] pattern = "~~~~~".toCharArray();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<String> terms = new ArrayList<String>();
+        assertFalse(recursive.findPattern(terms, pattern, 0, dict.getRoot(), '~',
+                Integer.MAX_VALUE, cancelled));
+        assertEquals(findPattern(recursive, "~~~~~"), terms);
+
+        cancelled.set(true);
+        terms.clear();
+        assertTrue(recursive.findPattern(terms, pattern, 0, dict.getRoot(), '~',
+                Integer.MAX_VALUE, cancelled));
+        assertTrue(terms.isEmpty());
+    }
+
+    @Test
+    public void testWithDictionary() {
+        CharTrie small = new CharTrie();
+        small.setPatternSearchStrategy(new PatternSearchParallelStrategy(executor, 2, 1));
+        small.addTerm("flag");
+        small.addTerm("frag");
+        small.addTerm("fang");
+        small.addTerm("flog");
+        small.addTerm("crag");
+        List<String> expected = new ArrayList<String>();
+        expected.add("crag");
+        expected.add("fang");
+        expected.add("flag");
+        expected.add("flog");
+        expected.add("frag");
+        assertEquals(expected, new ArrayList<String>(small.findPattern("~~~g")));
+        assertEquals(expected.subList(0, 2), new ArrayList<String>(small.findPattern("~~~g", 2)));
+    }
+
+    private List<String> findPattern(PatternSearchStrategy strategy, String pattern) {
+        return new ArrayList<String>(strategy.findPattern(pattern, dict.getRoot(),
+                dict.getWildcardChar()));
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ *
+ */
+package net.digitaltsunami.word.trie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Exercise the {@link RadixCharTrie}, including the splitting of runs, and
+ * ensure that the queries match those of {@link CharTrie}.
+ *
+ * @author dhagberg
+ *
+ */
+public class RadixCharTrieTest {
+    private RadixCharTrie dict;
+
+    @Before
+    public void setup() {
+        dict = new RadixCharTrie();
+        dict.addTerm("internationalization");
+        dict.addTerm("internal");
+        dict.addTerm("Inter");
+        dict.addTerm("in");
+        dict.addTerm("intern");
+        dict.addTerm("flag");
+    }
+
+    /**
+     * Test that terms ending within or branching from a run are found and
+     * that fragments of runs are not.
+     */
+    @Test
+    public void testContains() {
+        assertTrue(dict.contains("internationalization"));
+        assertTrue(dict.contains("INTERNAL"));
+        assertTrue(dict.contains("inter"));
+        assertTrue(dict.contains("in"));
+        assertTrue(dict.contains("intern"));
+        assertFalse(dict.contains("i"));
+        assertFalse(dict.contains("interna"));
+        assertFalse(dict.contains("international"));
+        assertFalse(dict.contains("internationalizations"));
+        assertFalse(dict.contains("fla"));
+        assertFalse(dict.contains(""));
+        assertEquals(6, dict.getWordCount());
+    }
+
+    /**
+     * Test that adding a term again is not counted and that nodes are split
+     * as terms end within runs: in, ter, n, a, l, tionalization and flag.
+     */
+    @Test
+    public void testNodeCount() {
+        dict.addTerm("inter");
+        assertEquals(6, dict.getWordCount());
+        assertEquals(7, dict.getNodeCount());
+        dict.addTerm("internationalize");
+        assertEquals(7, dict.getWordCount());
+        assertEquals(9, dict.getNodeCount());
+        assertTrue(dict.contains("internationalization"));
+        assertTrue(dict.contains("internationalize"));
+    }
+
+    /**
+     * Test prefixes ending at, within and beyond runs.
+     */
+    @Test
+    public void testFindTerms() {
+        assertEquals(Arrays.asList("in", "inter", "intern", "internal", "internationalization"),
+                dict.findTerms("i"));
+        assertEquals(Arrays.asList("internal", "internationalization"), dict.findTerms("interna"));
+        assertEquals(Arrays.asList("internationalization"), dict.findTerms("Internation"));
+        assertEquals(Arrays.asList("flag"), dict.findTerms("fl"));
+        assertEquals(0, dict.findTerms("internationalizations").size());
+        assertEquals(0, dict.findTerms("inz").size());
+        assertEquals(0, dict.findTerms("").size());
+    }
+
+    /**
+     * Test patterns with wildcards falling within runs.
+     */
+    @Test
+    public void testFindPattern() {
+        assertEquals(Arrays.asList("intern"), dict.findPattern("i~t~r~"));
+        assertEquals(Arrays.asList("internal"), dict.findPattern("~~~~~~a~"));
+        assertEquals(Arrays.asList("flag"), dict.findPattern("fl~g"));
+        assertEquals(Arrays.asList("flag"), dict.findPattern("~~~~"));
+        dict.setWildcardChar('?');
+        assertEquals(Arrays.asList("in"), dict.findPattern("??"));
+        assertEquals(0, dict.findPattern("~~").size());
+        assertEquals(0, dict.findPattern("").size());
+    }
+
+    /**
+     * Test a larger, randomly generated dictionary against a {@link CharTrie}
+     * and ensure that fewer nodes are used.
+     */
+    @Test
+    public void testRandomDictionary() {
+        Random random = new Random(42);
+        CharTrie source = new CharTrie();
+        RadixCharTrie radix = new RadixCharTrie();
+        List<String> terms = new ArrayList<String>();
+        for (int i = 0; i < 2000; i++) {
+            int len = 1 + random.nextInt(14);
+            StringBuilder sb = new StringBuilder(len);
+            for (int c = 0; c < len; c++) {
+                sb.append((char) ('a' + random.nextInt(8)));
+            }
+            terms.add(sb.toString());
+            source.addTerm(sb.toString());
+            radix.addTerm(sb.toString());
+        }
+        assertEquals(source.getWordCount(), radix.getWordCount());
+        for (String term : terms) {
+            assertTrue(radix.contains(term));
+            assertFalse(radix.contains(term + 'z'));
+        }
+        for (char c = 'a'; c <= 'h'; c++) {
+            assertEquals(source.findTerms(String.valueOf(c)), radix.findTerms(String.valueOf(c)));
+            assertEquals(source.findTerms("a" + c + "c"), radix.findTerms("a" + c + "c"));
+        }
+        assertEquals(new ArrayList<String>(source.findPattern("~a~e~~")),
+                radix.findPattern("~a~e~~"));
+        assertEquals(new ArrayList<String>(source.findPattern("b~~~~~~~~~~")),
+                radix.findPattern("b~~~~~~~~~~"));
+
+        int trieNodes = countNodes(source.getRoot()) - 1;
+        assertTrue("Expected fewer nodes: " + radix.getNodeCount() + " of " + trieNodes,
+                radix.getNodeCount() * 2 < trieNodes);
+    }
+
+    private static int countNodes(CharTrieNode node) {
+        int count = 1;
+        for (CharTrieNode child : node) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * 
+ */
+package net.digitaltsunami.word.trie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Exercise the scoring and best completion capabilities of the
+ * {@link ScoredCharTrie}.
+ * 
+ * @author dhagberg
+ * 
+ */
+public class ScoredCharTrieTest {
+
+    /**
+     * Test that completions are returned in descending order of score and
+     * limited to the requested number.
+     */
+    @Test
+    public void testTopCompletions() {
+        ScoredCharTrie dict = new ScoredCharTrie();
+        dict.addTerm("flag", 10);
+        dict.addTerm("flagrant", 3);
+        dict.addTerm("flog", 7);
+        dict.addTerm("frag", 12);
+        dict.addTerm("fang", 1);
+        dict.addTerm("plan", 50);
+
+        assertEquals(Arrays.asList("frag", "flag", "flog"), dict.topCompletions("f", 3));
+        assertEquals(Arrays.asList("frag", "flag", "flog", "flagrant", "fang"),
+                dict.topCompletions("F", 10));
+        assertEquals(Arrays.asList("flag", "flagrant"), dict.topCompletions("flag", 5));
+        assertEquals(Arrays.asList("plan"), dict.topCompletions("", 1));
+        assertEquals(0, dict.topCompletions("fz", 3).size());
+        assertEquals(0, dict.topCompletions("f", 0).size());
+    }
+
+    /**
+     * Test that scores are restored when the dictionary is written and read
+     * and that a plain dictionary rejects the scored stream.
+     */
+    @Test
+    public void testWriteRead() throws IOException {
+        ScoredCharTrie dict = new ScoredCharTrie();
+        dict.addTerm("flag", 10);
+        dict.addTerm("flagrant", 3);
+        dict.addTerm("flog", 7);
+        dict.addTerm("frag", 12);
+        dict.addTerm("fang", 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dict.writeTo(out);
+
+        ScoredCharTrie copy = new ScoredCharTrie();
+        copy.addTerm("flog", 20);
+        copy.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(5, copy.getWordCount());
+        assertEquals(7.0F, copy.getScore("flog"), 0.0F);
+        assertEquals(Arrays.asList("frag", "flag", "flog", "flagrant", "fang"),
+                copy.topCompletions("f", 10));
+
+        try {
+            new CharTrie().readFrom(new ByteArrayInputStream(out.toByteArray()));
+            fail("Expected IOException for term data");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test that replacing the score of a term, including lowering it, is
+     * reflected in the completions and the maximum scores of the nodes.
+     */
+    @Test
+    public void testReplaceScore() {
+        ScoredCharTrie dict = new ScoredCharTrie();
+        dict.addTerm("flag", 10);
+        dict.addTerm("flog", 7);
+        assertEquals(Arrays.asList("flag"), dict.topCompletions("f", 1));
+
+        dict.addTerm("flag", 2);
+        assertEquals(2, dict.getScore("flag"), 0.0F);
+        assertEquals(Arrays.asList("flog", "flag"), dict.topCompletions("f", 2));
+        ScoredCharTrieNode root = (ScoredCharTrieNode) dict.getRoot();
+        assertEquals(7, root.getMaxScore(), 0.0F);
+
+        // Terms added without a score use the default score.
+        dict.addTerm("fl");
+        assertEquals(ScoredCharTrieNode.DEFAULT_SCORE, dict.getScore("fl"), 0.0F);
+        assertTrue(Float.isNaN(dict.getScore("flo")));
+        assertEquals(3, dict.getWordCount());
+    }
+
+    /**
+     * Test that the completions match those found by sorting all terms with
+     * the prefix by score.
+     */
+    @Test
+    public void testTopCompletionsMatchesSort() {
+        Random random = new Random(3);
+        ScoredCharTrie dict = new ScoredCharTrie();
+        Map<String, Float> scores = new HashMap<String, Float>();
+        for (int i = 0; i < 2000; i++) {
+            int len = 1 + random.nextInt(6);
+            StringBuilder sb = new StringBuilder(len);
+            for (int c = 0; c < len; c++) {
+                sb.append((char) ('a' + random.nextInt(5)));
+            }
+            float score = random.nextInt(1000);
+            dict.addTerm(sb.toString(), score);
+            scores.put(sb.toString(), score);
+        }
+
+        for (String prefix : new String[] { "", "a", "bc", "eee" }) {
+            List<Float> expected = new ArrayList<Float>();
+            for (Map.Entry<String, Float> entry : scores.entrySet()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    expected.add(entry.getValue());
+                }
+            }
+            Collections.sort(expected, Collections.reverseOrder());
+
+            for (int k : new int[] { 1, 5, 50 }) {
+                List<String> completions = dict.topCompletions(prefix, k);
+                assertEquals(Math.min(k, expected.size()), completions.size());
+                for (int i = 0; i < completions.size(); i++) {
+                    assertTrue(completions.get(i).startsWith(prefix));
+                    assertEquals(expected.get(i), scores.get(completions.get(i)));
+                }
+            }
+        }
+    }
+}
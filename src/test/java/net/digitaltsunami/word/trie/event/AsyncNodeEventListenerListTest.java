@@ -0,0 +1,363 @@
+package net.digitaltsunami.word.trie.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import net.digitaltsunami.word.trie.CharTrie;
+import net.digitaltsunami.word.trie.CharTrieNode;
+import net.digitaltsunami.word.trie.CharTrieNodeFactory;
+import net.digitaltsunami.word.trie.CharTrieTerminusNode;
+import net.digitaltsunami.word.trie.LexCharTrieNodeFactory;
+import net.digitaltsunami.word.trie.event.AsyncNodeEventListenerList.OverflowPolicy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link AsyncNodeEventListenerList}.
+ *
+ * @author dhagberg
+ *
+ */
+public class AsyncNodeEventListenerListTest {
+    private AsyncNodeEventListenerList listenerList;
+    private CharTrieNode node;
+    private CharTrieTerminusNode terminus;
+
+    @Before
+    public void setup() {
+        CharTrieNodeFactory factory = new LexCharTrieNodeFactory();
+        node = factory.createNode('a');
+        terminus = factory.addChildTerminus(node, 't');
+    }
+
+    @After
+    public void teardown() throws InterruptedException {
+        if (listenerList != null) {
+            listenerList.shutdown();
+        }
+    }
+
+    /**
+     * Test that events are delivered in order on the dispatching thread.
+     */
+    @Test
+    public void testDeliveryOrder() throws InterruptedException {
+        listenerList = new AsyncNodeEventListenerList(new NodeEventListenerList(), 16,
+                OverflowPolicy.BLOCK);
+        RecordingListener listener = new RecordingListener(null);
+        listenerList.addCharacterAddedListener(listener);
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            switch (i % 4) {
+            case 0:
+                listenerList.dispatchCharacterAddedEvent(node);
+                expected.add("c");
+                break;
+            case 1:
+                listenerList.dispatchNodeAddedEvent(node);
+                expected.add("n");
+                break;
+            case 2:
+                listenerList.dispatchTerminusCharacterAddedEvent(terminus);
+                expected.add("tc");
+                break;
+            default:
+                listenerList.dispatchTerminusNodeAddedEvent(terminus);
+                expected.add("tn");
+                break;
+            }
+        }
+        listenerList.flush();
+        assertEquals(expected, listener.events);
+        assertEquals(1, listener.threads.size());
+        assertNotSame(Thread.currentThread(), listener.threads.get(0));
+        assertEquals(0, listenerList.getDroppedEventCount());
+    }
+
+    /**
+     * Test that events for which there are no listeners are not recorded and
+     * that listeners are registered with the wrapped list.
+     */
+    @Test
+    public void testListenersDelegated() throws InterruptedException {
+        NodeEventListenerList delegate = new NodeEventListenerList();
+        listenerList = new AsyncNodeEventListenerList(delegate);
+        TestNodeEventListener listener = new TestNodeEventListener();
+        listenerList.addTerminusNodeAddedListener(listener);
+        assertTrue(delegate.hasTerminusNodeAddedListeners());
+        assertFalse(listenerList.hasCharacterAddedListeners());
+        listenerList.dispatchCharacterAddedEvent(node);
+        listenerList.dispatchTerminusNodeAddedEvent(terminus);
+        listenerList.flush();
+        assertEquals(1, listener.eventCount);
+        listenerList.removeTerminusNodeAddedListener(listener);
+        assertFalse(delegate.hasTerminusNodeAddedListeners());
+        assertSame(delegate, listenerList.getDelegate());
+    }
+
+    /**
+     * Test that events are discarded while the buffer is full.
+     */
+    @Test
+    public void testDrop() throws InterruptedException {
+        listenerList = new AsyncNodeEventListenerList(new NodeEventListenerList(), 2,
+                OverflowPolicy.DROP);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(release);
+        listenerList.addCharacterAddedListener(listener);
+        for (int i = 0; i < 10; i++) {
+            listenerList.dispatchCharacterAddedEvent(node);
+        }
+        release.countDown();
+        listenerList.flush();
+        assertTrue(listenerList.getDroppedEventCount() >= 6);
+        assertEquals(10, listener.events.size() + listenerList.getDroppedEventCount());
+    }
+
+    /**
+     * Test that character events are discarded while the buffer is full, but
+     * that terminus events wait to be recorded.
+     */
+    @Test
+    public void testCoalesce() throws InterruptedException {
+        listenerList = new AsyncNodeEventListenerList(new NodeEventListenerList(), 2,
+                OverflowPolicy.COALESCE);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(release);
+        listenerList.addCharacterAddedListener(listener);
+        for (int i = 0; i < 10; i++) {
+            listenerList.dispatchCharacterAddedEvent(node);
+            listenerList.dispatchNodeAddedEvent(node);
+        }
+        assertTrue(listenerList.getDroppedEventCount() >= 16);
+        release.countDown();
+        for (int i = 0; i < 50; i++) {
+            listenerList.dispatchTerminusNodeAddedEvent(terminus);
+        }
+        listenerList.flush();
+        assertEquals(50, Collections.frequency(listener.events, "tn"));
+        // One replacement each for the discarded character and node events.
+        assertEquals(20, listener.events.size() - 52 + listenerList.getDroppedEventCount());
+        assertEquals(terminus, listener.nodes.get(listener.events.indexOf("tn") - 1));
+    }
+
+    /**
+     * Test that a listener for character events receives, for each term whose
+     * character events were discarded, a character event for the terminus
+     * node of the term.
+     */
+    @Test
+    public void testCoalesceCharacterListener() throws InterruptedException {
+        listenerList = new AsyncNodeEventListenerList(new NodeEventListenerList(), 2,
+                OverflowPolicy.COALESCE);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(release);
+        listenerList.addCharacterAddedListener(listener);
+        CharTrieNodeFactory factory = new LexCharTrieNodeFactory();
+        List<List<CharTrieNode>> prefixes = new ArrayList<List<CharTrieNode>>();
+        List<CharTrieTerminusNode> termini = new ArrayList<CharTrieTerminusNode>();
+        for (int i = 0; i < 30; i++) {
+            List<CharTrieNode> prefix = new ArrayList<CharTrieNode>();
+            prefix.add(factory.createNode('a'));
+            for (char c = 'b'; c <= 'e'; c++) {
+                prefix.add(factory.addChild(prefix.get(prefix.size() - 1), c));
+            }
+            for (CharTrieNode prefixNode : prefix) {
+                listenerList.dispatchCharacterAddedEvent(prefixNode);
+            }
+            release.countDown();
+            CharTrieTerminusNode termNode = factory.addChildTerminus(prefix.get(4), 'f');
+            listenerList.dispatchTerminusCharacterAddedEvent(termNode);
+            prefixes.add(prefix);
+            termini.add(termNode);
+        }
+        listenerList.flush();
+        assertTrue(listenerList.getDroppedEventCount() > 0);
+        assertEquals(30, Collections.frequency(listener.events, "tc"));
+        for (int i = 0; i < 30; i++) {
+            int delivered = 0;
+            for (CharTrieNode prefixNode : prefixes.get(i)) {
+                delivered += Collections.frequency(listener.nodes, prefixNode);
+            }
+            boolean replaced = listener.nodes.indexOf(termini.get(i)) != listener.nodes
+                    .lastIndexOf(termini.get(i));
+            assertTrue("term " + i, delivered == 5 || replaced);
+            assertEquals("term " + i, delivered < 5, replaced);
+        }
+        // The first term was added while the listener was blocked.
+        assertTrue(listener.nodes.indexOf(termini.get(0)) < listener.nodes.lastIndexOf(termini
+                .get(0)));
+    }
+
+    /**
+     * Test that an exception thrown by a listener does not stop delivery.
+     */
+    @Test
+    public void testListenerException() throws InterruptedException {
+        listenerList = new AsyncNodeEventListenerList(new NodeEventListenerList());
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread.UncaughtExceptionHandler original = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread t, Throwable e) {
+                errors.add(e);
+            }
+        });
+        try {
+            listenerList.addNodeAddedListener(new NodeAddedAdapter() {
+                @Override
+                public void nodeAdded(NodeAddedEvent event) {
+                    throw new IllegalStateException("listener failure");
+                }
+            });
+            TestNodeEventListener listener = new TestNodeEventListener();
+            listenerList.addNodeAddedListener(listener);
+            listenerList.dispatchNodeAddedEvent(node);
+            listenerList.dispatchTerminusNodeAddedEvent(terminus);
+            listenerList.flush();
+            assertEquals(1, errors.size());
+            assertEquals(1, listener.eventCount);
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(original);
+        }
+    }
+
+    /**
+     * Test that events recorded prior to shutdown are delivered and that later
+     * events are delivered on the calling thread.
+     */
+    @Test
+    public void testShutdown() throws InterruptedException {
+        listenerList = new AsyncNodeEventListenerList(new NodeEventListenerList());
+        RecordingListener listener = new RecordingListener(null);
+        listenerList.addCharacterAddedListener(listener);
+        for (int i = 0; i < 100; i++) {
+            listenerList.dispatchCharacterAddedEvent(node);
+        }
+        listenerList.shutdown();
+        assertTrue(listenerList.isShutdown());
+        assertEquals(100, listener.events.size());
+        listenerList.dispatchCharacterAddedEvent(node);
+        assertEquals(101, listener.events.size());
+        assertSame(Thread.currentThread(), listener.threads.get(1));
+        listenerList.flush();
+    }
+
+    /**
+     * Test that a dictionary delivers the same events asynchronously.
+     */
+    @Test
+    public void testCharTrieAsyncDispatch() throws InterruptedException {
+        CharTrie dict = new CharTrie();
+        TestNodeEventListener listener = new TestNodeEventListener();
+        dict.addCharacterAddedListener(listener);
+        dict.enableAsyncEventDispatch(64, OverflowPolicy.BLOCK);
+        dict.enableAsyncEventDispatch(64, OverflowPolicy.DROP);
+        for (int i = 0; i < 500; i++) {
+            dict.addTerm("term" + i);
+        }
+        dict.flushEvents();
+        int asyncCount = listener.eventCount;
+        dict.disableAsyncEventDispatch();
+        dict.flushEvents();
+
+        CharTrie syncDict = new CharTrie();
+        TestNodeEventListener syncListener = new TestNodeEventListener();
+        syncDict.addCharacterAddedListener(syncListener);
+        for (int i = 0; i < 500; i++) {
+            syncDict.addTerm("term" + i);
+        }
+        assertEquals(syncListener.eventCount, asyncCount);
+        dict.addTerm("another");
+        assertEquals(asyncCount + 7, listener.eventCount);
+    }
+
+    /**
+     * Test that term events are delivered in order with the node events and
+     * that the terms of a batch are delivered together.
+     */
+    @Test
+    public void testTermEvents() throws InterruptedException {
+        CharTrie dict = new CharTrie();
+        TestTermAddedListener listener = new TestTermAddedListener();
+        dict.addTermAddedListener(listener);
+        dict.enableAsyncEventDispatch(4, OverflowPolicy.COALESCE);
+        for (int i = 0; i < 100; i++) {
+            dict.addTerm("term" + i);
+        }
+        List<String> batch = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            batch.add("batch" + i);
+        }
+        dict.addTerms(batch);
+        dict.flushEvents();
+        assertEquals(100, listener.termCount);
+        assertEquals(1, listener.batchCount);
+        assertEquals(200, listener.events.size());
+        assertEquals("term0", listener.events.get(0).getTerminusNode().getTerm());
+        assertEquals("batch99", listener.events.get(199).getTerminusNode().getTerm());
+        dict.disableAsyncEventDispatch();
+    }
+
+    /**
+     * Records the type of each event and the thread on which it was delivered,
+     * optionally waiting for a latch before handling the first event.
+     */
+    private static class RecordingListener implements NodeAddedListener {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        private final List<CharTrieNode> nodes = Collections
+                .synchronizedList(new ArrayList<CharTrieNode>());
+        private final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        private final CountDownLatch release;
+
+        private RecordingListener(CountDownLatch release) {
+            this.release = release;
+        }
+
+        private void record(String type, NodeAddedEvent event) {
+            if (release != null) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(type);
+            nodes.add(event.getNode());
+            if (!threads.contains(Thread.currentThread())) {
+                threads.add(Thread.currentThread());
+            }
+        }
+
+        @Override
+        public void characterAdded(NodeAddedEvent event) {
+            record("c", event);
+        }
+
+        @Override
+        public void terminusCharacterAdded(TerminusNodeAddedEvent event) {
+            record("tc", event);
+        }
+
+        @Override
+        public void nodeAdded(NodeAddedEvent event) {
+            record("n", event);
+        }
+
+        @Override
+        public void terminusNodeAdded(TerminusNodeAddedEvent event) {
+            record("tn", event);
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package net.digitaltsunami.word.trie.event;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
 import net.digitaltsunami.word.trie.CharTrieNode;
 import net.digitaltsunami.word.trie.CharTrieNodeFactory;
 import net.digitaltsunami.word.trie.CharTrieTerminusNode;
@@ -127,4 +133,30 @@ public class NodeEventListenerListTest {
         listenerList.dispatchTerminusNodeAddedEvent(terminus);
         assertEquals(1, listener.eventCount);
     }
+
+    /**
+     * Test adding of a term listener and corresponding dispatch methods.
+     */
+    @Test
+    public void testAddTermListener() {
+        TestTermAddedListener listener = new TestTermAddedListener();
+        assertFalse(listenerList.hasTermAddedListeners());
+        listenerList.addTermAddedListener(listener);
+        assertTrue(listenerList.hasTermAddedListeners());
+        listenerList.dispatchTermAddedEvent(terminus, 2, true);
+        listenerList.dispatchTermsAddedEvent(Arrays.asList(new TermAddedEvent(terminus, 0,
+                false), new TermAddedEvent(terminus, 1, true)));
+        assertEquals(1, listener.termCount);
+        assertEquals(1, listener.batchCount);
+        assertEquals(3, listener.events.size());
+        assertSame(terminus, listener.events.get(0).getTerminusNode());
+        assertEquals(2, listener.events.get(0).getNewNodeCount());
+        assertTrue(listener.events.get(0).isNewTerm());
+        assertFalse(listener.events.get(1).isNewTerm());
+
+        listenerList.removeTermAddedListener(listener);
+        assertFalse(listenerList.hasTermAddedListeners());
+        listenerList.dispatchTermAddedEvent(terminus, 0, false);
+        assertEquals(3, listener.events.size());
+    }
 }
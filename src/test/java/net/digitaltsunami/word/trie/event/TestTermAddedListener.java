@@ -0,0 +1,24 @@
+package net.digitaltsunami.word.trie.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class TestTermAddedListener implements TermAddedListener {
+    public final List<TermAddedEvent> events = Collections
+            .synchronizedList(new ArrayList<TermAddedEvent>());
+    public int termCount;
+    public int batchCount;
+
+    @Override
+    public void termAdded(TermAddedEvent event) {
+        termCount++;
+        events.add(event);
+    }
+
+    @Override
+    public void termsAdded(List<TermAddedEvent> batch) {
+        batchCount++;
+        events.addAll(batch);
+    }
+}